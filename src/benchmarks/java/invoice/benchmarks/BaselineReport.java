@@ -0,0 +1,119 @@
+package invoice.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Scores of a run side by side with the stored baseline. All suites measure average time, so lower is better.
+ * The baseline is a small JSON map keyed by benchmark name and parameters, meant to be committed.
+ */
+final class BaselineReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record Score(double score, double error, String unit) {
+    }
+
+    record Row(String benchmark, Score baseline, Score current, boolean regression) {
+        Double changePercent() {
+            if (baseline == null || baseline.score() == 0) return null;
+            return (current.score() - baseline.score()) / baseline.score() * 100;
+        }
+    }
+
+    private final List<Row> rows;
+    private final double thresholdPercent;
+
+    private BaselineReport(List<Row> rows, double thresholdPercent) {
+        this.rows = rows;
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    static Map<String, Score> load(Path file) throws IOException {
+        if (!Files.exists(file)) return Map.of();
+        return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, Score>>() {});
+    }
+
+    static void save(Path file, Collection<RunResult> results) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        results.forEach(result -> scores.put(key(result), score(result)));
+        MAPPER.writeValue(file.toFile(), scores);
+    }
+
+    static BaselineReport compare(Map<String, Score> baseline, Collection<RunResult> results, double thresholdPercent) {
+        List<Row> rows = new ArrayList<>();
+        for (RunResult result : results) {
+            String key = key(result);
+            Score current = score(result);
+            Score previous = baseline.get(key);
+            rows.add(new Row(key, previous, current, isRegression(previous, current, thresholdPercent)));
+        }
+        rows.sort(Comparator.comparing(Row::benchmark));
+        return new BaselineReport(rows, thresholdPercent);
+    }
+
+    boolean hasRegressions() {
+        return rows.stream().anyMatch(Row::regression);
+    }
+
+    String toMarkdown() {
+        StringBuilder markdown = new StringBuilder("| Benchmark | Baseline | Current | Change | |\n|---|---:|---:|---:|---|\n");
+        for (Row row : rows) {
+            Double change = row.changePercent();
+            markdown.append("| ").append(row.benchmark())
+                    .append(" | ").append(row.baseline() == null ? "-" : format(row.baseline()))
+                    .append(" | ").append(format(row.current()))
+                    .append(" | ").append(change == null ? "new" : String.format("%+.1f%%", change))
+                    .append(" | ").append(row.regression() ? "REGRESSION" : "")
+                    .append(" |\n");
+        }
+        long regressions = rows.stream().filter(Row::regression).count();
+        markdown.append(String.format("%n%d benchmarks, %d slower than baseline by more than %.0f%%%n",
+                rows.size(), regressions, thresholdPercent));
+        long missing = missingBaselines();
+        if (missing > 0) {
+            markdown.append(String.format("%d benchmarks have no baseline and were not checked; "
+                    + "record one with --save-baseline (see src/benchmarks/README.md)%n", missing));
+        }
+        return markdown.toString();
+    }
+
+    long missingBaselines() {
+        return rows.stream().filter(row -> row.baseline() == null).count();
+    }
+
+    // Slower by more than the threshold, and not explained by run-to-run noise
+    private static boolean isRegression(Score baseline, Score current, double thresholdPercent) {
+        if (baseline == null || !baseline.unit().equals(current.unit())) return false;
+        boolean beyondThreshold = current.score() > baseline.score() * (1 + thresholdPercent / 100);
+        boolean beyondNoise = current.score() - current.error() > baseline.score() + baseline.error();
+        return beyondThreshold && beyondNoise;
+    }
+
+    private static String key(RunResult result) {
+        BenchmarkParams params = result.getParams();
+        String name = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.', params.getBenchmark().lastIndexOf('.') - 1) + 1);
+        if (params.getParamsKeys().isEmpty()) return name;
+        StringJoiner joiner = new StringJoiner(",", name + "[", "]");
+        params.getParamsKeys().forEach(param -> joiner.add(param + "=" + params.getParam(param)));
+        return joiner.toString();
+    }
+
+    private static Score score(RunResult result) {
+        Result<?> primary = result.getPrimaryResult();
+        double error = Double.isNaN(primary.getScoreError()) ? 0 : primary.getScoreError();
+        return new Score(primary.getScore(), error, primary.getScoreUnit());
+    }
+
+    private static String format(Score score) {
+        return String.format("%.3f ± %.3f %s", score.score(), score.error(), score.unit());
+    }
+}
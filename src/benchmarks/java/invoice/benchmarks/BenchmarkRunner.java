@@ -0,0 +1,75 @@
+package invoice.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the JMH suites, writes the raw JMH results and compares every score against the stored baseline.
+ * Exits with status 1 when a benchmark is slower than the baseline by more than the threshold
+ * and the two confidence intervals do not overlap.
+ *
+ * Usage: BenchmarkRunner [--include Jwt] [--threshold-percent 10] [--save-baseline] [--quick]
+ *        [--baseline src/benchmarks/baseline.json] [--output target/benchmarks]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Map<String, String> arguments = parse(args);
+        String include = arguments.getOrDefault("include", BenchmarkRunner.class.getPackageName() + ".*");
+        double thresholdPercent = Double.parseDouble(arguments.getOrDefault("threshold-percent", "10"));
+        Path baselineFile = Path.of(arguments.getOrDefault("baseline", "src/benchmarks/baseline.json"));
+        Path outputDirectory = Path.of(arguments.getOrDefault("output", "target/benchmarks"));
+        Files.createDirectories(outputDirectory);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(outputDirectory.resolve("jmh-result.json").toString());
+        if (arguments.containsKey("quick") && arguments.containsKey("save-baseline")) {
+            throw new IllegalArgumentException("A --quick run is too short to record as the baseline");
+        }
+        if (arguments.containsKey("quick")) {
+            // Smoke run for checking the suites still work; not precise enough for a baseline
+            options.forks(1).warmupIterations(1).measurementIterations(2);
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        BaselineReport report = BaselineReport.compare(BaselineReport.load(baselineFile), results, thresholdPercent);
+        String markdown = report.toMarkdown();
+        Files.writeString(outputDirectory.resolve("report.md"), markdown);
+        System.out.println();
+        System.out.println(markdown);
+
+        if (arguments.containsKey("save-baseline")) {
+            BaselineReport.save(baselineFile, results);
+            System.out.println("Baseline saved to " + baselineFile);
+            return;
+        }
+        if (report.missingBaselines() > 0) {
+            System.err.println("No baseline in " + baselineFile + " for " + report.missingBaselines() + " benchmarks");
+        }
+        if (report.hasRegressions()) System.exit(1);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            String name = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            arguments.put(name, hasValue ? args[++i] : "true");
+        }
+        return arguments;
+    }
+}
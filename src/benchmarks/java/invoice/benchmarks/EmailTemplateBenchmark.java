@@ -0,0 +1,60 @@
+package invoice.benchmarks;
+
+import invoice.config.StaticAssets;
+import invoice.services.implementation.MailgunEmailServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML rendering of the most frequently sent emails: the OTP, the invoice notification and the payment receipt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EmailTemplateBenchmark {
+
+    private MailgunEmailServiceImpl emailService;
+    private MethodHandle otpTemplate;
+    private MethodHandle invoiceNotificationTemplate;
+    private MethodHandle paymentReceiptTemplate;
+    private String itemsJson;
+
+    @Setup
+    public void setUp() {
+        emailService = new MailgunEmailServiceImpl(new RestTemplate(), new StaticAssets());
+        otpTemplate = Fixtures.privateMethod(MailgunEmailServiceImpl.class, "buildOTPEmailTemplate",
+                String.class, String.class, String.class);
+        invoiceNotificationTemplate = Fixtures.privateMethod(MailgunEmailServiceImpl.class, "buildInvoiceNotificationEmailBody",
+                String.class, Collections.nCopies(7, String.class).toArray(Class<?>[]::new));
+        paymentReceiptTemplate = Fixtures.privateMethod(MailgunEmailServiceImpl.class, "buildPaymentReceiptEmailBody",
+                String.class, Collections.nCopies(13, String.class).toArray(Class<?>[]::new));
+        itemsJson = "[{\"itemName\":\"Design\",\"quantity\":2,\"rate\":125000,\"amount\":250000},"
+                + "{\"itemName\":\"Hosting\",\"quantity\":1,\"rate\":45000,\"amount\":45000}]";
+    }
+
+    @Benchmark
+    public String otpEmail() throws Throwable {
+        return (String) otpTemplate.invoke(emailService, "Ada", "482913");
+    }
+
+    @Benchmark
+    public String invoiceNotificationEmail() throws Throwable {
+        return (String) invoiceNotificationTemplate.invoke(emailService, "Tunde",
+                "https://originalinvoice.com/invoice/view/0b6f", "INV-042", "2026-01-15", "2026-02-14",
+                "NGN 295,000.00", "Bello Logistics");
+    }
+
+    @Benchmark
+    public String paymentReceiptEmail() throws Throwable {
+        return (String) paymentReceiptTemplate.invoke(emailService, "Tunde Bello", "accounts@bellologistics.example",
+                "RCP-017", "2026-01-20", "INV-042", "2026-01-15", itemsJson, "295,000.00", "22,125.00",
+                "317,125.00", "Bank transfer", "2026-01-19", "Ada Obi");
+    }
+}
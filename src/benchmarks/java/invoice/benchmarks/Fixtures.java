@@ -0,0 +1,134 @@
+package invoice.benchmarks;
+
+import invoice.data.constants.Invoice_Status;
+import invoice.data.constants.Item_Category;
+import invoice.data.constants.TaxType;
+import invoice.data.models.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Detached entities shaped like a typical invoice, and access to the private hot paths the benchmarks measure
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Invoice invoice(int itemCount) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setTitle("Website redesign");
+        invoice.setInvoiceNumber("INV-042");
+        invoice.setInvoiceColor("#1976d2");
+        invoice.setCreationDate(LocalDateTime.of(2026, 1, 15, 9, 30));
+        invoice.setDueDate(LocalDateTime.of(2026, 2, 14, 9, 30));
+        invoice.setStatus(Invoice_Status.UNPAID);
+        invoice.setCurrency("NGN");
+        invoice.setDiscount(2_500.0);
+        invoice.setPaymentTerms("Net 30");
+        invoice.setAccountNumber("0123456789");
+        invoice.setAccountName("Original Studio Ltd");
+        invoice.setBank("First Bank");
+        invoice.setNote("Thank you for your business");
+
+        for (int i = 0; i < itemCount; i++) {
+            InvoiceItem item = new InvoiceItem();
+            item.setId((long) i);
+            item.setItemName("Line item " + i);
+            item.setCategory(i % 2 == 0 ? Item_Category.SERVICE : Item_Category.PRODUCT);
+            item.setDescription("Description of line item " + i);
+            item.setQuantity(1 + i % 5);
+            item.setRate(BigDecimal.valueOf(12_500 + i * 150L, 2));
+            item.setAmount(item.getRate().multiply(BigDecimal.valueOf(item.getQuantity())));
+            invoice.addItem(item);
+        }
+
+        BigDecimal subtotal = BigDecimal.valueOf(invoice.calculateSubtotal());
+        for (Tax tax : new Tax[]{tax("VAT", TaxType.VAT, "7.50"), tax("WHT", TaxType.WHT, "5.00")}) {
+            InvoiceTax invoiceTax = new InvoiceTax();
+            invoiceTax.setTax(tax);
+            invoiceTax.setTaxableAmount(subtotal);
+            invoiceTax.setAppliedRate(tax.getBaseTaxRate());
+            invoiceTax.setTaxAmount(InvoiceTax.calculateTaxAmount(subtotal, tax.getBaseTaxRate()));
+            invoice.addInvoiceTax(invoiceTax);
+        }
+
+        invoice.setSubtotal(invoice.calculateSubtotal());
+        invoice.setTotalTaxAmount(invoice.calculateTotalTaxAmount());
+        invoice.setTotalDue(invoice.calculateTotalDue());
+        invoice.setSender(sender());
+        invoice.setRecipient(recipient());
+        return invoice;
+    }
+
+    static Tax tax(String name, TaxType taxType, String baseRate) {
+        Tax tax = new Tax();
+        tax.setId(UUID.randomUUID());
+        tax.setName(name);
+        tax.setTaxType(taxType);
+        tax.setBaseTaxRate(new BigDecimal(baseRate));
+        tax.setBusinessRate(new BigDecimal(baseRate).add(BigDecimal.ONE));
+        return tax;
+    }
+
+    static InvoiceSender sender() {
+        InvoiceSender sender = new InvoiceSender();
+        sender.setId(1L);
+        sender.setFullName("Ada Obi");
+        sender.setEmail("ada@originalstudio.example");
+        sender.setPhone("+2348000000000");
+        sender.setAddress("12 Marina Road, Lagos");
+        sender.setBusinessName("Original Studio Ltd");
+        return sender;
+    }
+
+    static InvoiceRecipient recipient() {
+        InvoiceRecipient recipient = new InvoiceRecipient();
+        recipient.setId(1L);
+        recipient.setFullName("Tunde Bello");
+        recipient.setBusinessName("Bello Logistics");
+        recipient.setEmail("accounts@bellologistics.example");
+        recipient.setPhone("+2348111111111");
+        recipient.setCustomerType("BUSINESS");
+        recipient.setCountry("Nigeria");
+        return recipient;
+    }
+
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                    .findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Benchmarked method " + owner.getSimpleName() + "." + name + " not found", e);
+        }
+    }
+
+    /**
+     * An instance built through the widest constructor with every dependency left empty,
+     * for benchmarking methods that never touch those dependencies
+     */
+    static <T> T withoutDependencies(Class<T> type) {
+        try {
+            Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                    .max(Comparator.comparingInt(Constructor::getParameterCount))
+                    .orElseThrow();
+            constructor.setAccessible(true);
+            Object[] arguments = Arrays.stream(constructor.getParameterTypes())
+                    .map(parameter -> parameter.isPrimitive() ? Array.get(Array.newInstance(parameter, 1), 0) : null)
+                    .toArray();
+            return type.cast(constructor.newInstance(arguments));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getSimpleName(), e);
+        }
+    }
+}
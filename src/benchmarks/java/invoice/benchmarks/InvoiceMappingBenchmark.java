@@ -0,0 +1,55 @@
+package invoice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import invoice.data.models.Client;
+import invoice.data.models.Invoice;
+import invoice.data.models.InvoiceSender;
+import invoice.dtos.response.InvoiceResponse;
+import invoice.services.implementation.InvoiceServiceImplementation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON serialization of {@link InvoiceResponse}, the two steps behind every invoice read.
+ * The object mapper is built like Spring MVC's, so dates and modules serialize as they do in responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvoiceMappingBenchmark {
+
+    @Param({"5", "50"})
+    private int items;
+
+    private Invoice invoice;
+    private InvoiceResponse response;
+    private InvoiceServiceImplementation invoiceService;
+    private MethodHandle mapToResponse;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws Throwable {
+        invoice = Fixtures.invoice(items);
+        invoiceService = Fixtures.withoutDependencies(InvoiceServiceImplementation.class);
+        mapToResponse = Fixtures.privateMethod(InvoiceServiceImplementation.class, "mapToResponse",
+                InvoiceResponse.class, Invoice.class, Client.class, InvoiceSender.class);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = mapToResponse();
+    }
+
+    @Benchmark
+    public InvoiceResponse mapToResponse() throws Throwable {
+        return (InvoiceResponse) mapToResponse.invoke(invoiceService, invoice, (Client) null, invoice.getSender());
+    }
+
+    @Benchmark
+    public byte[] serializeInvoiceResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
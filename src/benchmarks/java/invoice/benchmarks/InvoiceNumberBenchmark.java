@@ -0,0 +1,32 @@
+package invoice.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice number formatting as done for every candidate number while searching for a free one.
+ * {@code padded} is the allocation-light alternative to compare against before changing the format call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvoiceNumberBenchmark {
+
+    @Param({"7", "1234"})
+    private int sequenceNumber;
+
+    @Benchmark
+    public String format() {
+        return String.format("INV-%03d", sequenceNumber);
+    }
+
+    @Benchmark
+    public String padded() {
+        String digits = Integer.toString(sequenceNumber);
+        return digits.length() >= 3 ? "INV-" + digits : "INV-" + "000".substring(digits.length()) + digits;
+    }
+}
@@ -0,0 +1,46 @@
+package invoice.benchmarks;
+
+import invoice.data.constants.CustomerType;
+import invoice.data.constants.TaxType;
+import invoice.data.models.Invoice;
+import invoice.data.models.InvoiceTax;
+import invoice.data.models.Tax;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice totals and the tax computation done for every invoice-level tax when an invoice is created
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvoiceTotalsBenchmark {
+
+    @Param({"5", "50"})
+    private int items;
+
+    private Invoice invoice;
+    private Tax vat;
+
+    @Setup
+    public void setUp() {
+        invoice = Fixtures.invoice(items);
+        vat = Fixtures.tax("VAT", TaxType.VAT, "7.50");
+    }
+
+    @Benchmark
+    public Double calculateTotalDue() {
+        return invoice.calculateTotalDue();
+    }
+
+    @Benchmark
+    public BigDecimal calculateInvoiceTax() {
+        BigDecimal taxableAmount = BigDecimal.valueOf(invoice.calculateSubtotal());
+        return InvoiceTax.calculateTaxAmount(taxableAmount, vat.getApplicableRate(CustomerType.BUSINESS));
+    }
+}
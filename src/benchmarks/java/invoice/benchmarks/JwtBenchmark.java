@@ -0,0 +1,75 @@
+package invoice.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import invoice.security.config.RsaKeyProperties;
+import invoice.security.services.JwtServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+/**
+ * RS512 token signing at login and the verification every authenticated request goes through,
+ * with a freshly generated key of the same 2048-bit size as the deployed one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtBenchmark {
+    private static final String[] ROLES = {"USER"};
+
+    private RsaKeyProperties rsaKeys;
+    private JwtServiceImpl jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        rsaKeys = new RsaKeyProperties((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate());
+        jwtService = new JwtServiceImpl(rsaKeys);
+
+        Instant now = Instant.now();
+        accessToken = JWT.create()
+                .withIssuer("OriginalInvoiceAccessToken")
+                .withIssuedAt(now)
+                .withExpiresAt(now.plus(30, MINUTES))
+                .withSubject("ada@originalstudio.example")
+                .withClaim("principal", "ada@originalstudio.example")
+                .withClaim("credentials", "")
+                .withArrayClaim("roles", ROLES)
+                .withClaim("type", "access")
+                .sign(Algorithm.RSA512(rsaKeys.publicKey(), rsaKeys.privateKey()));
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken("ada@originalstudio.example", "", ROLES);
+    }
+
+    // Mirrors CustomAuthorizationFilter, which builds the algorithm and verifier per request
+    @Benchmark
+    public DecodedJWT verify() {
+        Algorithm algorithm = Algorithm.RSA512(rsaKeys.publicKey(), rsaKeys.privateKey());
+        JWTVerifier verifier = JWT.require(algorithm)
+                .withIssuer("OriginalInvoiceAccessToken")
+                .withClaimPresence("roles")
+                .withClaimPresence("principal")
+                .withClaimPresence("credentials")
+                .build();
+        return verifier.verify(accessToken);
+    }
+}
@@ -0,0 +1,13 @@
+#!/usr/bin/env bash
+# Run the JMH suites and compare them with the committed baseline in src/benchmarks/baseline.json.
+#
+# Results land in target/benchmarks: jmh-result.json (raw JMH output) and report.md (baseline comparison).
+# Exits non-zero when a benchmark regressed beyond the threshold. Record a new baseline on a quiet machine
+# with --save-baseline, and commit it together with the change it measures.
+#
+# Usage: src/benchmarks/run-benchmarks.sh [--include InvoiceMapping] [--threshold-percent 10] [--save-baseline] [--quick]
+set -euo pipefail
+cd "$(dirname "$0")/../.."
+
+./mvnw -B -q -Pbenchmarks test-compile
+./mvnw -B -q -Pbenchmarks exec:exec -Dbenchmark.args="$*"
@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Compare platform-thread and virtual-thread request handling under load, fully offline.
+#
+# Starts a local upstream stub (Paystack/Mailgun base URLs point at it), launches the app twice
+# from a JDK 21 build - once per thread mode - and drives both with ThreadModeComparison.
+# The database comes from the usual DATABASE_URL_DEV / credentials environment.
+#
+# Usage: src/loadtest/compare-thread-modes.sh [extra ThreadModeComparison args, e.g. --path ... --token ...]
+set -euo pipefail
+cd "$(dirname "$0")/../.."
+
+STUB_PORT=${STUB_PORT:-9101}
+STUB_LATENCY_MS=${STUB_LATENCY_MS:-200}
+PROFILE=${PROFILE:-dev}
+
+./mvnw -B -q -Pjdk21 -DskipTests package
+./mvnw -B -q -Ploadtest test-compile
+
+./mvnw -B -q -Ploadtest exec:java -Dloadtest.main=invoice.loadtest.UpstreamStubServer \
+  -Dexec.args="--port $STUB_PORT --latency-ms $STUB_LATENCY_MS --jitter-ms 50" &
+STUB_PID=$!
+
+JAR=$(ls target/*.jar | grep -v original | head -1)
+UPSTREAMS="--paystack.api.url=http://127.0.0.1:$STUB_PORT --mailgun.api.base-url=http://127.0.0.1:$STUB_PORT"
+
+java -jar "$JAR" --spring.profiles.active="$PROFILE" --server.port=8089 --management.server.port=9189 $UPSTREAMS > target/platform-threads.log 2>&1 &
+PLATFORM_PID=$!
+java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.profiles.active="$PROFILE,virtual-threads" \
+  --server.port=8090 --management.server.port=9190 $UPSTREAMS > target/virtual-threads.log 2>&1 &
+VIRTUAL_PID=$!
+trap 'kill $STUB_PID $PLATFORM_PID $VIRTUAL_PID 2>/dev/null || true' EXIT
+
+for port in 8089 8090; do
+  until curl -sf "http://localhost:$port/api/users/exists?email=probe@example.com" > /dev/null; do sleep 2; done
+done
+
+./mvnw -B -q -Ploadtest exec:java -Dexec.args="--platform-url http://localhost:8089 --virtual-url http://localhost:8090 $*"
+
+echo "Pinned virtual threads (if any) are reported in target/virtual-threads.log"
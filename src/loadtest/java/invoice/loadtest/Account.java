@@ -0,0 +1,23 @@
+package invoice.loadtest;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A registered load-test user, its current access token, the unpaid invoices it can still mark as paid
+ * and the few invoices many users edit at once
+ */
+final class Account {
+    final String email;
+    final String password;
+    final Deque<String> unpaidInvoiceIds = new ConcurrentLinkedDeque<>();
+    final List<String> contendedInvoiceIds = new CopyOnWriteArrayList<>();
+    volatile String accessToken;
+
+    Account(String email, String password) {
+        this.email = email;
+        this.password = password;
+    }
+}
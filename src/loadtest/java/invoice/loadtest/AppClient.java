@@ -0,0 +1,198 @@
+package invoice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Requests the scenarios send, and the unmeasured setup calls that prepare accounts and data for them
+ */
+final class AppClient {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    AppClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    HttpRequest loginRequest(Account account) {
+        return json("/api/auth/login", Map.of("email", account.email, "password", account.password)).build();
+    }
+
+    HttpRequest createInvoiceRequest(Account account, int itemCount) {
+        return multipart(authorized("/api/invoices/add", account), "POST", invoiceFields("Load test invoice", itemCount));
+    }
+
+    HttpRequest updateInvoiceRequest(Account account, String invoiceId, long revision) {
+        return multipart(authorized("/api/invoices/update/" + invoiceId, account), "PATCH",
+                invoiceFields("Load test invoice rev " + revision, 3));
+    }
+
+    private static Map<String, String> invoiceFields(String title, int itemCount) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("fullName", "Bello Logistics Accounts");
+        fields.put("email", "accounts@bellologistics.example");
+        fields.put("phone", "+2348111111111");
+        fields.put("businessName", "Bello Logistics");
+        fields.put("title", title);
+        fields.put("currency", "NGN");
+        fields.put("invoiceColor", "#1976d2");
+        fields.put("paymentTerms", "Net 30");
+        fields.put("accountNumber", "0123456789");
+        fields.put("accountName", "Load Test Ltd");
+        fields.put("bank", "First Bank");
+        double subtotal = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int quantity = 1 + i % 3;
+            double rate = 12_500 + i * 500;
+            fields.put("items[" + i + "].itemName", "Service " + i);
+            fields.put("items[" + i + "].category", "SERVICE");
+            fields.put("items[" + i + "].quantity", Integer.toString(quantity));
+            fields.put("items[" + i + "].rate", Double.toString(rate));
+            fields.put("items[" + i + "].amount", Double.toString(quantity * rate));
+            subtotal += quantity * rate;
+        }
+        fields.put("subtotal", Double.toString(subtotal));
+        fields.put("totalDue", Double.toString(subtotal));
+        return fields;
+    }
+
+    private static HttpRequest multipart(HttpRequest.Builder builder, String method, Map<String, String> fields) {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        StringBuilder body = new StringBuilder();
+        fields.forEach((name, value) -> body.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+                .append(value).append("\r\n"));
+        body.append("--").append(boundary).append("--\r\n");
+        return builder.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .method(method, HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    HttpRequest getRequest(String path, Account account) {
+        return authorized(path, account).GET().build();
+    }
+
+    HttpRequest markAsPaidRequest(Account account, String invoiceId) {
+        return authorized("/api/invoices/" + invoiceId + "/mark-as-paid", account)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"paymentMethod\":\"Bank Transfer\"}"))
+                .build();
+    }
+
+    HttpRequest exportRequest(Account account, String dataset, String format, LocalDate from, LocalDate to) {
+        return authorized("/api/exports/" + dataset + "?format=" + format + "&from=" + from + "&to=" + to, account)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    HttpRequest webhookRequest(Account account, long sequence) {
+        Map<String, Object> event = Map.of(
+                "event", "subscription.create",
+                "data", Map.of(
+                        "subscription_code", "SUB_loadtest" + sequence,
+                        "email_token", "token" + sequence,
+                        "customer", Map.of("email", account.email)));
+        return json("/api/subscriptions/webhook", event).build();
+    }
+
+    void register(Account account) throws IOException, InterruptedException {
+        Map<String, String> signUp = Map.of("fullName", "Load Test User", "email", account.email,
+                "password", account.password, "phoneNumber", "+2348000000000");
+        HttpResponse<String> response = send(json("/api/users/register", signUp).build());
+        // An account left over from an earlier run on the same database is fine; login will tell
+        if (response.statusCode() >= 500) throw new IllegalStateException("Registration failed: " + response.body());
+    }
+
+    void login(Account account) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(loginRequest(account));
+        account.accessToken = response.headers().allValues("Set-Cookie").stream()
+                .flatMap(header -> HttpCookie.parse(header).stream())
+                .filter(cookie -> cookie.getName().equals("accessToken"))
+                .map(HttpCookie::getValue)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Login failed for " + account.email + ": " + response.body()));
+    }
+
+    String createInvoice(Account account) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(createInvoiceRequest(account, 3));
+        if (response.statusCode() != 201) throw new IllegalStateException("Invoice creation failed: " + response.body());
+        JsonNode invoice = MAPPER.readTree(response.body());
+        return invoice.get("id").asText();
+    }
+
+    /**
+     * Moves the accounts to the unlimited plan directly in the database, since the free plan caps invoices per month
+     */
+    static void upgradeToUnlimitedPlan(String jdbcUrl, List<Account> accounts) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             PreparedStatement upgrade = connection.prepareStatement(
+                     "UPDATE subscriptions SET plan = 'PREMIUM' WHERE user_id = (SELECT id FROM users WHERE email = ?)")) {
+            for (Account account : accounts) {
+                upgrade.setString(1, account.email);
+                upgrade.addBatch();
+            }
+            upgrade.executeBatch();
+        }
+    }
+
+    /**
+     * Invoices among the given ones that have a receipt but are no longer marked as paid: a concurrent edit
+     * wrote back the status it had read before the payment committed
+     */
+    static int countLostPayments(String jdbcUrl, List<String> invoiceIds) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             PreparedStatement count = connection.prepareStatement(
+                     "SELECT count(*) FROM _invoices i WHERE i.id = ANY (?) AND i.status <> 'PAID' " +
+                             "AND EXISTS (SELECT 1 FROM _receipts r WHERE r.invoice_id = i.id)")) {
+            count.setArray(1, connection.createArrayOf("uuid", invoiceIds.stream().map(UUID::fromString).toArray()));
+            try (ResultSet result = count.executeQuery()) {
+                result.next();
+                return result.getInt(1);
+            }
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder authorized(String path, Account account) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + account.accessToken);
+    }
+
+    private HttpRequest.Builder json(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+}
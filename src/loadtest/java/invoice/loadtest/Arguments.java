@@ -0,0 +1,42 @@
+package invoice.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal --name value argument parsing for the load-test entry points
+ */
+final class Arguments {
+    private final Map<String, String> values;
+
+    private Arguments(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static Arguments parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) continue;
+            String name = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            values.put(name, hasValue ? args[++i] : "true");
+        }
+        return new Arguments(values);
+    }
+
+    String value(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int intValue(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long longValue(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    double doubleValue(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+}
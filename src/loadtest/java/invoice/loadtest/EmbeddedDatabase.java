@@ -0,0 +1,46 @@
+package invoice.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A throwaway PostgreSQL server from the binaries bundled with zonky embedded-postgres, so load tests need
+ * neither Docker nor network access. The app creates its schema on startup with its Flyway migrations.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    private static final String DATABASE = "postgres";
+    private static final String USER = "postgres";
+
+    private final EmbeddedPostgres postgres;
+
+    public EmbeddedDatabase(int port, Path dataDirectory) throws IOException {
+        this.postgres = EmbeddedPostgres.builder()
+                .setPort(port)
+                .setDataDirectory(dataDirectory)
+                .setCleanDataDirectory(true)
+                // Durability is irrelevant for a throwaway database and fsyncs would dominate write latency
+                .setServerConfig("fsync", "off")
+                .setServerConfig("synchronous_commit", "off")
+                .setServerConfig("max_connections", "200")
+                .start();
+    }
+
+    public String jdbcUrl() {
+        return postgres.getJdbcUrl(USER, DATABASE);
+    }
+
+    public List<String> springArguments() {
+        return List.of(
+                "--spring.datasource.url=" + jdbcUrl(),
+                "--spring.datasource.username=" + USER,
+                "--spring.datasource.password=");
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
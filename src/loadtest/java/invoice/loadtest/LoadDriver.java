@@ -0,0 +1,130 @@
+package invoice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load generator: each virtual user sends a request, waits for the response and repeats
+ * until the measurement window ends. Requests sent during the warm-up are not recorded.
+ */
+public class LoadDriver {
+
+    /**
+     * The next request for a virtual user, or null once that user has nothing left to send
+     */
+    @FunctionalInterface
+    public interface RequestSource {
+        HttpRequest next(int user);
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    public Result run(String label, URI target, String bearerToken, int users, Duration warmUp, Duration duration)
+            throws InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60)).GET();
+        if (bearerToken != null && !bearerToken.isBlank()) builder.header("Authorization", "Bearer " + bearerToken);
+        HttpRequest request = builder.build();
+        return run(label, user -> request, users, warmUp, duration);
+    }
+
+    public Result run(String label, RequestSource requests, int users, Duration warmUp, Duration duration)
+            throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmUp.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        List<UserStats> stats = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(users);
+        ExecutorService userThreads = Executors.newFixedThreadPool(users);
+
+        for (int i = 0; i < users; i++) {
+            int user = i;
+            UserStats userStats = new UserStats();
+            stats.add(userStats);
+            userThreads.execute(() -> {
+                try {
+                    while (System.nanoTime() < stopAt) {
+                        HttpRequest request = requests.next(user);
+                        if (request == null) break;
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= stopAt) userStats.record(end - start, ok);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        userThreads.shutdown();
+        userThreads.awaitTermination(10, TimeUnit.SECONDS);
+        return Result.of(label, stats, duration);
+    }
+
+    private static final class UserStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private void record(long latencyNanos, boolean ok) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latencyNanos;
+            if (!ok) errors++;
+        }
+    }
+
+    public record Result(String label, long requests, long errors, double throughput,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        static Result of(String label, List<UserStats> stats, Duration duration) {
+            int total = stats.stream().mapToInt(s -> s.count).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            long errors = 0;
+            for (UserStats s : stats) {
+                System.arraycopy(s.latencies, 0, all, offset, s.count);
+                offset += s.count;
+                errors += s.errors;
+            }
+            Arrays.sort(all);
+            return new Result(label, total, errors, total / (double) duration.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99),
+                    total == 0 ? 0 : all[total - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        public String format() {
+            return String.format("%-18s %10d %8d %10.1f %9.1f %9.1f %9.1f %9.1f",
+                    label, requests, errors, throughput, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+
+        public static String header() {
+            return String.format("%-18s %10s %8s %10s %9s %9s %9s %9s",
+                    "run", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package invoice.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Starts the embedded database and the provider stubs, writes the Spring arguments that connect the app
+ * to them (one per line) and keeps running until it is stopped.
+ *
+ * Usage: LoadTestEnvironment [--db-port 5499] [--stub-base-port 9101] [--output target/loadtest/environment.args]
+ *        [--latency-ms 100] [--jitter-ms 20] [--error-rate 0] [--paystack-latency-ms 400] [--mailgun-error-rate 0.05] ...
+ */
+public class LoadTestEnvironment {
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = Arguments.parse(args);
+        Path output = Path.of(arguments.value("output", "target/loadtest/environment.args"));
+        Files.createDirectories(output.getParent());
+        Files.deleteIfExists(output);
+
+        EmbeddedDatabase database = new EmbeddedDatabase(arguments.intValue("db-port", 5499),
+                output.getParent().resolve("postgres"));
+        ProviderStubs stubs = new ProviderStubs(arguments, arguments.intValue("stub-base-port", 9101)).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stubs.close();
+            try {
+                database.close();
+            } catch (Exception e) {
+                System.err.println("Failed to stop the embedded database: " + e.getMessage());
+            }
+        }));
+
+        List<String> springArguments = new ArrayList<>(database.springArguments());
+        springArguments.addAll(stubs.springArguments());
+        // Written last and atomically: its presence tells the launcher the environment is ready
+        Path pending = output.resolveSibling(output.getFileName() + ".tmp");
+        Files.write(pending, springArguments);
+        Files.move(pending, output);
+        System.out.printf("Database at %s, provider stubs from port %d; app arguments in %s%n",
+                database.jdbcUrl(), arguments.intValue("stub-base-port", 9101), output);
+
+        new CountDownLatch(1).await();
+    }
+}
@@ -0,0 +1,170 @@
+package invoice.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stub server per external provider the app calls, each answering with bodies shaped like the real API,
+ * plus the Spring arguments that point the app at them. Latency and error rate are set globally
+ * ({@code --latency-ms}, {@code --jitter-ms}, {@code --error-rate}) or per provider ({@code --paystack-latency-ms}, ...).
+ */
+public class ProviderStubs implements AutoCloseable {
+    public static final String GOOGLE_CLIENT_ID = "loadtest-client.apps.googleusercontent.com";
+
+    private static final List<String> PROVIDERS = List.of("mailgun", "paystack", "cloudinary", "twilio", "telegram", "google");
+
+    private final Map<String, UpstreamStubServer> stubs = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final RSAKey googleSigningKey;
+
+    public ProviderStubs(Arguments arguments, int basePort) throws IOException {
+        try {
+            googleSigningKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Cannot generate the Google stub signing key", e);
+        }
+        for (int i = 0; i < PROVIDERS.size(); i++) {
+            String provider = PROVIDERS.get(i);
+            UpstreamStubServer stub = new UpstreamStubServer(basePort + i,
+                    arguments.longValue(provider + "-latency-ms", arguments.longValue("latency-ms", 100)),
+                    arguments.longValue(provider + "-jitter-ms", arguments.longValue("jitter-ms", 20)),
+                    arguments.doubleValue(provider + "-error-rate", arguments.doubleValue("error-rate", 0)));
+            stubs.put(provider, stub);
+        }
+
+        stubs.get("mailgun")
+                .route("/v3/", (method, path, body) -> "{\"id\":\"<" + next() + "@loadtest>\",\"message\":\"Queued. Thank you.\"}");
+        stubs.get("paystack")
+                .route("/transaction/initialize", (method, path, body) -> paystack(
+                        "{\"authorization_url\":\"http://127.0.0.1/checkout/" + next() + "\",\"access_code\":\"stub\",\"reference\":\"ref_" + next() + "\"}"))
+                .route("/transaction/verify/", (method, path, body) -> paystack(
+                        "{\"status\":\"success\",\"reference\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\",\"amount\":500000,\"currency\":\"NGN\"}"))
+                .route("/bank/resolve", (method, path, body) -> paystack(
+                        "{\"account_number\":\"0123456789\",\"account_name\":\"LOADTEST ACCOUNT\"}"));
+        stubs.get("cloudinary")
+                .route("/v1_1/", (method, path, body) -> path.endsWith("/destroy") ? "{\"result\":\"ok\"}" : cloudinaryUpload());
+        stubs.get("twilio")
+                .route("/2010-04-01/Accounts/", (method, path, body) ->
+                        "{\"sid\":\"SM" + UUID.randomUUID().toString().replace("-", "") + "\",\"status\":\"queued\",\"num_segments\":\"1\"}");
+        stubs.get("telegram")
+                .route("/bot", ProviderStubs::telegram);
+        stubs.get("google")
+                .route("/token", (method, path, body) -> googleTokens(body))
+                .route("/userinfo", (method, path, body) ->
+                        "{\"id\":\"loadtest\",\"email\":\"google.user@loadtest.local\",\"verified_email\":true,\"name\":\"Load Test\"}")
+                .route("/certs", (method, path, body) -> new JWKSet(googleSigningKey.toPublicJWK()).toString());
+    }
+
+    public ProviderStubs start() {
+        stubs.values().forEach(UpstreamStubServer::start);
+        return this;
+    }
+
+    /**
+     * Spring Boot command-line arguments that send every integration to its stub
+     */
+    public List<String> springArguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--mailgun.api.base-url=" + url("mailgun"));
+        arguments.add("--mailgun.api.key=loadtest");
+        arguments.add("--mailgun.domain=loadtest.local");
+        arguments.add("--mailgun.from.email=noreply@loadtest.local");
+        arguments.add("--paystack.api.url=" + url("paystack"));
+        arguments.add("--paystack.api.secret.key=sk_test_loadtest");
+        arguments.add("--app.paystack-secret-key=sk_test_loadtest");
+        arguments.add("--app.paystack-mock-mode=false");
+        arguments.add("--cloud.api.upload-prefix=" + url("cloudinary"));
+        arguments.add("--cloud.api.name=loadtest");
+        arguments.add("--cloud.api.key=loadtest");
+        arguments.add("--cloud.api.secret=loadtest");
+        arguments.add("--loadtest.twilio-url=" + url("twilio"));
+        arguments.add("--TWILIO_PHONE_NUMBER=+15005550006");
+        arguments.add("--telegram.api-url=" + url("telegram") + "/bot");
+        arguments.add("--TELEGRAM_ACCESS_TOKEN=123456:loadtest");
+        arguments.add("--oauth.google.client-id=" + GOOGLE_CLIENT_ID);
+        arguments.add("--oauth.google.client-secret=loadtest");
+        arguments.add("--oauth.google.redirect-uri=http://localhost:8089/oauth/google/callback");
+        arguments.add("--oauth.google.token-uri=" + url("google") + "/token");
+        arguments.add("--oauth.google.user-info-uri=" + url("google") + "/userinfo");
+        arguments.add("--oauth.google.jwks-uri=" + url("google") + "/certs");
+        return arguments;
+    }
+
+    private String url(String provider) {
+        return "http://127.0.0.1:" + stubs.get(provider).port();
+    }
+
+    private long next() {
+        return sequence.incrementAndGet();
+    }
+
+    private static String paystack(String data) {
+        return "{\"status\":true,\"message\":\"stub\",\"data\":" + data + "}";
+    }
+
+    private String cloudinaryUpload() {
+        String publicId = "loadtest/" + next();
+        String url = url("cloudinary") + "/image/upload/" + publicId + ".png";
+        return "{\"public_id\":\"" + publicId + "\",\"url\":\"" + url + "\",\"secure_url\":\"" + url
+                + "\",\"format\":\"png\",\"resource_type\":\"image\",\"bytes\":2048}";
+    }
+
+    private static String telegram(String method, String path, String body) {
+        if (path.endsWith("/getUpdates")) {
+            // Long polling: hold the request like the real API does when there are no updates
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"ok\":true,\"result\":[]}";
+        }
+        return "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":" + System.currentTimeMillis() / 1000
+                + ",\"chat\":{\"id\":1,\"type\":\"private\"}}}";
+    }
+
+    // ID tokens are signed with the key served from /certs, so the app verifies them exactly as in production
+    private String googleTokens(String body) {
+        try {
+            Date now = new Date();
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .issuer("https://accounts.google.com")
+                    .audience(GOOGLE_CLIENT_ID)
+                    .subject("loadtest-" + next())
+                    .issueTime(now)
+                    .expirationTime(new Date(now.getTime() + 3_600_000))
+                    .claim("email", "google.user@loadtest.local")
+                    .claim("email_verified", true)
+                    .claim("name", "Load Test")
+                    .build();
+            SignedJWT idToken = new SignedJWT(
+                    new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(googleSigningKey.getKeyID()).build(), claims);
+            idToken.sign(new RSASSASigner(googleSigningKey));
+            return "{\"access_token\":\"stub-" + next() + "\",\"expires_in\":3599,\"token_type\":\"Bearer\","
+                    + "\"scope\":\"openid email profile\",\"id_token\":\"" + idToken.serialize() + "\"}";
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Cannot sign the stub ID token", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        stubs.values().forEach(UpstreamStubServer::close);
+    }
+}
@@ -0,0 +1,118 @@
+package invoice.loadtest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The user journeys the harness drives. Virtual user {@code n} acts as account {@code n % accounts}.
+ */
+enum Scenario {
+    /**
+     * Password login; every login replaces the account's session, so tokens are refreshed afterwards
+     */
+    SIGN_IN {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            return user -> client.loginRequest(account(accounts, user));
+        }
+    },
+    CREATE_INVOICE {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            return user -> client.createInvoiceRequest(account(accounts, user), 5);
+        }
+    },
+    /**
+     * The three calls the dashboard page makes, in turn
+     */
+    DASHBOARD {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            AtomicLong sequence = new AtomicLong();
+            return user -> client.getRequest(DASHBOARD_PATHS[(int) (sequence.getAndIncrement() % DASHBOARD_PATHS.length)],
+                    account(accounts, user));
+        }
+    },
+    /**
+     * Marks the invoices seeded during setup as paid; a user stops once its account has none left
+     */
+    MARK_PAID {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            return user -> {
+                Account account = account(accounts, user);
+                String invoiceId = account.unpaidInvoiceIds.poll();
+                return invoiceId == null ? null : client.markAsPaidRequest(account, invoiceId);
+            };
+        }
+    },
+    /**
+     * Paystack subscription events arriving back to back, as after a billing run
+     */
+    WEBHOOK_BURST {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            AtomicLong sequence = new AtomicLong();
+            return user -> client.webhookRequest(account(accounts, user), sequence.incrementAndGet());
+        }
+    },
+    /**
+     * Streaming exports of this year's invoices, receipts and transactions, alternating gzipped CSV and XLSX
+     */
+    EXPORT {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            AtomicLong sequence = new AtomicLong();
+            LocalDate today = LocalDate.now();
+            return user -> {
+                long n = sequence.getAndIncrement();
+                return client.exportRequest(account(accounts, user), EXPORT_DATASETS[(int) (n % EXPORT_DATASETS.length)],
+                        n / EXPORT_DATASETS.length % 2 == 0 ? "csv" : "xlsx", today.withDayOfYear(1), today);
+            };
+        }
+    },
+    /**
+     * All users editing the same few invoices of the contended accounts, one request in four marking one as
+     * paid, so writers keep colliding on the same rows
+     */
+    CONTENDED_EDITS {
+        @Override
+        LoadDriver.RequestSource requests(AppClient client, List<Account> accounts) {
+            List<Account> contended = accounts.stream().filter(account -> !account.contendedInvoiceIds.isEmpty()).toList();
+            AtomicLong sequence = new AtomicLong();
+            return user -> {
+                Account account = contended.get(user % contended.size());
+                long revision = sequence.incrementAndGet();
+                String invoiceId = account.contendedInvoiceIds.get(
+                        ThreadLocalRandom.current().nextInt(account.contendedInvoiceIds.size()));
+                return revision % 4 == 0
+                        ? client.markAsPaidRequest(account, invoiceId)
+                        : client.updateInvoiceRequest(account, invoiceId, revision);
+            };
+        }
+    };
+
+    private static final String[] DASHBOARD_PATHS = {
+            "/api/invoices/dashboard/stats",
+            "/api/invoices/dashboard/recent-invoices",
+            "/api/invoices/dashboard/payment-trends"
+    };
+
+    private static final String[] EXPORT_DATASETS = {"invoices", "receipts", "transactions"};
+
+    abstract LoadDriver.RequestSource requests(AppClient client, List<Account> accounts);
+
+    String label() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    static Scenario fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase().replace('-', '_'));
+    }
+
+    private static Account account(List<Account> accounts, int user) {
+        return accounts.get(user % accounts.size());
+    }
+}
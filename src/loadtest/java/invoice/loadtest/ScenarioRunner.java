@@ -0,0 +1,148 @@
+package invoice.loadtest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prepares accounts and data through the API, then runs each scenario for a fixed window against a running
+ * instance and reports throughput and latency percentiles per scenario. Exits non-zero when contended edits
+ * lost a payment to a concurrent update.
+ *
+ * Usage: ScenarioRunner --base-url http://localhost:8089 --environment target/loadtest/environment.args
+ *        [--scenarios sign-in,create-invoice,dashboard,mark-paid,webhook-burst,contended-edits,export]
+ *        [--accounts 50] [--users 200] [--webhook-users 400] [--export-users 2] [--invoices-per-account 100]
+ *        [--contended-accounts 2]
+ *        [--contended-invoices 2] [--warm-up-seconds 10] [--duration-seconds 60] [--report target/loadtest/report.md]
+ */
+public class ScenarioRunner {
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = Arguments.parse(args);
+        String baseUrl = arguments.value("base-url", "http://localhost:8089");
+        List<Scenario> scenarios = Arrays.stream(arguments.value("scenarios",
+                        "create-invoice,dashboard,mark-paid,webhook-burst,sign-in").split(","))
+                .map(Scenario::fromLabel)
+                .toList();
+        int accountCount = arguments.intValue("accounts", 50);
+        int users = arguments.intValue("users", 200);
+        int webhookUsers = arguments.intValue("webhook-users", 400);
+        // Exports beyond the server's concurrent export limit are refused with 429
+        int exportUsers = arguments.intValue("export-users", 2);
+        Duration warmUp = Duration.ofSeconds(arguments.longValue("warm-up-seconds", 10));
+        Duration duration = Duration.ofSeconds(arguments.longValue("duration-seconds", 60));
+        Path report = Path.of(arguments.value("report", "target/loadtest/report.md"));
+
+        AppClient client = new AppClient(baseUrl);
+        String jdbcUrl = jdbcUrl(Path.of(arguments.value("environment", "target/loadtest/environment.args")));
+        List<Account> accounts = prepareAccounts(client, accountCount, jdbcUrl);
+        if (scenarios.contains(Scenario.MARK_PAID)) {
+            seedUnpaidInvoices(client, accounts, arguments.intValue("invoices-per-account", 100));
+        }
+        if (scenarios.contains(Scenario.CONTENDED_EDITS)) {
+            seedContendedInvoices(client, accounts, arguments.intValue("contended-accounts", 2),
+                    arguments.intValue("contended-invoices", 2));
+        }
+
+        LoadDriver driver = new LoadDriver();
+        List<LoadDriver.Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            int scenarioUsers = switch (scenario) {
+                case WEBHOOK_BURST -> webhookUsers;
+                case EXPORT -> exportUsers;
+                default -> users;
+            };
+            System.out.printf("Running %s with %d users...%n", scenario.label(), scenarioUsers);
+            results.add(driver.run(scenario.label(), scenario.requests(client, accounts), scenarioUsers, warmUp, duration));
+            if (scenario == Scenario.SIGN_IN) {
+                for (Account account : accounts) client.login(account);
+            }
+        }
+
+        String markdown = report(baseUrl, accountCount, warmUp, duration, results);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, markdown);
+        Files.write(report.resolveSibling(report.getFileName().toString().replaceFirst("\\.md$", "") + ".csv"), csv(results));
+        System.out.printf("%n%s%n", LoadDriver.Result.header());
+        results.forEach(result -> System.out.println(result.format()));
+        System.out.println("Report written to " + report);
+
+        if (scenarios.contains(Scenario.CONTENDED_EDITS)) {
+            List<String> contended = accounts.stream().flatMap(account -> account.contendedInvoiceIds.stream()).toList();
+            int lost = AppClient.countLostPayments(jdbcUrl, contended);
+            System.out.printf("Contended invoices with a receipt but no longer paid: %d of %d%n", lost, contended.size());
+            if (lost > 0) System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static List<Account> prepareAccounts(AppClient client, int count, String jdbcUrl) throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Account account = new Account("loadtest-" + i + "@loadtest.local", "LoadTest#2026");
+            client.register(account);
+            client.login(account);
+            // The first invoice creates the account's subscription, which is then lifted off the free plan's cap
+            client.createInvoice(account);
+            accounts.add(account);
+        }
+        AppClient.upgradeToUnlimitedPlan(jdbcUrl, accounts);
+        System.out.printf("Prepared %d accounts%n", count);
+        return accounts;
+    }
+
+    private static void seedUnpaidInvoices(AppClient client, List<Account> accounts, int perAccount) throws Exception {
+        for (Account account : accounts) {
+            for (int i = 0; i < perAccount; i++) account.unpaidInvoiceIds.add(client.createInvoice(account));
+        }
+        System.out.printf("Seeded %d unpaid invoices%n", perAccount * accounts.size());
+    }
+
+    private static void seedContendedInvoices(AppClient client, List<Account> accounts, int accountCount,
+                                              int perAccount) throws Exception {
+        for (Account account : accounts.subList(0, Math.min(accountCount, accounts.size()))) {
+            for (int i = 0; i < perAccount; i++) account.contendedInvoiceIds.add(client.createInvoice(account));
+        }
+        System.out.printf("Seeded %d contended invoices%n", perAccount * Math.min(accountCount, accounts.size()));
+    }
+
+    private static String jdbcUrl(Path environment) throws Exception {
+        String prefix = "--spring.datasource.url=";
+        return Files.readAllLines(environment).stream()
+                .filter(line -> line.startsWith(prefix))
+                .map(line -> line.substring(prefix.length()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No datasource in " + environment));
+    }
+
+    private static String report(String baseUrl, int accounts, Duration warmUp, Duration duration,
+                                 List<LoadDriver.Result> results) {
+        StringBuilder markdown = new StringBuilder()
+                .append("# Load test ").append(LocalDateTime.now().withNano(0)).append("\n\n")
+                .append(String.format("Target %s, %d accounts, %ds measured after %ds warm-up per scenario.%n%n",
+                        URI.create(baseUrl), accounts, duration.toSeconds(), warmUp.toSeconds()))
+                .append("| Scenario | Requests | Errors | req/s | p50 ms | p95 ms | p99 ms | max ms |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (LoadDriver.Result result : results) {
+            markdown.append(String.format("| %s | %d | %d | %.1f | %.1f | %.1f | %.1f | %.1f |%n",
+                    result.label(), result.requests(), result.errors(), result.throughput(),
+                    result.p50Ms(), result.p95Ms(), result.p99Ms(), result.maxMs()));
+        }
+        return markdown.toString();
+    }
+
+    private static List<String> csv(List<LoadDriver.Result> results) {
+        List<String> lines = new ArrayList<>();
+        lines.add("scenario,requests,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms");
+        for (LoadDriver.Result result : results) {
+            lines.add(String.format("%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f", result.label(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Ms(), result.p95Ms(), result.p99Ms(), result.maxMs()));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,56 @@
+package invoice.loadtest;
+
+import com.twilio.http.HttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Twilio SDK transport that sends every request to the local Twilio stub instead of *.twilio.com.
+ * The SDK has no base URL setting, so the harness installs this client before the app starts.
+ */
+class StubTwilioHttpClient extends HttpClient {
+    private final String stubUrl;
+    private final java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    StubTwilioHttpClient(String stubUrl) {
+        this.stubUrl = stubUrl;
+    }
+
+    @Override
+    public Response makeRequest(Request request) {
+        URI original = URI.create(request.getUrl());
+        StringJoiner form = new StringJoiner("&");
+        for (Map.Entry<String, List<String>> param : request.getPostParams().entrySet()) {
+            for (String value : param.getValue()) {
+                form.add(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        HttpRequest stubRequest = HttpRequest.newBuilder(URI.create(stubUrl + original.getRawPath()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .method(request.getMethod().toString(), HttpRequest.BodyPublishers.ofString(form.toString()))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(stubRequest, HttpResponse.BodyHandlers.ofString());
+            return new Response(response.body(), response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Twilio stub call interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Twilio stub call failed", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package invoice.loadtest;
+
+import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
+import invoice.InvoiceBeApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Starts the app with the Twilio SDK routed to the local stub given by {@code --loadtest.twilio-url}.
+ * All other integrations are pointed at their stubs through ordinary Spring arguments.
+ *
+ * Usage: StubbedApplication --loadtest.twilio-url=http://127.0.0.1:9104 [Spring arguments...]
+ */
+public class StubbedApplication {
+
+    public static void main(String[] args) {
+        String prefix = "--loadtest.twilio-url=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                Twilio.setRestClient(new TwilioRestClient.Builder("ACloadtest", "loadtest")
+                        .httpClient(new StubTwilioHttpClient(arg.substring(prefix.length())))
+                        .build());
+            }
+        }
+        SpringApplication.run(InvoiceBeApplication.class, args);
+    }
+}
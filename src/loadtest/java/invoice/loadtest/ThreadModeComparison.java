@@ -0,0 +1,43 @@
+package invoice.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Drives the same endpoint on two running instances, one on platform threads and one with the
+ * virtual-threads profile, and prints throughput and latency percentiles side by side.
+ *
+ * Usage: ThreadModeComparison --platform-url http://localhost:8089 --virtual-url http://localhost:8090
+ *        --path /api/users/exists?email=loadtest@example.com [--token JWT] [--users 1000]
+ *        [--warm-up-seconds 15] [--duration-seconds 60]
+ */
+public class ThreadModeComparison {
+
+    public static void main(String[] args) throws InterruptedException {
+        Arguments arguments = Arguments.parse(args);
+        String path = arguments.value("path", "/api/users/exists?email=loadtest@example.com");
+        String token = arguments.value("token", null);
+        int users = arguments.intValue("users", 1000);
+        Duration warmUp = Duration.ofSeconds(arguments.longValue("warm-up-seconds", 15));
+        Duration duration = Duration.ofSeconds(arguments.longValue("duration-seconds", 60));
+
+        LoadDriver driver = new LoadDriver();
+        LoadDriver.Result platform = driver.run("platform-threads",
+                URI.create(arguments.value("platform-url", "http://localhost:8089") + path), token, users, warmUp, duration);
+        LoadDriver.Result virtual = driver.run("virtual-threads",
+                URI.create(arguments.value("virtual-url", "http://localhost:8090") + path), token, users, warmUp, duration);
+
+        System.out.printf("%n%d concurrent users, %ds measured after %ds warm-up, GET %s%n",
+                users, duration.toSeconds(), warmUp.toSeconds(), path);
+        System.out.println(LoadDriver.Result.header());
+        System.out.println(platform.format());
+        System.out.println(virtual.format());
+        System.out.printf("throughput x%.2f, p99 x%.2f (virtual / platform)%n",
+                ratio(virtual.throughput(), platform.throughput()), ratio(virtual.p99Ms(), platform.p99Ms()));
+        System.exit(0);
+    }
+
+    private static double ratio(double value, double baseline) {
+        return baseline == 0 ? 0 : value / baseline;
+    }
+}
@@ -0,0 +1,119 @@
+package invoice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for an external provider (Paystack, Mailgun, ...) that answers every request with canned JSON
+ * after an injected delay, and fails a configurable share of requests with 503.
+ * Routes registered with {@link #route} answer with provider-shaped bodies; anything else gets a generic body.
+ *
+ * Usage: UpstreamStubServer --port 9101 --latency-ms 200 --jitter-ms 50 --error-rate 0.01
+ */
+public class UpstreamStubServer implements AutoCloseable {
+
+    /**
+     * Builds the response body for a request matched by path prefix
+     */
+    @FunctionalInterface
+    public interface Responder {
+        String respond(String method, String path, String requestBody);
+    }
+
+    private static final byte[] OK_BODY =
+            "{\"status\":true,\"message\":\"stub\",\"data\":{\"status\":\"success\",\"reference\":\"stub\"}}"
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR_BODY =
+            "{\"status\":false,\"message\":\"stub failure\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final Map<String, Responder> routes = new ConcurrentHashMap<>();
+
+    public UpstreamStubServer(int port, long latencyMs, long jitterMs, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Answers requests whose path starts with {@code pathPrefix}; the longest matching prefix wins
+     */
+    public UpstreamStubServer route(String pathPrefix, Responder responder) {
+        routes.put(pathPrefix, responder);
+        return this;
+    }
+
+    public UpstreamStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+            if (delay > 0) Thread.sleep(delay);
+
+            boolean fail = random.nextDouble() < errorRate;
+            byte[] body = fail ? ERROR_BODY : body(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), requestBody);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private byte[] body(String method, String path, String requestBody) {
+        String matched = null;
+        for (String prefix : routes.keySet()) {
+            if (path.startsWith(prefix) && (matched == null || prefix.length() > matched.length())) matched = prefix;
+        }
+        if (matched == null) return OK_BODY;
+        return routes.get(matched).respond(method, path, requestBody).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = Arguments.parse(args);
+        UpstreamStubServer stub = new UpstreamStubServer(
+                arguments.intValue("port", 9101),
+                arguments.longValue("latency-ms", 200),
+                arguments.longValue("jitter-ms", 0),
+                arguments.doubleValue("error-rate", 0)).start();
+        System.out.printf("Upstream stub listening on 127.0.0.1:%d%n", stub.port());
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+    }
+}
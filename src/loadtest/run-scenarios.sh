@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# End-to-end load test on one box with no network access.
+#
+# Starts an embedded PostgreSQL and a stub server per provider (Mailgun, Paystack, Cloudinary, Twilio,
+# Telegram, Google), launches the app against them and runs the scenarios with ScenarioRunner.
+# The report lands in target/loadtest/report.md (and report.csv); app output in target/loadtest/app.log.
+# Exits non-zero when a request exceeded its query budget or showed an N+1 pattern.
+# Dependencies must have been resolved once while online: ./mvnw -Ploadtest dependency:go-offline
+#
+# Usage: src/loadtest/run-scenarios.sh [extra ScenarioRunner args, e.g. --scenarios dashboard --users 100]
+# Environment: STUB_ARGS (e.g. "--latency-ms 150 --paystack-error-rate 0.02"), PROFILE, APP_PORT, JAVA_OPTS
+set -euo pipefail
+cd "$(dirname "$0")/../.."
+
+PROFILE=${PROFILE:-dev}
+APP_PORT=${APP_PORT:-8089}
+STUB_ARGS=${STUB_ARGS:-}
+OUT=target/loadtest
+mkdir -p "$OUT"
+
+./mvnw -B -q -o -Ploadtest test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile="$OUT/classpath.txt"
+CLASSPATH="target/test-classes:target/classes:$(cat "$OUT/classpath.txt")"
+
+rm -f "$OUT/environment.args"
+java -cp "$CLASSPATH" invoice.loadtest.LoadTestEnvironment --output "$OUT/environment.args" $STUB_ARGS \
+  > "$OUT/environment.log" 2>&1 &
+ENV_PID=$!
+trap 'kill $ENV_PID ${APP_PID:-} 2>/dev/null || true' EXIT
+until [ -f "$OUT/environment.args" ]; do
+  kill -0 $ENV_PID 2>/dev/null || { cat "$OUT/environment.log"; exit 1; }
+  sleep 1
+done
+
+mapfile -t APP_ARGS < "$OUT/environment.args"
+java ${JAVA_OPTS:-} -cp "$CLASSPATH" invoice.loadtest.StubbedApplication "${APP_ARGS[@]}" \
+  --spring.profiles.active="$PROFILE" --server.port="$APP_PORT" --management.server.port=$((APP_PORT + 100)) \
+  > "$OUT/app.log" 2>&1 &
+APP_PID=$!
+until curl -sf "http://localhost:$((APP_PORT + 100))/actuator/health" > /dev/null; do
+  kill -0 $APP_PID 2>/dev/null || { tail -50 "$OUT/app.log"; exit 1; }
+  sleep 2
+done
+
+java -cp "$CLASSPATH" invoice.loadtest.ScenarioRunner --base-url "http://localhost:$APP_PORT" \
+  --environment "$OUT/environment.args" --report "$OUT/report.md" "$@"
+
+# Query guardrails: any request over its statement budget, or any N+1 shape, fails the run
+curl -sf "http://localhost:$((APP_PORT + 100))/actuator/prometheus" > "$OUT/metrics.txt"
+# Optimistic-lock conflicts retried, and those that ran out of attempts and were answered with 409
+grep -E '^optimistic_(conflicts|exhausted)_total' "$OUT/metrics.txt" || true
+VIOLATIONS=$(grep -E '^db_query_(budget_exceeded|repeated)_total' "$OUT/metrics.txt" | awk '$NF > 0' || true)
+if [ -n "$VIOLATIONS" ]; then
+  echo "Query guardrails violated (details in $OUT/app.log):"
+  echo "$VIOLATIONS"
+  exit 1
+fi
@@ -1,6 +1,8 @@
 package invoice.config;
 
 import com.pengrad.telegrambot.TelegramBot;
+import invoice.utiils.BulkheadInterceptor;
+import invoice.utiils.IntegrationBulkheads;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -10,6 +12,8 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 
+import static invoice.utiils.IntegrationBulkheads.MAILGUN;
+import static invoice.utiils.IntegrationBulkheads.PAYSTACK;
 import static org.modelmapper.Conditions.isNotNull;
 import static org.modelmapper.convention.MatchingStrategies.STRICT;
 
@@ -17,6 +21,9 @@ import static org.modelmapper.convention.MatchingStrategies.STRICT;
 public class AppConfig {
     @Value("${TELEGRAM_ACCESS_TOKEN}")
     private String botToken;
+    // Empty means api.telegram.org; set by the load-test harness to a local stub
+    @Value("${telegram.api-url:}")
+    private String telegramApiUrl;
 
     @Bean
     public ModelMapper modelMapper() {
@@ -27,17 +34,29 @@ public class AppConfig {
         return modelMapper;
     }
 
+    // Built from Boot's builder so requests are recorded as http.client.requests per upstream host
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplateBuilder()
-                .setConnectTimeout(Duration.ofSeconds(30))
-                .setReadTimeout(Duration.ofSeconds(30))
+    public RestTemplate paystackRestTemplate(RestTemplateBuilder restTemplateBuilder, IntegrationBulkheads integrationBulkheads) {
+        return restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(5))
+                .setReadTimeout(Duration.ofSeconds(20))
+                .additionalInterceptors(new BulkheadInterceptor(integrationBulkheads.get(PAYSTACK)))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate mailgunRestTemplate(RestTemplateBuilder restTemplateBuilder, IntegrationBulkheads integrationBulkheads) {
+        return restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(5))
+                .setReadTimeout(Duration.ofSeconds(15))
+                .additionalInterceptors(new BulkheadInterceptor(integrationBulkheads.get(MAILGUN)))
                 .build();
     }
 
     @Bean
     public TelegramBot telegramBot(){
-        return new TelegramBot(botToken);
+        if (telegramApiUrl.isBlank()) return new TelegramBot(botToken);
+        return new TelegramBot.Builder(botToken).apiUrl(telegramApiUrl).build();
     }
 
 }
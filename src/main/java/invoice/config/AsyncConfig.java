@@ -1,5 +1,8 @@
 package invoice.config;
 
+import invoice.utiils.BoundedVirtualThreadExecutor;
+import invoice.utiils.BoundedVirtualThreadExecutor.Overflow;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -10,15 +13,56 @@ import java.util.concurrent.Executor;
 @Configuration
 @EnableAsync
 public class AsyncConfig {
-    
+
+    // Set by the virtual-threads profile (JDK 21+); platform thread pools otherwise
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean(name = "notificationExecutor")
     public Executor notificationExecutor() {
+        return boundedExecutor("notification-", 2, 5, 100, Overflow.ABORT);
+    }
+
+    @Bean(name = "uploadExecutor")
+    public Executor uploadExecutor() {
+        // When saturated, run the upload on the caller instead of queueing without bound
+        return boundedExecutor("upload-", 4, 8, 50, Overflow.CALLER_RUNS);
+    }
+
+    @Bean(name = "dataLifecycleExecutor")
+    public Executor dataLifecycleExecutor() {
+        // Account deletions are long but rare; keep them from competing for the connection pool
+        return boundedExecutor("data-lifecycle-", 1, 2, 100, Overflow.ABORT);
+    }
+
+    @Bean(name = "telegramUpdateExecutor")
+    public Executor telegramUpdateExecutor() {
+        // Backpressure onto the polling thread when batches arrive faster than they are handled
+        return boundedExecutor("telegram-updates-", 2, 4, 20, Overflow.CALLER_RUNS);
+    }
+
+    @Bean(name = "queryExplainExecutor")
+    public Executor queryExplainExecutor() {
+        // One EXPLAIN at a time; plans are diagnostics, so drop them rather than hold a second pool connection
+        return boundedExecutor("query-explain-", 1, 1, 10, Overflow.DISCARD);
+    }
+
+    /**
+     * A bounded platform thread pool, or with virtual threads an executor with the same concurrency and queue
+     * limits; either way a task beyond them is handled by the overflow policy rather than blocking the caller
+     */
+    private Executor boundedExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                     int queueCapacity, Overflow overflow) {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor(threadNamePrefix, maxPoolSize, queueCapacity, overflow);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("notification-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(overflow.rejectedExecutionHandler());
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package invoice.config;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.modelmapper.ModelMapper;
@@ -24,15 +25,19 @@ public class CloudConfig {
     private String cloudApiKey;
     @Value("${cloud.api.secret}")
     private String cloudApiSecret;
+    // Empty means Cloudinary's own API host; set by the load-test harness to a local stub
+    @Value("${cloud.api.upload-prefix:}")
+    private String uploadPrefix;
 
 
     @Bean
     public Cloudinary cloudinary() {
-        Map<?, ?> map = ObjectUtils.asMap(
+        Map<Object, Object> map = new HashMap<>(ObjectUtils.asMap(
                 "cloud_name", cloudName,
                 "api_key", cloudApiKey,
                 "api_secret", cloudApiSecret
-        );
+        ));
+        if (!uploadPrefix.isBlank()) map.put("upload_prefix", uploadPrefix);
         return new Cloudinary(map);
     }
 }
\ No newline at end of file
@@ -1,29 +1,103 @@
 package invoice.config;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 
+import invoice.utiils.IntegrationBulkheads;
 import lombok.RequiredArgsConstructor;
+
+import static invoice.utiils.IntegrationBulkheads.CLOUDINARY;
+
 @Service
 @RequiredArgsConstructor
 public class CloudinaryService {
-
     private final Cloudinary cloudinary;
+    @Qualifier("uploadExecutor")
+    private final Executor uploadExecutor;
+    private final IntegrationBulkheads integrationBulkheads;
 
     public String uploadFile(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap("resource_type", "auto")
-        );
+        try (StagedFile staged = stage(file)) {
+            return upload(staged, null);
+        }
+    }
+
+    /**
+     * Run {@link #uploadFile} on the bounded upload executor; completes with null when there is no file
+     */
+    public CompletableFuture<String> uploadFileAsync(MultipartFile file) {
+        if (file == null || file.isEmpty()) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, uploadExecutor);
+    }
+
+    /**
+     * Upload a staged file, optionally under a fixed public_id (an existing asset with that id is kept as is)
+     */
+    public String upload(StagedFile staged, String publicId) throws IOException {
+        Map<String, Object> options = new HashMap<>();
+        options.put("resource_type", "auto");
+        if (publicId != null) {
+            options.put("public_id", publicId);
+            options.put("overwrite", false);
+        }
+        // Cloudinary streams File bodies from disk instead of holding the whole upload in heap
+        Map uploadResult = integrationBulkheads.get(CLOUDINARY)
+                .execute(() -> cloudinary.uploader().upload(staged.path().toFile(), options));
         return uploadResult.get("secure_url").toString();
     }
 
+    /**
+     * Copy the multipart content to a temp file in small chunks, hashing it on the way through
+     */
+    public StagedFile stage(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Path path = Files.createTempFile("upload-", ".tmp");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new StagedFile(path, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    public record StagedFile(Path path, String sha256) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isBlank()) {
             return; // nothing to delete
@@ -33,7 +107,8 @@ public class CloudinaryService {
             String publicId = extractPublicIdFromUrl(fileUrl);
             if (publicId == null) return;
 
-            Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            Map result = integrationBulkheads.get(CLOUDINARY)
+                    .execute(() -> cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap()));
 
             if (!"ok".equals(result.get("result"))) {
                 System.err.println("Cloudinary failed to delete: " + result);
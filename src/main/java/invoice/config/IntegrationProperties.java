@@ -0,0 +1,34 @@
+package invoice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulkhead limits for outbound integrations, keyed by integration name (mailgun, cloudinary, paystack, ...).
+ * Integrations without an entry use the defaults.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.integrations")
+@Data
+public class IntegrationProperties {
+
+    private BulkheadSettings defaults = new BulkheadSettings();
+    private Map<String, BulkheadSettings> bulkheads = new HashMap<>();
+
+    public BulkheadSettings settingsFor(String name) {
+        return bulkheads.getOrDefault(name, defaults);
+    }
+
+    @Data
+    public static class BulkheadSettings {
+        private int maxConcurrent = 8;
+        private int queueCapacity = 16;
+        private long timeoutMs = 15000;
+        private int failureThreshold = 5;
+        private long openDurationMs = 30000;
+    }
+}
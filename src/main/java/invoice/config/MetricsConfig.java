@@ -0,0 +1,19 @@
+package invoice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables {@code @Timed} on Spring beans. Pool, Hibernate, JVM and HTTP metrics are bound by
+ * actuator auto-configuration and scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -18,6 +18,10 @@ public class OAuthProperties {
         private String clientSecret;
         private String redirectUri;
         private String scope = "openid email profile";
+        // Overridable so the load-test harness can point sign-in at a local stub
+        private String tokenUri = "https://oauth2.googleapis.com/token";
+        private String userInfoUri = "https://www.googleapis.com/oauth2/v2/userinfo";
+        private String jwksUri = "https://www.googleapis.com/oauth2/v3/certs";
     }
     
     @Data
@@ -27,5 +31,6 @@ public class OAuthProperties {
         private String keyId;
         private String privateKeyPath;
         private String redirectUri;
+        private long clientSecretTtlSeconds = 86400; // Apple accepts up to six months
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package invoice.config;
+
+import invoice.utiils.QueryGuard;
+import invoice.utiils.QueryGuardFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Routes the data source through a JDBC proxy that reports every statement to the {@link QueryGuard},
+ * and scopes the guard's counters to HTTP requests.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.query-guard", name = "enabled", matchIfMissing = true)
+public class QueryGuardConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Static, and resolving the guard lazily, so wrapping the data source does not pull beans in early.
+    // Only the data source the application uses is wrapped; the pools behind read-replica routing are not counted twice
+    @Bean
+    public static BeanPostProcessor queryGuardDataSourceProxy(ObjectProvider<QueryGuard> queryGuard) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || !DATA_SOURCE_BEAN.equals(beanName)) return bean;
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new DeferredListener(queryGuard))
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public QueryGuard queryGuard(QueryGuardProperties properties, MeterRegistry meterRegistry, DataSource dataSource,
+                                 @Qualifier("queryExplainExecutor") Executor queryExplainExecutor) {
+        return new QueryGuard(properties, meterRegistry, dataSource, queryExplainExecutor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryGuardFilter> queryGuardFilter(QueryGuard queryGuard) {
+        FilterRegistrationBean<QueryGuardFilter> registration = new FilterRegistrationBean<>(new QueryGuardFilter(queryGuard));
+        // Just inside the HTTP observation filter, ahead of the security chain
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    private static final class DeferredListener implements QueryExecutionListener {
+        private final ObjectProvider<QueryGuard> provider;
+        private volatile QueryGuard queryGuard;
+
+        private DeferredListener(ObjectProvider<QueryGuard> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryGuard guard = resolve();
+            if (guard != null) guard.beforeQuery(execInfo, queryInfoList);
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryGuard guard = resolve();
+            if (guard != null) guard.afterQuery(execInfo, queryInfoList);
+        }
+
+        // Statements that run before the guard can be created (e.g. while its dependencies start) go unobserved
+        private QueryGuard resolve() {
+            QueryGuard guard = queryGuard;
+            if (guard == null) {
+                try {
+                    guard = provider.getIfAvailable();
+                    queryGuard = guard;
+                } catch (BeansException e) {
+                    return null;
+                }
+            }
+            return guard;
+        }
+    }
+}
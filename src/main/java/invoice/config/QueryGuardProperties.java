@@ -0,0 +1,34 @@
+package invoice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits watched by the query guard. Budgets are keyed by {@code "<METHOD> <route pattern>"},
+ * e.g. {@code "GET /api/invoices/get-all"}; routes without an entry use the default budget (0 means unlimited).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.query-guard")
+@Data
+public class QueryGuardProperties {
+
+    private boolean enabled = true;
+    private long slowQueryMs = 500;
+    private boolean explainSlowQueries = true;
+    // The same statement is explained at most once per interval
+    private long explainIntervalMs = 600000;
+    // A SELECT repeated this many times in one request is reported as an N+1
+    private int repeatedQueryThreshold = 5;
+    private int defaultBudget = 0;
+    private Map<String, Integer> budgets = new HashMap<>();
+    // Fail the statement that exceeds the budget instead of only reporting it (for CI and integration tests)
+    private boolean enforce = false;
+
+    public int budgetFor(String endpoint) {
+        return endpoint == null ? 0 : budgets.getOrDefault(endpoint, defaultBudget);
+    }
+}
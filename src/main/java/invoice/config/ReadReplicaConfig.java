@@ -0,0 +1,81 @@
+package invoice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import invoice.utiils.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only service transactions to the
+ * read replicas (see {@link ReplicaRoutingDataSource}). The primary pool keeps the spring.datasource settings.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.read-replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReadReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : properties.getUrls()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setUsername(Objects.requireNonNullElse(properties.getUsername(), dataSourceProperties.determineUsername()));
+            replica.setPassword(Objects.requireNonNullElse(properties.getPassword(), dataSourceProperties.determinePassword()));
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setMinimumIdle(properties.getMinimumIdle());
+            replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            // A replica that is down must not fail pool start-up; the lag check keeps it out of rotation
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getRoutedPackages(),
+                properties.getMaxLagSeconds(), meterRegistry);
+    }
+
+    // The lazy proxy defers picking a pool until the first statement, after the transaction has begun
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(replicaRoutingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    // Spring holds a session's connection until the session closes, which with open-in-view is the whole
+    // request; give it back after each transaction so the next one is routed afresh
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,32 @@
+package invoice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only service transactions. Routing is off while no replica URL is configured.
+ * Username and password default to the primary's.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.read-replicas")
+@Data
+public class ReadReplicaProperties {
+
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    // Each replica gets its own pool, sized independently of the primary's
+    private int maximumPoolSize = 8;
+    private int minimumIdle = 1;
+    // Kept short: a replica that cannot hand out a connection quickly is skipped for the primary
+    private long connectionTimeoutMs = 2000;
+    // A replica further behind than this stops receiving reads until it catches up
+    private long maxLagSeconds = 10;
+    private long lagCheckIntervalMs = 5000;
+    // Only read-only transactions started by methods in these packages are routed, not Spring Data's own ones
+    private List<String> routedPackages = new ArrayList<>(List.of("invoice.services"));
+}
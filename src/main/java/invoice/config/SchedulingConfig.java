@@ -0,0 +1,12 @@
+package invoice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Switched off by the integration tests, so background jobs do not add to the statements they count
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.scheduling", name = "enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
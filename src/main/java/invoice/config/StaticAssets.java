@@ -0,0 +1,109 @@
+package invoice.config;
+
+import invoice.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Brand assets served to browsers and mail clients, loaded from classpath:brand/ once at startup.
+ * Everything a response needs is precomputed: the raw and gzip bytes, a content hash ETag and the
+ * base64 data URL. A brotli variant is used when a precompressed {@code <name>.br} file is shipped
+ * next to the asset, since the JDK has no brotli encoder.
+ */
+@Component
+@Slf4j
+public class StaticAssets {
+    public static final String LOGO = "logo.svg";
+    // The logo rendered at 144px, for mail clients that do not display SVG attachments (Gmail, Outlook)
+    public static final String LOGO_PNG = "logo.png";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "ico", "image/x-icon"
+    );
+
+    private final Map<String, StaticAsset> assets;
+
+    public StaticAssets() {
+        this.assets = Map.of(LOGO, load(LOGO), LOGO_PNG, load(LOGO_PNG));
+    }
+
+    public StaticAsset get(String name) {
+        StaticAsset asset = assets.get(name);
+        if (asset == null) throw new ResourceNotFoundException("Asset not found: " + name);
+        return asset;
+    }
+
+    public StaticAsset logo() {
+        return get(LOGO);
+    }
+
+    public StaticAsset logoPng() {
+        return get(LOGO_PNG);
+    }
+
+    private static StaticAsset load(String name) {
+        try {
+            byte[] bytes = read("brand/" + name);
+            ClassPathResource brotliResource = new ClassPathResource("brand/" + name + ".br");
+            byte[] brotli = brotliResource.exists() ? read("brand/" + name + ".br") : null;
+            String contentType = CONTENT_TYPES.getOrDefault(name.substring(name.lastIndexOf('.') + 1), "application/octet-stream");
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 8);
+            String dataUrl = "data:" + contentType + ";base64," + Base64.getEncoder().encodeToString(bytes);
+
+            StaticAsset asset = new StaticAsset(name, contentType, bytes, gzip(bytes), brotli, hash, dataUrl);
+            log.info("Loaded static asset {} ({} bytes, {} gzipped)", name, bytes.length, asset.gzip().length);
+            return asset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load static asset " + name, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] read(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param hash content hash the ETags derive from; each encoding gets its own ETag
+     */
+    public record StaticAsset(String name, String contentType, byte[] bytes, byte[] gzip, byte[] brotli,
+                              String hash, String dataUrl) {
+        public String etag(String encoding) {
+            return "\"" + hash + (encoding == null ? "" : "-" + encoding) + "\"";
+        }
+
+        public String dataUrlEtag() {
+            return "\"" + hash + "-dataurl\"";
+        }
+
+        public String text() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package invoice.controllers;
+
+import invoice.dtos.response.AdminSummaryResponse;
+import invoice.dtos.response.IntegrationStatusResponse;
+import invoice.dtos.response.PaymentTransactionResponse;
+import invoice.dtos.response.UserResponse;
+import invoice.services.AdminAnalyticsService;
+import invoice.utiils.IntegrationBulkheads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AdminAnalyticsController {
+    private final AdminAnalyticsService adminAnalyticsService;
+    private final IntegrationBulkheads integrationBulkheads;
+
+    @GetMapping("/summary")
+    public ResponseEntity<AdminSummaryResponse> getSummary() {
+        return ResponseEntity.ok(adminAnalyticsService.getSummary());
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<PagedModel<UserResponse>> getUsers(@RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(new PagedModel<>(adminAnalyticsService.getUsers(page, size)));
+    }
+
+    @GetMapping("/transactions")
+    public ResponseEntity<PagedModel<PaymentTransactionResponse>> getTransactions(@RequestParam(defaultValue = "0") int page,
+                                                                                 @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(new PagedModel<>(adminAnalyticsService.getTransactions(page, size)));
+    }
+
+    @GetMapping("/integrations")
+    public ResponseEntity<List<IntegrationStatusResponse>> getIntegrationStatus() {
+        return ResponseEntity.ok(integrationBulkheads.status());
+    }
+}
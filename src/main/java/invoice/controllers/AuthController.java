@@ -90,7 +90,7 @@ public class AuthController {
             String email = decodedJWT.getSubject();
             
             // Load user and create new authentication
-            User user = userRepository.findByEmail(email)
+            User user = userRepository.findWithRolesByEmail(email)
                     .orElseThrow(() -> new BusinessException("User not found"));
             
             // Create authentication object manually (don't re-authenticate with password)
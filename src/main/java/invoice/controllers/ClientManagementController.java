@@ -73,6 +73,18 @@ public class ClientManagementController {
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUserClients(Principal principal, @RequestParam String query,
+                                               @RequestParam(required = false) Integer limit) {
+        try {
+            String email = principal.getName();
+            List<ClientResponse> response = clientService.searchUserClients(email, query, limit);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (OriginalInvoiceBaseException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @DeleteMapping("/all-user")
     public ResponseEntity<?> deleteAllUserClients(Principal principal) {
         try {
@@ -0,0 +1,83 @@
+package invoice.controllers;
+
+import invoice.data.constants.ExportDataset;
+import invoice.data.constants.ExportFormat;
+import invoice.exception.ExportCapacityException;
+import invoice.exception.OriginalInvoiceBaseException;
+import invoice.services.ExportService;
+import invoice.utiils.CsvTableWriter;
+import invoice.utiils.TableWriter;
+import invoice.utiils.XlsxTableWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+@RequestMapping("/api/exports")
+@AllArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Streams invoices, receipts or transactions for a date range as CSV (gzip-compressed when the client
+     * accepts it) or XLSX. Rows are written as they are read, so the download starts at once and its size
+     * does not matter to the server.
+     */
+    @GetMapping("/{dataset}")
+    public ResponseEntity<?> export(@PathVariable String dataset,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(defaultValue = "csv") String format,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                    HttpServletResponse response) throws IOException {
+        ExportDataset exportDataset;
+        ExportFormat exportFormat;
+        try {
+            exportDataset = ExportDataset.valueOf(dataset.toUpperCase());
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>("Unknown export " + dataset + " as " + format, BAD_REQUEST);
+        }
+        // XLSX is already deflated
+        boolean gzip = exportFormat == ExportFormat.CSV && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(exportDataset.name().toLowerCase() + "-" + from + "-to-" + to + "." + exportFormat.getExtension())
+                .build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        OutputStream body = response.getOutputStream();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(body, 8192) : null;
+        OutputStream out = compressed != null ? compressed : body;
+        TableWriter writer = exportFormat == ExportFormat.XLSX
+                ? new XlsxTableWriter(out, exportDataset.getDisplayName())
+                : new CsvTableWriter(out);
+        try {
+            exportService.export(exportDataset, from, to, writer);
+        } catch (OriginalInvoiceBaseException ex) {
+            // Refused before the first row, so the headers set above can still be taken back
+            response.reset();
+            HttpStatus status = ex instanceof ExportCapacityException ? HttpStatus.TOO_MANY_REQUESTS : BAD_REQUEST;
+            return new ResponseEntity<>(ex.getMessage(), status);
+        }
+        if (compressed != null) compressed.finish();
+        body.flush();
+        return null;
+    }
+}
@@ -1,17 +1,22 @@
 package invoice.controllers;
 
+import invoice.data.projections.InvoiceVersionProjection;
 import invoice.dtos.request.CreateInvoiceRequest;
 import invoice.dtos.response.InvoiceResponse;
 import invoice.dtos.response.ReceiptResponse;
 import invoice.dtos.response.DashboardStatsResponse;
 import invoice.dtos.response.PaymentTrendResponse;
 import invoice.dtos.response.RecentInvoiceResponse;
+import invoice.exception.ConcurrentUpdateException;
 import invoice.exception.OriginalInvoiceBaseException;
 import invoice.services.InvoiceService;
 import invoice.services.PaystackSubscriptionService;
 import invoice.services.UserService;
 import invoice.data.models.User;
+import invoice.utiils.HttpCaching;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -149,6 +154,8 @@ public class InvoiceController {
         try{
             InvoiceResponse updated = invoiceService.updateInvoice(id, request);
             return ResponseEntity.ok(updated);
+        }catch (ConcurrentUpdateException ex){
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
         }catch (OriginalInvoiceBaseException ex){
             return new ResponseEntity<>(ex.getMessage(), BAD_REQUEST);
         }
@@ -187,10 +194,19 @@ public class InvoiceController {
 
     // Public endpoint for customers to view invoice details (no authentication required)
     @GetMapping("/public/{uuid}")
-    public ResponseEntity<?> getInvoiceByUuid(@PathVariable UUID uuid) {
+    public ResponseEntity<?> getInvoiceByUuid(@PathVariable UUID uuid,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            InvoiceVersionProjection current = invoiceService.getInvoiceVersion(uuid);
+            String etag = HttpCaching.etag(current.getVersion());
+            // Anyone with the link may view it, so shared caches may keep it; a paid invoice can still be
+            // corrected, so they revalidate it every time (a cheap 304 while the version is unchanged)
+            CacheControl cacheControl = HttpCaching.revalidate(true);
+            if (HttpCaching.notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
             InvoiceResponse response = invoiceService.getInvoiceByUuid(uuid);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
         } catch (OriginalInvoiceBaseException ex) {
             return new ResponseEntity<>(ex.getMessage(), BAD_REQUEST);
         }
@@ -215,6 +231,8 @@ public class InvoiceController {
             String paymentMethod = requestBody != null ? requestBody.get("paymentMethod") : "Bank Transfer";
             ReceiptResponse response = invoiceService.markInvoiceAsPaid(id, paymentMethod);
             return ResponseEntity.ok(response);
+        } catch (ConcurrentUpdateException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
         } catch (OriginalInvoiceBaseException ex) {
             return new ResponseEntity<>(ex.getMessage(), BAD_REQUEST);
         }
@@ -0,0 +1,41 @@
+package invoice.controllers;
+
+import invoice.dtos.request.BulkDeliveryRequest;
+import invoice.dtos.response.DeliveryBatchResponse;
+import invoice.exception.OriginalInvoiceBaseException;
+import invoice.exception.ResourceNotFoundException;
+import invoice.services.InvoiceDeliveryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/invoices/deliveries")
+@RequiredArgsConstructor
+public class InvoiceDeliveryController {
+    private final InvoiceDeliveryService invoiceDeliveryService;
+
+    @PostMapping
+    public ResponseEntity<?> startBatch(Principal principal, @RequestBody BulkDeliveryRequest request) {
+        try {
+            DeliveryBatchResponse batch = invoiceDeliveryService.startBatch(principal.getName(), request);
+            return new ResponseEntity<>(batch, HttpStatus.ACCEPTED);
+        } catch (OriginalInvoiceBaseException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/{batchId}")
+    public ResponseEntity<?> getBatch(Principal principal, @PathVariable UUID batchId,
+                                      @RequestParam(required = false) String status) {
+        try {
+            return new ResponseEntity<>(invoiceDeliveryService.getBatch(principal.getName(), batchId, status), HttpStatus.OK);
+        } catch (ResourceNotFoundException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -2,13 +2,11 @@ package invoice.controllers;
 
 import invoice.dtos.response.NotificationResponse;
 import invoice.services.NotificationService;
-import invoice.data.models.User;
-import invoice.data.repositories.UserRepository;
+import invoice.security.data.models.CurrentUser;
+import invoice.security.services.CurrentUserHolder;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,12 +19,12 @@ import java.util.UUID;
 public class NotificationController {
     
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final CurrentUserHolder currentUserHolder;
     
     @GetMapping("/all")
     public ResponseEntity<List<NotificationResponse>> getAllNotifications() {
         try {
-            User currentUser = getCurrentUser();
+            CurrentUser currentUser = currentUserHolder.require();
             List<NotificationResponse> notifications = notificationService.getUserNotifications(currentUser.getId());
             return ResponseEntity.ok(notifications);
             
@@ -39,7 +37,7 @@ public class NotificationController {
     @GetMapping("/unread")
     public ResponseEntity<List<NotificationResponse>> getUnreadNotifications() {
         try {
-            User currentUser = getCurrentUser();
+            CurrentUser currentUser = currentUserHolder.require();
             List<NotificationResponse> notifications = notificationService.getUnreadNotifications(currentUser.getId());
             return ResponseEntity.ok(notifications);
             
@@ -52,7 +50,7 @@ public class NotificationController {
     @GetMapping("/unread-count")
     public ResponseEntity<Long> getUnreadCount() {
         try {
-            User currentUser = getCurrentUser();
+            CurrentUser currentUser = currentUserHolder.require();
             long count = notificationService.getUnreadCount(currentUser.getId());
             return ResponseEntity.ok(count);
             
@@ -65,7 +63,7 @@ public class NotificationController {
     @PutMapping("/mark-all-read")
     public ResponseEntity<String> markAllAsRead() {
         try {
-            User currentUser = getCurrentUser();
+            CurrentUser currentUser = currentUserHolder.require();
             notificationService.markAllAsRead(currentUser.getId());
             return ResponseEntity.ok("All notifications marked as read");
             
@@ -78,7 +76,7 @@ public class NotificationController {
     @PutMapping("/{notificationId}/mark-read")
     public ResponseEntity<String> markAsRead(@PathVariable UUID notificationId) {
         try {
-            User currentUser = getCurrentUser();
+            CurrentUser currentUser = currentUserHolder.require();
             notificationService.markAsRead(notificationId, currentUser.getId());
             return ResponseEntity.ok("Notification marked as read");
             
@@ -87,11 +85,4 @@ public class NotificationController {
             return ResponseEntity.internalServerError().build();
         }
     }
-    
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-    }
 }
\ No newline at end of file
@@ -6,8 +6,8 @@ import invoice.data.constants.Role;
 import invoice.data.constants.UserStatus;
 import invoice.data.models.User;
 import invoice.data.repositories.UserRepository;
-import invoice.dtos.oauth.AppleTokenResponse;
 import invoice.dtos.oauth.AppleUserInfo;
+import invoice.dtos.oauth.GoogleSignInResult;
 import invoice.dtos.oauth.GoogleTokenResponse;
 import invoice.dtos.oauth.GoogleUserInfo;
 import invoice.exception.BusinessException;
@@ -86,11 +86,10 @@ public class OAuthController {
                 }
             }
             
-            // Exchange code for tokens
-            GoogleTokenResponse tokenResponse = oauthService.exchangeGoogleCode(code);
-            
-            // Get user info from Google
-            GoogleUserInfo userInfo = oauthService.getGoogleUserInfo(tokenResponse.getAccessToken());
+            // Exchange code for tokens; user info comes from the verified ID token
+            GoogleSignInResult signIn = oauthService.signInWithGoogle(code);
+            GoogleTokenResponse tokenResponse = signIn.getTokens();
+            GoogleUserInfo userInfo = signIn.getUserInfo();
             
             // Check if user exists
             boolean userExists = userRepository.findByEmail(userInfo.getEmail()).isPresent();
@@ -174,16 +173,8 @@ public class OAuthController {
                 }
             }
             
-            AppleUserInfo userInfo;
-            
-            if (id_token != null) {
-                // Validate ID token directly
-                userInfo = oauthService.validateAppleIdToken(id_token);
-            } else {
-                // Exchange code for tokens
-                AppleTokenResponse tokenResponse = oauthService.exchangeAppleCode(code);
-                userInfo = oauthService.validateAppleIdToken(tokenResponse.getIdToken());
-            }
+            // Verifies the posted ID token, exchanging the code only when none was sent
+            AppleUserInfo userInfo = oauthService.signInWithApple(code, id_token);
             
             // Parse additional user info if provided (first time only)
             String givenName = null;
@@ -254,7 +245,7 @@ public class OAuthController {
     }
     
     private User createOrUpdateUser(String email, String fullName, String givenName, String familyName, String provider, String providerId, String refreshToken, String phoneNumber, String profileImageUrl) {
-        return userRepository.findByEmail(email)
+        return userRepository.findWithRolesByEmail(email)
                 .map(existingUser -> {
                     // Update existing user
                     boolean needsUpdate = false;
@@ -73,6 +73,18 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUserProducts(Principal principal, @RequestParam String query,
+                                                @RequestParam(required = false) Integer limit) {
+        try {
+            String email = principal.getName();
+            List<ProductResponse> response = productService.searchUserProducts(email, query, limit);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (OriginalInvoiceBaseException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @PostMapping("/by-ids")
     public ResponseEntity<?> getProductsByIds(Principal principal, @RequestBody List<UUID> ids) {
         try {
@@ -1,9 +1,13 @@
 package invoice.controllers;
 
+import invoice.data.projections.ReceiptVersionProjection;
 import invoice.dtos.response.ReceiptResponse;
 import invoice.exception.OriginalInvoiceBaseException;
 import invoice.services.ReceiptService;
+import invoice.utiils.HttpCaching;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,10 +26,18 @@ public class ReceiptController {
     private final ReceiptService receiptService;
     
     @GetMapping("/{uuid}")
-    public ResponseEntity<?> getReceiptById(Principal principal, @PathVariable UUID uuid) {
+    public ResponseEntity<?> getReceiptById(Principal principal, @PathVariable UUID uuid,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            ReceiptVersionProjection current = receiptService.getReceiptVersion(uuid);
+            String etag = HttpCaching.etag(current.getVersion(), current.getInvoiceVersion());
+            // Receipts need a login, so only the viewer's own cache may keep them
+            CacheControl cacheControl = HttpCaching.settled(false);
+            if (HttpCaching.notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
             ReceiptResponse response = receiptService.getReceiptById(uuid);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
         } catch (OriginalInvoiceBaseException ex) {
             return new ResponseEntity<>(ex.getMessage(), BAD_REQUEST);
         }
@@ -3,18 +3,20 @@ package invoice.controllers;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
-import invoice.data.models.User;
-import invoice.data.repositories.UserRepository;
 import invoice.dtos.request.SignUpRequest;
+import invoice.dtos.response.DataDeletionProgressResponse;
 import invoice.dtos.response.SignUpResponse;
 import invoice.dtos.response.UserResponse;
 import invoice.exception.OriginalInvoiceBaseException;
 import invoice.security.config.RsaKeyProperties;
+import invoice.services.AdminAnalyticsService;
+import invoice.services.DataLifecycleService;
 import invoice.services.UserService;
 import invoice.utiils.CookieUtils;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,7 +31,6 @@ import org.springframework.web.multipart.MultipartFile;
 import java.security.Principal;
 import java.time.Instant;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -42,10 +43,11 @@ import static org.springframework.http.HttpStatus.OK;
 @AllArgsConstructor
 public class UserController {
     private final UserService userService;
-    private final UserRepository userRepository;
     private final AuthenticationManager authenticationManager;
     private final RsaKeyProperties rsaKeys;
     private final HttpServletResponse response;
+    private final DataLifecycleService dataLifecycleService;
+    private final AdminAnalyticsService adminAnalyticsService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody SignUpRequest signUpRequest) {
@@ -175,18 +177,15 @@ public class UserController {
         }
     }
 
+    // One page of users with the paging metadata (page number, size served, total elements and pages)
     @GetMapping("/all")
-    public ResponseEntity<?> getAllUsers(){
-        List<User> users = userRepository.findAll();
-        List<UserResponse> userResponses = users.stream()
-                .map(UserResponse::new)
-                .toList();
-        return new ResponseEntity<>(userResponses, OK);
+    public ResponseEntity<PagedModel<UserResponse>> getAllUsers(@RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "100") int size){
+        return new ResponseEntity<>(new PagedModel<>(adminAnalyticsService.getUsers(page, size)), OK);
     }
     @GetMapping("/allCount")
     public ResponseEntity<?> getAllUsersCount(){
-        List<User>users = userRepository.findAll();
-        return ResponseEntity.ok(users.size());
+        return ResponseEntity.ok(adminAnalyticsService.countUsers());
     }
 
     @GetMapping("/isUserValid/{userId}")
@@ -209,6 +208,16 @@ public class UserController {
         }
     }
 
+    @GetMapping("/deletion-progress")
+    public ResponseEntity<?> getDeletionProgress(@RequestParam UUID jobId) {
+        try {
+            DataDeletionProgressResponse progress = dataLifecycleService.getDeletionProgress(jobId);
+            return new ResponseEntity<>(progress, OK);
+        } catch (OriginalInvoiceBaseException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @DeleteMapping("/delete-by-email")
     public ResponseEntity<?>deleteUser(@RequestParam String email){
         try{
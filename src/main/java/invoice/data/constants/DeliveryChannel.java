@@ -0,0 +1,6 @@
+package invoice.data.constants;
+
+public enum DeliveryChannel {
+    WHATSAPP,
+    TELEGRAM
+}
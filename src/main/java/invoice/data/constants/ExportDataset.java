@@ -0,0 +1,17 @@
+package invoice.data.constants;
+
+public enum ExportDataset {
+    INVOICES("Invoices"),
+    RECEIPTS("Receipts"),
+    TRANSACTIONS("Transactions");
+
+    private final String displayName;
+
+    ExportDataset(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
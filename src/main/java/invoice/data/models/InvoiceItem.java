@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,4 +40,13 @@ public class InvoiceItem {
     
     @Column(precision = 15, scale = 2)
     private BigDecimal amount;
+
+    // Partition key, copied from the invoice on insert; the database cascades later changes of the invoice date
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime invoiceCreationDate;
+
+    @PrePersist
+    private void copyPartitionKey() {
+        invoiceCreationDate = invoice.getCreationDate();
+    }
 }
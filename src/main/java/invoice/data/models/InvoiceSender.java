@@ -21,7 +21,7 @@ public class InvoiceSender {
     private String address;//optional
     private String phone;
     private String businessName;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invoice_id")
     private Invoice invoice;
 }
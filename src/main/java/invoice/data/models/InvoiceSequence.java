@@ -20,6 +20,10 @@ public class InvoiceSequence {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Concurrent invoice creations for one user conflict here instead of waiting on a row lock
+    @Version
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
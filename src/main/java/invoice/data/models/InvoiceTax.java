@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 
 @Setter
 @Getter
@@ -23,7 +25,7 @@ public class InvoiceTax {
     @JoinColumn(name = "invoice_id", nullable = false)
     private Invoice invoice;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tax_id", nullable = false)
     private Tax tax;
     
@@ -38,4 +40,20 @@ public class InvoiceTax {
     // The base amount on which tax was calculated (usually subtotal)
     @Column(precision = 15, scale = 2, nullable = false)
     private BigDecimal taxableAmount;
-}
\ No newline at end of file
+
+    // Partition key, copied from the invoice on insert; the database cascades later changes of the invoice date
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime invoiceCreationDate;
+
+    @PrePersist
+    private void copyPartitionKey() {
+        invoiceCreationDate = invoice.getCreationDate();
+    }
+
+    /**
+     * Tax due on a taxable amount at a percentage rate, rounded half-up to cents
+     */
+    public static BigDecimal calculateTaxAmount(BigDecimal taxableAmount, BigDecimal appliedRate) {
+        return taxableAmount.multiply(appliedRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    }
+}
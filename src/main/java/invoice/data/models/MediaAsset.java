@@ -0,0 +1,43 @@
+package invoice.data.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "_media_assets")
+public class MediaAsset {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID", updatable = false, nullable = false)
+    private UUID id;
+
+    // Hex SHA-256 of the uploaded bytes
+    @Column(nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, unique = true)
+    private String url;
+
+    // Number of invoices/profiles currently pointing at this asset
+    private int referenceCount;
+
+    private LocalDateTime createdAt;
+
+    // Set when the reference count drops to zero; the garbage collector waits a grace period after it
+    private LocalDateTime releasedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
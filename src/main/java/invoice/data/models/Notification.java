@@ -23,6 +23,9 @@ public class Notification {
     @Column(columnDefinition = "UUID", updatable = false, nullable = false)
     private UUID id;
     
+    @Version
+    private Long version;
+    
     @Column(nullable = false)
     private String title;
     
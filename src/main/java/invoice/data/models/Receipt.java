@@ -22,6 +22,9 @@ public class Receipt {
     @Column(columnDefinition = "UUID", updatable = false, nullable = false)
     private UUID id;
     
+    @Version
+    private Long version;
+    
     @Column(nullable = false, unique = true)
     private String receiptNumber;
     
@@ -15,7 +15,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import static jakarta.persistence.EnumType.STRING;
-import static jakarta.persistence.FetchType.EAGER;
+import static jakarta.persistence.FetchType.LAZY;
 
 @Entity
 @Table(name = "users")
@@ -32,7 +32,8 @@ public class User {
     private String email;
     private String fullName;
     private String phoneNumber;
-    @ElementCollection(fetch=EAGER)
+    // Loaded on demand; security lookups use UserRepository.findWithRolesByEmail
+    @ElementCollection(fetch = LAZY)
     @Enumerated(STRING)
     private Set<Role> roles;
     private boolean isVerified;
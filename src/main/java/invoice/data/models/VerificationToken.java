@@ -19,8 +19,9 @@ public class VerificationToken {
     @Column(unique = true)
     private String token;
 
-    @Column(length = 6)
-    private String otp;
+    // HMAC of the code; the plain code is only ever sent to the user
+    @Column(name = "otp_hash", length = 64)
+    private String otpHash;
 
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", unique = true)
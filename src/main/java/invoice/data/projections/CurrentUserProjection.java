@@ -0,0 +1,23 @@
+package invoice.data.projections;
+
+import invoice.data.constants.Language;
+import invoice.data.models.Subscription;
+
+import java.util.UUID;
+
+public interface CurrentUserProjection {
+    UUID getId();
+    String getEmail();
+    String getFullName();
+    String getCurrentToken();
+    Boolean getVerified();
+    Language getLanguage();
+    Subscription.SubscriptionPlan getPlan();
+    Boolean getPaymentNotificationsEnabled();
+    Boolean getInvoiceNotificationsEnabled();
+    Boolean getInvoiceReminderNotificationsEnabled();
+    Boolean getClientNotificationsEnabled();
+    Boolean getSystemNotificationsEnabled();
+    Boolean getEnablingVAT();
+    Boolean getEnablingWHT();
+}
@@ -0,0 +1,10 @@
+package invoice.data.projections;
+
+import invoice.data.constants.Invoice_Status;
+
+import java.time.LocalDateTime;
+
+public interface InvoiceStatusProjection {
+    Invoice_Status getStatus();
+    LocalDateTime getDueDate();
+}
@@ -0,0 +1,8 @@
+package invoice.data.projections;
+
+import invoice.data.constants.Invoice_Status;
+
+public interface InvoiceVersionProjection {
+    Long getVersion();
+    Invoice_Status getStatus();
+}
@@ -0,0 +1,8 @@
+package invoice.data.projections;
+
+public interface PaymentTotalsProjection {
+    Long getTransactionCount();
+    Double getTotalAmount();
+    Long getSuccessfulCount();
+    Double getSuccessfulAmount();
+}
@@ -0,0 +1,7 @@
+package invoice.data.projections;
+
+public interface ReceiptVersionProjection {
+    Long getVersion();
+    // The receipt view shows the invoice number, so invoice edits change it too
+    Long getInvoiceVersion();
+}
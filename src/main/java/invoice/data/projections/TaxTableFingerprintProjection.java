@@ -0,0 +1,8 @@
+package invoice.data.projections;
+
+import java.time.LocalDateTime;
+
+public interface TaxTableFingerprintProjection {
+    Long getTaxCount();
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,6 @@
+package invoice.data.projections;
+
+public interface UserCountsProjection {
+    Long getTotalUsers();
+    Long getVerifiedUsers();
+}
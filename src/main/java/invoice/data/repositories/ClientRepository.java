@@ -3,6 +3,7 @@ package invoice.data.repositories;
 import invoice.data.models.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,4 +15,21 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
     Optional<Client> findByEmail(String email);
     @Query("select c from Client c where c.user.email=:email")
     List<Client> findAllUser(String email);
+
+    /**
+     * Typeahead over name, business name and email, served by the trigram indexes on each column.
+     * Prefix matches rank first, then fuzzy (word similarity) matches.
+     */
+    @Query(value = "select c.* from _user_clients c " +
+            "where c.user_id = :userId " +
+            "and (lower(c.full_name) like :prefix or lower(c.business_name) like :prefix or lower(c.email) like :prefix " +
+            "or :query <% lower(c.full_name) or :query <% lower(c.business_name) or :query <% lower(c.email)) " +
+            "order by (lower(c.full_name) like :prefix or lower(c.business_name) like :prefix " +
+            "or lower(c.email) like :prefix) desc, " +
+            "greatest(word_similarity(:query, coalesce(lower(c.full_name), '')), " +
+            "word_similarity(:query, coalesce(lower(c.business_name), '')), " +
+            "word_similarity(:query, coalesce(lower(c.email), ''))) desc, c.full_name " +
+            "limit :limit", nativeQuery = true)
+    List<Client> searchByUser(@Param("userId") UUID userId, @Param("query") String query,
+                              @Param("prefix") String prefix, @Param("limit") int limit);
 }
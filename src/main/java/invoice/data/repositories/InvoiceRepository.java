@@ -3,8 +3,11 @@ package invoice.data.repositories;
 import invoice.data.models.Invoice;
 import invoice.data.constants.Invoice_Status;
 import invoice.data.projections.InvoiceStatsProjection;
+import invoice.data.projections.InvoiceStatusProjection;
+import invoice.data.projections.InvoiceVersionProjection;
 import invoice.data.projections.PaymentTrendProjection;
 import invoice.data.projections.YearlyTrendProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +15,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,15 +26,40 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     @Query("SELECT i FROM Invoice i WHERE i.invoiceNumber = ?1 AND i.user.id = ?2")
     Optional<Invoice> findByInvoiceNumberAndUserId(String invoiceNumber, UUID userId);
 
+    // Detail view: recipient and taxes joined in, items batch-loaded
+    @EntityGraph(attributePaths = {"recipient", "invoiceTaxes", "invoiceTaxes.tax"})
+    @Query("SELECT i FROM Invoice i WHERE i.id = ?1")
+    Optional<Invoice> findDetailedById(UUID id);
+
+    // Receipt/email rendering: items, recipient and owner in one round-trip
+    @EntityGraph(attributePaths = {"items", "recipient", "user"})
+    @Query("SELECT i FROM Invoice i WHERE i.id = ?1")
+    Optional<Invoice> findForRenderingById(UUID id);
+
+    // Conditional GETs: answers If-None-Match without loading the invoice
+    @Query("SELECT i.version AS version, i.status AS status FROM Invoice i WHERE i.id = ?1")
+    Optional<InvoiceVersionProjection> findVersionById(UUID id);
+
+    // Bulk delivery: the owner's invoices with their recipients
+    @EntityGraph(attributePaths = "recipient")
+    @Query("SELECT i FROM Invoice i WHERE i.id IN :ids AND i.user.email = :email")
+    List<Invoice> findWithRecipientByIdsAndUserEmail(@Param("ids") Collection<UUID> ids, @Param("email") String email);
+
+    @EntityGraph(attributePaths = {"recipient", "invoiceTaxes", "invoiceTaxes.tax"})
     @Query("SELECT i FROM Invoice i WHERE i.user.id = ?1 ORDER BY i.id DESC")
     List<Invoice> findAllByUserId(UUID userId);
 
-    @Query("SELECT i FROM Invoice i WHERE i.recipient.email = ?1 ORDER BY i.creationDate DESC")
-    List<Invoice> findAllByRecipientEmail(String email);
+    @EntityGraph(attributePaths = {"recipient", "invoiceTaxes", "invoiceTaxes.tax"})
+    @Query("SELECT i FROM Invoice i")
+    List<Invoice> findAllDetailed();
+
+    @Query("SELECT i.status AS status, i.dueDate AS dueDate FROM Invoice i WHERE i.recipient.email = ?1")
+    List<InvoiceStatusProjection> findStatusesByRecipientEmail(String email);
 
     @Query("SELECT i FROM Invoice i WHERE i.user.id = ?1 ORDER BY i.id DESC LIMIT 1")
     Optional<Invoice> findLastInvoiceByUserId(UUID userId);
 
+    @EntityGraph(attributePaths = "recipient")
     @Query("SELECT i FROM Invoice i WHERE i.user.id = :userId ORDER BY i.creationDate DESC")
     List<Invoice> getRecentInvoices(@Param("userId") UUID userId, Pageable pageable);
 
@@ -0,0 +1,63 @@
+package invoice.data.repositories;
+
+import invoice.data.models.MediaAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, UUID> {
+
+    Optional<MediaAsset> findByContentHash(String contentHash);
+
+    boolean existsByUrl(String url);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaAsset a SET a.referenceCount = a.referenceCount + 1, a.releasedAt = null " +
+            "WHERE a.contentHash = :contentHash AND a.referenceCount >= 0")
+    int incrementReferenceCount(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE MediaAsset a
+        SET a.referenceCount = a.referenceCount - 1,
+            a.releasedAt = CASE WHEN a.referenceCount <= 1 THEN :now ELSE a.releasedAt END
+        WHERE a.url = :url AND a.referenceCount > 0
+    """)
+    int decrementReferenceCount(@Param("url") String url, @Param("now") LocalDateTime now);
+
+    @Query("SELECT a FROM MediaAsset a WHERE a.referenceCount <= 0 AND a.releasedAt < :releasedBefore")
+    List<MediaAsset> findUnreferencedReleasedBefore(@Param("releasedBefore") LocalDateTime releasedBefore);
+
+    /**
+     * Tombstones an asset for collection (reference count -1) unless it was re-acquired in the meantime.
+     * While tombstoned it cannot be acquired, so the Cloudinary delete never hits an asset someone points at.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE MediaAsset a SET a.referenceCount = -1, a.releasedAt = :now
+        WHERE a.id = :id AND a.referenceCount <= 0 AND a.releasedAt < :releasedBefore
+    """)
+    int markCollecting(@Param("id") UUID id, @Param("releasedBefore") LocalDateTime releasedBefore,
+                       @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MediaAsset a WHERE a.id = :id AND a.referenceCount = -1")
+    int deleteCollected(@Param("id") UUID id);
+
+    // The Cloudinary delete failed: make the asset acquirable again; the next run retries it
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaAsset a SET a.referenceCount = 0 WHERE a.id = :id AND a.referenceCount = -1")
+    int restoreCollecting(@Param("id") UUID id);
+}
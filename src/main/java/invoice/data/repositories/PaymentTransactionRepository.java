@@ -2,7 +2,9 @@
 package invoice.data.repositories;
 
 import invoice.data.models.PaymentTransaction;
+import invoice.data.projections.PaymentTotalsProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -10,4 +12,12 @@ import java.util.UUID;
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, UUID> {
     Optional<PaymentTransaction> findByReference(String reference);
 
+    @Query("select coalesce(sum(p.amount), 0) from PaymentTransaction p")
+    Double sumAmount();
+
+    @Query("select count(p) as transactionCount, coalesce(sum(p.amount), 0) as totalAmount, " +
+            "coalesce(sum(case when lower(p.status) = 'success' then 1 else 0 end), 0) as successfulCount, " +
+            "coalesce(sum(case when lower(p.status) = 'success' then p.amount else 0 end), 0) as successfulAmount " +
+            "from PaymentTransaction p")
+    PaymentTotalsProjection getTotals();
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package invoice.data.repositories;
 import invoice.data.models.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +18,17 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     
     @Query("select p from Product p where p.id in :ids and p.user.email=:email")
     List<Product> findByIdsAndUserEmail(List<UUID> ids, String email);
-}
\ No newline at end of file
+
+    /**
+     * Typeahead over item names, served by the trigram index on lower(item_name).
+     * Prefix matches rank first, then fuzzy (word similarity) matches.
+     */
+    @Query(value = "select p.* from _user_products p " +
+            "where p.user_id = :userId " +
+            "and (lower(p.item_name) like :prefix or :query <% lower(p.item_name)) " +
+            "order by (lower(p.item_name) like :prefix) desc, " +
+            "word_similarity(:query, lower(p.item_name)) desc, p.item_name " +
+            "limit :limit", nativeQuery = true)
+    List<Product> searchByUser(@Param("userId") UUID userId, @Param("query") String query,
+                               @Param("prefix") String prefix, @Param("limit") int limit);
+}
@@ -1,6 +1,7 @@
 package invoice.data.repositories;
 
 import invoice.data.models.Receipt;
+import invoice.data.projections.ReceiptVersionProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,4 +20,7 @@ public interface ReceiptRepository extends JpaRepository<Receipt, UUID> {
     
     @Query("SELECT r FROM Receipt r JOIN FETCH r.invoice WHERE r.id = :receiptId")
     Optional<Receipt> findByIdWithInvoice(@Param("receiptId") UUID receiptId);
+    
+    @Query("SELECT r.version AS version, i.version AS invoiceVersion FROM Receipt r JOIN r.invoice i WHERE r.id = :receiptId")
+    Optional<ReceiptVersionProjection> findVersionById(@Param("receiptId") UUID receiptId);
 }
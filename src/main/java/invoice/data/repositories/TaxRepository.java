@@ -2,6 +2,7 @@ package invoice.data.repositories;
 
 import invoice.data.constants.TaxType;
 import invoice.data.models.Tax;
+import invoice.data.projections.TaxTableFingerprintProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,4 +18,12 @@ public interface TaxRepository extends JpaRepository<Tax, UUID> {
     
     @Query("SELECT t FROM Tax t WHERE t.name ILIKE %:name% AND t.isActive = true")
     List<Tax> findByNameContainingIgnoreCaseAndIsActiveTrue(@Param("name") String name);
+
+    @Query("""
+        SELECT
+            COUNT(t) AS taxCount,
+            MAX(COALESCE(t.updatedAt, t.createdAt)) AS lastModified
+        FROM Tax t
+    """)
+    TaxTableFingerprintProjection getTaxTableFingerprint();
 }
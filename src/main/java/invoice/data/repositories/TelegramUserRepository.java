@@ -3,7 +3,11 @@ package invoice.data.repositories;
 import invoice.data.models.TelegramUser;
 import invoice.data.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,5 +16,10 @@ public interface TelegramUserRepository extends JpaRepository<TelegramUser, UUID
     Optional<TelegramUser> findByUser(User user);
 
     Optional<TelegramUser> findByChatId(Long chatId);
-    Optional<TelegramUser> findByUsernameIgnoreCase(String username);
-}
\ No newline at end of file
+
+    List<TelegramUser> findAllByChatIdIn(Collection<Long> chatIds);
+
+    // lower() rather than the derived upper() so the lower(username) index applies
+    @Query("select t from TelegramUser t where lower(t.username) = lower(:username)")
+    Optional<TelegramUser> findByUsernameIgnoreCase(@Param("username") String username);
+}
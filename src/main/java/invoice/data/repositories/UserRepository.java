@@ -1,14 +1,51 @@
 package invoice.data.repositories;
 
 import invoice.data.models.User;
+import invoice.data.projections.CurrentUserProjection;
+import invoice.data.projections.UserCountsProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByEmail(String email);
+
+    // Everything a request needs to know about its caller, in one round-trip
+    @Query("""
+        SELECT
+            u.id AS id,
+            u.email AS email,
+            u.fullName AS fullName,
+            u.currentToken AS currentToken,
+            u.isVerified AS verified,
+            s.language AS language,
+            sub.plan AS plan,
+            s.notificationsPreferences.paymentNotificationsEnabled AS paymentNotificationsEnabled,
+            s.notificationsPreferences.invoiceNotificationsEnabled AS invoiceNotificationsEnabled,
+            s.notificationsPreferences.invoiceReminderNotificationsEnabled AS invoiceReminderNotificationsEnabled,
+            s.notificationsPreferences.clientNotificationsEnabled AS clientNotificationsEnabled,
+            s.notificationsPreferences.systemNotificationsEnabled AS systemNotificationsEnabled,
+            s.taxSettings.isEnablingVAT AS enablingVAT,
+            s.taxSettings.isEnablingWHT AS enablingWHT
+        FROM User u
+        LEFT JOIN Settings s ON s.user = u
+        LEFT JOIN Subscription sub ON sub.user = u
+        WHERE u.email = :email
+    """)
+    List<CurrentUserProjection> findCurrentUserByEmail(@Param("email") String email);
+
+    @Query("select count(u) as totalUsers, " +
+            "coalesce(sum(case when u.isVerified = true then 1 else 0 end), 0) as verifiedUsers from User u")
+    UserCountsProjection getUserCounts();
+
     boolean existsByEmail(String email);
     Optional<User> findUserById(UUID id);
 }
@@ -6,14 +6,46 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
     Optional<VerificationToken> findByToken(String token);
     Optional<VerificationToken> findByUser(User user);
+
+    @Query("SELECT v FROM VerificationToken v JOIN FETCH v.user u WHERE u.email = :email")
+    Optional<VerificationToken> findByUserEmail(@Param("email") String email);
     
     @Modifying
     @Query("DELETE FROM VerificationToken v WHERE v.user = :user")
     void deleteByUser(@Param("user") User user);
+
+    /**
+     * Issues a fresh OTP for the user in one statement, replacing the code of an existing token.
+     * Relies on the unique constraint on user_id.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO verification_tokens " +
+            "(user_id, token, otp_hash, verification_type, expiry_date, otp_expiry_date, otp_attempts, max_attempts) " +
+            "VALUES (:userId, :token, :otpHash, :type, :expiryDate, :otpExpiryDate, 0, :maxAttempts) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "otp_hash = EXCLUDED.otp_hash, " +
+            "verification_type = EXCLUDED.verification_type, " +
+            "expiry_date = EXCLUDED.expiry_date, " +
+            "otp_expiry_date = EXCLUDED.otp_expiry_date, " +
+            "otp_attempts = 0, " +
+            "max_attempts = EXCLUDED.max_attempts", nativeQuery = true)
+    int upsertOtp(@Param("userId") UUID userId, @Param("token") String token, @Param("otpHash") String otpHash,
+                  @Param("type") String type, @Param("expiryDate") LocalDateTime expiryDate,
+                  @Param("otpExpiryDate") LocalDateTime otpExpiryDate, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM verification_tokens WHERE expiry_date < :now " +
+            "OR (verification_type <> 'EMAIL_LINK' AND otp_expiry_date < :now)", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now);
 }
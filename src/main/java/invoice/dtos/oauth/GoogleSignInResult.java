@@ -0,0 +1,11 @@
+package invoice.dtos.oauth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GoogleSignInResult {
+    private GoogleTokenResponse tokens;
+    private GoogleUserInfo userInfo;
+}
@@ -0,0 +1,21 @@
+package invoice.dtos.request;
+
+import invoice.data.constants.DeliveryChannel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeliveryRequest {
+    private List<UUID> invoiceIds;
+    private List<DeliveryChannel> channels;
+    private String message; // optional, prepended to each invoice link
+    private Map<UUID, String> documentUrls; // optional rendered document per invoice
+    private Map<UUID, String> telegramUsernames; // recipients have no Telegram handle on file
+}
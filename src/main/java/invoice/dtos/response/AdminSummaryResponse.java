@@ -0,0 +1,21 @@
+package invoice.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdminSummaryResponse {
+    private long totalUsers;
+    private long verifiedUsers;
+    private long totalInvoices;
+    private long totalTransactions;
+    private double totalTransactionAmount;
+    private long successfulTransactions;
+    private double successfulTransactionAmount;
+    private LocalDateTime refreshedAt;
+}
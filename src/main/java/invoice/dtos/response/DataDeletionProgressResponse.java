@@ -0,0 +1,23 @@
+package invoice.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DataDeletionProgressResponse {
+    private UUID jobId;
+    private UUID userId;
+    private String status; // RUNNING, COMPLETED or FAILED
+    private String currentStep;
+    private Map<String, Long> deletedRows;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package invoice.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryBatchResponse {
+    private UUID batchId;
+    private String status; // RUNNING or COMPLETED
+    private int total;
+    private Map<String, Long> countsByStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private List<DeliveryMessageResponse> messages; // only on the progress endpoint
+}
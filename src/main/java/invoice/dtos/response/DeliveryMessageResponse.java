@@ -0,0 +1,23 @@
+package invoice.dtos.response;
+
+import invoice.data.constants.DeliveryChannel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryMessageResponse {
+    private UUID invoiceId;
+    private String invoiceNumber;
+    private DeliveryChannel channel;
+    private String recipient;
+    private String status; // QUEUED, SENDING, SENT, FAILED or SKIPPED
+    private String providerMessageId;
+    private String error;
+    private LocalDateTime updatedAt;
+}
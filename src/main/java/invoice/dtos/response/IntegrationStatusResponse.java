@@ -0,0 +1,21 @@
+package invoice.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntegrationStatusResponse {
+    private String name;
+    private String circuitState; // CLOSED, OPEN or HALF_OPEN
+    private int activeThreads;
+    private int maxConcurrent;
+    private int queueDepth;
+    private int queueCapacity;
+    private long successes;
+    private long failures;
+    private long timeouts;
+    private long rejections;
+}
@@ -0,0 +1,7 @@
+package invoice.exception;
+
+public class ConcurrentUpdateException extends OriginalInvoiceBaseException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
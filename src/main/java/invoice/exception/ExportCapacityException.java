@@ -0,0 +1,7 @@
+package invoice.exception;
+
+public class ExportCapacityException extends OriginalInvoiceBaseException {
+    public ExportCapacityException(String message) {
+        super(message);
+    }
+}
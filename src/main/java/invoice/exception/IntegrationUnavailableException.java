@@ -0,0 +1,7 @@
+package invoice.exception;
+
+public class IntegrationUnavailableException extends OriginalInvoiceBaseException {
+    public IntegrationUnavailableException(String message) {
+        super(message);
+    }
+}
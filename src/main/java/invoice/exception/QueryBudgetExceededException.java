@@ -0,0 +1,7 @@
+package invoice.exception;
+
+public class QueryBudgetExceededException extends OriginalInvoiceBaseException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
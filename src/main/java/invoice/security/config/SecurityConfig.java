@@ -36,6 +36,7 @@ public class SecurityConfig {
                         .requestMatchers(PUBLIC_ENDPOINTS.toArray(new String[0])).permitAll()
                         // Admin-only endpoints
                         .requestMatchers("/api/users/delete-user","/api/users/all","/api/users/allCount","/api/users/delete-by-email","/api/users/disable-user").hasAnyAuthority("ADMIN","SUPER_ADMIN")
+                        .requestMatchers("/api/admin/**","/api/users/deletion-progress").hasAnyAuthority("ADMIN","SUPER_ADMIN")
                         .requestMatchers("/api/users/add-admin").hasAuthority("SUPER_ADMIN")
                         // User endpoints requiring authentication
                         .requestMatchers("/api/users/upload-photo").hasAnyAuthority("USER","ADMIN","SUPER_ADMIN")
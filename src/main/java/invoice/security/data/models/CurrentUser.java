@@ -0,0 +1,57 @@
+package invoice.security.data.models;
+
+import invoice.data.constants.Language;
+import invoice.data.constants.Role;
+import invoice.data.models.NotificationsPreferences;
+import invoice.data.models.Subscription;
+import invoice.data.projections.CurrentUserProjection;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the authenticated caller, resolved once per request.
+ */
+@Value
+@Builder
+public class CurrentUser {
+    UUID id;
+    String email;
+    String fullName;
+    Set<Role> roles;
+    boolean verified;
+    Language language;
+    Subscription.SubscriptionPlan plan;
+    NotificationsPreferences notificationsPreferences;
+    boolean enablingVAT;
+    boolean enablingWHT;
+
+    public static CurrentUser from(CurrentUserProjection projection, Set<Role> roles) {
+        NotificationsPreferences preferences = NotificationsPreferences.builder()
+                .paymentNotificationsEnabled(isTrueOrDefault(projection.getPaymentNotificationsEnabled()))
+                .invoiceNotificationsEnabled(isTrueOrDefault(projection.getInvoiceNotificationsEnabled()))
+                .invoiceReminderNotificationsEnabled(isTrueOrDefault(projection.getInvoiceReminderNotificationsEnabled()))
+                .clientNotificationsEnabled(isTrueOrDefault(projection.getClientNotificationsEnabled()))
+                .systemNotificationsEnabled(isTrueOrDefault(projection.getSystemNotificationsEnabled()))
+                .build();
+        return CurrentUser.builder()
+                .id(projection.getId())
+                .email(projection.getEmail())
+                .fullName(projection.getFullName())
+                .roles(Set.copyOf(roles))
+                .verified(Boolean.TRUE.equals(projection.getVerified()))
+                .language(projection.getLanguage())
+                .plan(projection.getPlan() != null ? projection.getPlan() : Subscription.SubscriptionPlan.FREE)
+                .notificationsPreferences(preferences)
+                .enablingVAT(Boolean.TRUE.equals(projection.getEnablingVAT()))
+                .enablingWHT(Boolean.TRUE.equals(projection.getEnablingWHT()))
+                .build();
+    }
+
+    // Preferences default to enabled, matching NotificationsPreferences
+    private static boolean isTrueOrDefault(Boolean value) {
+        return value == null || value;
+    }
+}
@@ -26,14 +26,15 @@ public class SecureUser implements UserDetails {
     public SecureUser(User user) {
         this.user = user;
         this.mediaUrl = user.getMediaUrl();
-        this.roles = user.getRoles();
+        // Copy so the principal stays usable after the persistence context is closed
+        this.roles = user.getRoles() != null ? Set.copyOf(user.getRoles()) : Set.of();
         this.isVerified = user.isVerified();
         this.fullName = user.getFullName();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles()
+        return roles
                 .stream()
                 .map(role -> new SimpleGrantedAuthority(role.name()))
                 .toList();
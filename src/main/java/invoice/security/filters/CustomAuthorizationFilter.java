@@ -5,10 +5,10 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import invoice.data.models.User;
-import invoice.data.repositories.UserRepository;
+import invoice.data.projections.CurrentUserProjection;
 import invoice.security.config.RsaKeyProperties;
 import invoice.security.services.AuthService;
+import invoice.security.services.CurrentUserHolder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -41,47 +41,43 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 public class CustomAuthorizationFilter extends OncePerRequestFilter {
     private final RsaKeyProperties rsaKeys;
     private final AuthService authService;
-    private final UserRepository userRepository;
+    private final CurrentUserHolder currentUserHolder;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
-        log.info("Starting authorization");
-        
         // Skip OPTIONS requests (CORS preflight) - they don't carry cookies
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
-            log.info("Skipping authorization for OPTIONS preflight request");
+            log.debug("Skipping authorization for OPTIONS preflight request");
             filterChain.doFilter(request, response);
             return;
         }
         
         String requestPath = request.getRequestURI();
-        log.info("Processing request: {} {}", request.getMethod(), requestPath);
+        log.debug("Processing request: {} {}", request.getMethod(), requestPath);
         
         boolean isRequestPathPublic = isPublicEndpoint(requestPath);
         if (isRequestPathPublic) {
-            log.info("Authorization not needed for public endpoint: {}", requestPath);
+            log.debug("Authorization not needed for public endpoint: {}", requestPath);
             filterChain.doFilter(request, response);
             return;
         }
         
-        log.info("Protected endpoint requires authentication: {}", requestPath);
+        log.debug("Protected endpoint requires authentication: {}", requestPath);
         // Check for token in Authorization header first
         String authorizationHeader = request.getHeader(AUTHORIZATION);
         String token = null;
         
         if (authorizationHeader != null && authorizationHeader.startsWith(JWT_PREFIX)) {
             token = authorizationHeader.substring(JWT_PREFIX.length()).strip();
-            log.info("Found token in Authorization header");
+            log.debug("Found token in Authorization header");
         } else {
             // Check for token in cookies if not found in header
             token = getTokenFromCookies(request);
             if (token != null) {
-                log.info("Found token in cookies");
-            } else {
-                log.warn("No token found in Authorization header or cookies");
+                log.debug("Found token in cookies");
             }
         }
         
@@ -89,7 +85,7 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
             if (isTokenBlacklisted(response, token)) return;
             if (!isAuthorized(token, response)) return;
         } else {
-            log.warn("No access token found in Authorization header or cookies for protected endpoint: {}", requestPath);
+            log.debug("No access token for protected endpoint: {}", requestPath);
             sendErrorResponse(response, "Access token required");
             return;
         }
@@ -98,7 +94,7 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
 
     private boolean isTokenBlacklisted(HttpServletResponse response, String token) throws IOException {
         if (authService.isTokenBlacklisted(token)) {
-            log.warn("Token is blacklisted: {}", token);
+            log.debug("Rejected blacklisted token");
             sendErrorResponse(response,"expired token");
             return true;
         }
@@ -118,7 +114,7 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
 
             decodedJWT = jwtVerifier.verify(token);
         } catch (JWTVerificationException exception) {
-            log.error("JWT verification failed: {}", exception.getMessage());
+            log.debug("JWT verification failed: {}", exception.getMessage());
             sendErrorResponse(response,"Expired or invalid token");
             return false;
         }
@@ -127,7 +123,7 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
         List<? extends GrantedAuthority> authorities = decodedJWT.getClaim("roles")
                 .asList(SimpleGrantedAuthority.class);
         String principal = decodedJWT.getClaim("principal").asString();
-        User user = userRepository.findByEmail(principal)
+        CurrentUserProjection user = currentUserHolder.resolve(principal)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         if (!token.equals(user.getCurrentToken())) {
@@ -138,18 +134,18 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
         String credentials = decodedJWT.getClaim("credentials").asString();
         Authentication authentication = new UsernamePasswordAuthenticationToken(principal, credentials, authorities);
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        log.info("User authorization succeeded");
+        currentUserHolder.set(currentUserHolder.snapshot(user, authorities));
+        log.debug("User authorization succeeded");
         return true;
     }
 
     private boolean isPublicEndpoint(String requestPath) {
         for (String pattern : PUBLIC_ENDPOINTS) {
             if (pathMatcher.match(pattern, requestPath)) {
-                log.info("Request path '{}' matched public pattern '{}'", requestPath, pattern);
+                log.debug("Request path '{}' matched public pattern '{}'", requestPath, pattern);
                 return true;
             }
         }
-        log.info("Request path '{}' did not match any public patterns: {}", requestPath, PUBLIC_ENDPOINTS);
         return false;
     }
 
@@ -158,12 +154,12 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
         if (cookies != null) {
             for (Cookie cookie : cookies) {
                 if ("accessToken".equals(cookie.getName())) {
-                    log.info("Found access token in cookie");
+                    log.debug("Found access token in cookie");
                     return cookie.getValue();
                 }
             }
         }
-        log.info("No access token found in cookies");
+        log.debug("No access token found in cookies");
         return null;
     }
 
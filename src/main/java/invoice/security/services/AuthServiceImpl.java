@@ -44,31 +44,28 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public void blacklist(String token) {
-        log.info("Trying to blacklist token: {}", token);
         trackExpiredTokens();
         BlacklistedToken blacklistedToken = new BlacklistedToken();
         blacklistedToken.setToken(token);
         blacklistedToken.setExpiresAt(now().plus(24, HOURS));
         blacklistedTokenRepository.save(blacklistedToken);
-        log.info("Blacklisted token: {}", token);
+        log.debug("Blacklisted a token");
     }
 
     @Override
     public boolean isTokenBlacklisted(String token) {
-        log.info("Checking blacklist status of token: {}", token);
         boolean isBlacklisted = blacklistedTokenRepository.existsByToken(token);
-        log.info("Blacklist status of token: {}", isBlacklisted);
         trackExpiredTokens();
         return isBlacklisted;
     }
 
     private void trackExpiredTokens() {
-        log.info("Tracking and deleting expired user tokens");
+        log.debug("Tracking and deleting expired user tokens");
         var blacklist = blacklistedTokenRepository.findAll();
         blacklist.stream()
                 .filter(blacklistedToken -> now().isAfter(blacklistedToken.getExpiresAt()))
                 .forEach(blacklistedTokenRepository::delete);
-        log.info("Expired user tokens successfully tracked and deleted");
+        log.debug("Expired user tokens successfully tracked and deleted");
     }
 
 }
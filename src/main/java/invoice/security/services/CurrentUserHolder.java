@@ -0,0 +1,83 @@
+package invoice.security.services;
+
+import invoice.data.constants.Role;
+import invoice.data.projections.CurrentUserProjection;
+import invoice.data.repositories.UserRepository;
+import invoice.security.data.models.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Request-scoped access to the authenticated caller.
+ * CustomAuthorizationFilter resolves the caller once and stores it here; services read it
+ * instead of looking the user up again.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserHolder {
+    private static final String ATTRIBUTE = CurrentUserHolder.class.getName() + ".CURRENT_USER";
+
+    private final UserRepository userRepository;
+
+    public void set(CurrentUser currentUser) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public Optional<CurrentUser> get() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return Optional.empty();
+        return Optional.ofNullable((CurrentUser) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /**
+     * The current caller; resolved from the security context if the filter did not run (e.g. public endpoints)
+     */
+    public CurrentUser require() {
+        return get().orElseGet(() -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null) throw new UsernameNotFoundException("No authenticated user");
+            CurrentUser currentUser = load(authentication.getName(), authentication.getAuthorities())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + authentication.getName()));
+            set(currentUser);
+            return currentUser;
+        });
+    }
+
+    public Optional<CurrentUser> load(String email, Collection<? extends GrantedAuthority> authorities) {
+        return resolve(email).map(projection -> snapshot(projection, authorities));
+    }
+
+    public CurrentUser snapshot(CurrentUserProjection projection, Collection<? extends GrantedAuthority> authorities) {
+        return CurrentUser.from(projection, toRoles(authorities));
+    }
+
+    public Optional<CurrentUserProjection> resolve(String email) {
+        return userRepository.findCurrentUserByEmail(email).stream().findFirst();
+    }
+
+    private static Set<Role> toRoles(Collection<? extends GrantedAuthority> authorities) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (GrantedAuthority authority : authorities) {
+            try {
+                roles.add(Role.valueOf(authority.getAuthority()));
+            } catch (IllegalArgumentException ignored) {
+                // not a role we model
+            }
+        }
+        return roles;
+    }
+}
@@ -21,7 +21,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
+        User user = userRepository.findWithRolesByEmail(username)
                 .orElseThrow(()-> new UsernameNotFoundException("Invalid username or password"));
         log.info("User found with email: {}", user.getEmail());
         return new SecureUser(user);
@@ -0,0 +1,63 @@
+package invoice.security.services;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import invoice.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Verifies provider ID tokens locally against the cached JWKS: signature, issuer, audience and expiry.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdTokenVerifier {
+    public static final Set<String> GOOGLE_ISSUERS = Set.of("https://accounts.google.com", "accounts.google.com");
+    public static final Set<String> APPLE_ISSUERS = Set.of("https://appleid.apple.com");
+
+    private static final long CLOCK_SKEW_MS = 60_000;
+
+    private final JwksKeyCache jwksKeyCache;
+
+    public Mono<JWTClaimsSet> verify(String idToken, String jwksUri, Set<String> issuers, String audience) {
+        SignedJWT jwt;
+        try {
+            jwt = SignedJWT.parse(idToken);
+        } catch (ParseException e) {
+            return Mono.error(new BusinessException("Malformed ID token"));
+        }
+        return jwksKeyCache.findKey(jwksUri, jwt.getHeader().getKeyID())
+                .switchIfEmpty(Mono.error(new BusinessException("ID token signed with an unknown key")))
+                .map(key -> verifiedClaims(jwt, key, issuers, audience));
+    }
+
+    private static JWTClaimsSet verifiedClaims(SignedJWT jwt, JWK key, Set<String> issuers, String audience) {
+        try {
+            JWSVerifier verifier = new RSASSAVerifier(key.toRSAKey());
+            if (!jwt.verify(verifier)) throw new BusinessException("Invalid ID token signature");
+
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            if (!issuers.contains(claims.getIssuer())) throw new BusinessException("Unexpected ID token issuer");
+            if (claims.getAudience() == null || !claims.getAudience().contains(audience)) {
+                throw new BusinessException("ID token was issued for another client");
+            }
+            Date expiresAt = claims.getExpirationTime();
+            if (expiresAt == null || expiresAt.getTime() + CLOCK_SKEW_MS < System.currentTimeMillis()) {
+                throw new BusinessException("ID token has expired");
+            }
+            return claims;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("Invalid ID token");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package invoice.security.services;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import invoice.config.OAuthProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signing keys of the OAuth providers, fetched once and refreshed in the background.
+ * A token signed with an unknown key id triggers an early refresh, at most once per minute per provider.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwksKeyCache {
+    public static final String APPLE_JWKS_URI = "https://appleid.apple.com/auth/keys";
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+    private static final long MIN_REFRESH_INTERVAL_MS = 60_000;
+
+    private final OAuthProperties oauthProperties;
+    private final WebClient webClient = WebClient.builder().build();
+    private final Map<String, CachedKeys> keysByUri = new ConcurrentHashMap<>();
+
+    public Mono<JWK> findKey(String jwksUri, String keyId) {
+        return keys(jwksUri)
+                .flatMap(keys -> {
+                    JWK key = keys.getKeyByKeyId(keyId);
+                    if (key != null) return Mono.just(key);
+                    // Providers rotate keys; refetch once before giving up
+                    return refreshIfStale(jwksUri).mapNotNull(refreshed -> refreshed.getKeyByKeyId(keyId));
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${oauth.jwks-refresh-interval-ms:21600000}")
+    public void refreshAll() {
+        for (String uri : new String[]{oauthProperties.getGoogle().getJwksUri(), APPLE_JWKS_URI}) {
+            fetch(uri)
+                    .doOnError(e -> log.warn("Failed to refresh JWKS from {}: {}", uri, e.getMessage()))
+                    .onErrorResume(e -> Mono.empty())
+                    .subscribe();
+        }
+    }
+
+    private Mono<JWKSet> keys(String jwksUri) {
+        CachedKeys cached = keysByUri.get(jwksUri);
+        return cached != null ? Mono.just(cached.keys) : fetch(jwksUri);
+    }
+
+    private Mono<JWKSet> refreshIfStale(String jwksUri) {
+        CachedKeys cached = keysByUri.get(jwksUri);
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt < MIN_REFRESH_INTERVAL_MS) {
+            return Mono.just(cached.keys);
+        }
+        return fetch(jwksUri);
+    }
+
+    private Mono<JWKSet> fetch(String jwksUri) {
+        return webClient.get()
+                .uri(jwksUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(FETCH_TIMEOUT)
+                .map(body -> {
+                    try {
+                        return JWKSet.parse(body);
+                    } catch (ParseException e) {
+                        throw new IllegalStateException("Malformed JWKS from " + jwksUri, e);
+                    }
+                })
+                .doOnNext(keys -> {
+                    keysByUri.put(jwksUri, new CachedKeys(keys, System.currentTimeMillis()));
+                    log.debug("Loaded {} signing keys from {}", keys.getKeys().size(), jwksUri);
+                });
+    }
+
+    private record CachedKeys(JWKSet keys, long fetchedAt) {
+    }
+}
@@ -25,7 +25,10 @@ public class SecurityUtils {
                 "/v3/api-docs",
                 "/swagger-resources/**",
                 "/webjars/**",
-                "/api/subscriptions/webhook"
+                "/api/subscriptions/webhook",
+                "/api/static/**", // Brand assets referenced from emails
+                "/actuator/health",
+                "/actuator/prometheus" // Served on the management port only
     );
 
 }
@@ -0,0 +1,18 @@
+package invoice.services;
+
+import invoice.dtos.response.AdminSummaryResponse;
+import invoice.dtos.response.PaymentTransactionResponse;
+import invoice.dtos.response.UserResponse;
+import org.springframework.data.domain.Page;
+
+public interface AdminAnalyticsService {
+    AdminSummaryResponse getSummary();
+
+    AdminSummaryResponse refreshSummary();
+
+    long countUsers();
+
+    Page<UserResponse> getUsers(int page, int size);
+
+    Page<PaymentTransactionResponse> getTransactions(int page, int size);
+}
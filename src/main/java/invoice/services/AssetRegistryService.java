@@ -0,0 +1,15 @@
+package invoice.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AssetRegistryService {
+    String acquire(MultipartFile file);
+
+    CompletableFuture<String> acquireAsync(MultipartFile file);
+
+    void release(String url);
+
+    void collectGarbage();
+}
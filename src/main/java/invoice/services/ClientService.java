@@ -17,6 +17,8 @@ public interface ClientService {
 
     List<ClientResponse> getAllUserClients(String email);
 
+    List<ClientResponse> searchUserClients(String email, String query, Integer limit);
+
     String deleteAllUserClients(String email);
 
     String deleteAllClients();
@@ -0,0 +1,19 @@
+package invoice.services;
+
+import invoice.dtos.response.DataDeletionProgressResponse;
+
+import java.util.UUID;
+
+public interface DataLifecycleService {
+    long deleteUserClients(UUID userId);
+
+    long deleteAllClients();
+
+    long deleteUserProducts(UUID userId);
+
+    long deleteAllProducts();
+
+    UUID deleteAccountAsync(UUID userId);
+
+    DataDeletionProgressResponse getDeletionProgress(UUID jobId);
+}
@@ -0,0 +1,18 @@
+package invoice.services;
+
+import invoice.data.constants.ExportDataset;
+import invoice.utiils.TableWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+public interface ExportService {
+    /**
+     * Streams the current user's rows of the dataset dated within [from, to] into the writer, straight from a
+     * database cursor: invoices one row per line item by issue date, receipts by payment date and payment
+     * transactions by creation date. The range is checked and an export slot taken before anything is written.
+     *
+     * @return the number of rows written, not counting the header
+     */
+    long export(ExportDataset dataset, LocalDate from, LocalDate to, TableWriter writer) throws IOException;
+}
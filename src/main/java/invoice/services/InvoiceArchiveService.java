@@ -0,0 +1,17 @@
+package invoice.services;
+
+import java.util.List;
+
+public interface InvoiceArchiveService {
+    /**
+     * Creates the invoice partitions for this and next year and the notification partitions for the next months
+     */
+    void ensureUpcomingPartitions();
+
+    /**
+     * Moves the yearly invoice partitions that are old enough and fully paid to cold storage
+     *
+     * @return the partitions archived by this run
+     */
+    List<String> archiveOldPartitions();
+}
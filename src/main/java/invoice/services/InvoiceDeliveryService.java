@@ -0,0 +1,12 @@
+package invoice.services;
+
+import invoice.dtos.request.BulkDeliveryRequest;
+import invoice.dtos.response.DeliveryBatchResponse;
+
+import java.util.UUID;
+
+public interface InvoiceDeliveryService {
+    DeliveryBatchResponse startBatch(String email, BulkDeliveryRequest request);
+
+    DeliveryBatchResponse getBatch(String email, UUID batchId, String status);
+}
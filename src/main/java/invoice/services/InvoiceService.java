@@ -1,5 +1,6 @@
 package invoice.services;
 
+import invoice.data.projections.InvoiceVersionProjection;
 import invoice.dtos.request.CreateInvoiceRequest;
 import invoice.dtos.response.InvoiceResponse;
 import invoice.dtos.response.ReceiptResponse;
@@ -16,6 +17,7 @@ public interface InvoiceService {
     InvoiceResponse createInvoice(CreateInvoiceRequest request);
     InvoiceResponse getInvoiceById(UUID id);
     InvoiceResponse getInvoiceByUuid(UUID uuid); // Public method for customers (no auth required)
+    InvoiceVersionProjection getInvoiceVersion(UUID uuid); // Version and status behind the public view's ETag
     List<InvoiceResponse> getAllUserInvoices();
     List<InvoiceResponse> getAllUserInvoices(UUID userId);
     InvoiceResponse updateInvoice(UUID id, CreateInvoiceRequest request);
@@ -2,6 +2,7 @@ package invoice.services;
 
 import invoice.dtos.oauth.AppleTokenResponse;
 import invoice.dtos.oauth.AppleUserInfo;
+import invoice.dtos.oauth.GoogleSignInResult;
 import invoice.dtos.oauth.GoogleTokenResponse;
 import invoice.dtos.oauth.GoogleUserInfo;
 
@@ -9,9 +10,11 @@ public interface OAuthService {
     String generateGoogleAuthUrl();
     GoogleTokenResponse exchangeGoogleCode(String code);
     GoogleUserInfo getGoogleUserInfo(String accessToken);
+    GoogleSignInResult signInWithGoogle(String code);
     
     String generateAppleAuthUrl();
     AppleTokenResponse exchangeAppleCode(String code);
     AppleUserInfo validateAppleIdToken(String idToken);
+    AppleUserInfo signInWithApple(String code, String idToken);
     String generateAppleClientSecret();
 }
\ No newline at end of file
@@ -2,14 +2,24 @@ package invoice.services;
 
 
 import invoice.data.models.User;
-import invoice.data.models.VerificationToken;
 
 public interface OTPService {
     String generateOTP();
-    VerificationToken createOTPToken(User user);
+    /**
+     * Issues a new code for the user and returns it; only its hash is stored
+     */
+    String createOTPToken(User user);
+    /**
+     * Throws when too many codes were sent recently to this address or from the current client
+     */
+    void checkSendRate(String email);
+    /**
+     * Like {@link #createOTPToken(User)}, for callers that already passed {@link #checkSendRate(String)} for this code
+     */
+    String createOTPTokenAfterRateCheck(User user);
     boolean validateOTP(String email, String otp);
     boolean resendOTP(String email);
-    VerificationToken createPasswordResetOTPToken(User user);
+    String createPasswordResetOTPToken(User user);
     boolean validatePasswordResetOTP(String email, String otp);
     boolean resendPasswordResetOTP(String email);
 }
\ No newline at end of file
@@ -67,10 +67,7 @@ public class PaymentService {
 
 
     public Double getTotalTransactionAmount() {
-        List<PaymentTransaction> transactions = paymentTransactionRepository.findAll();
-        return transactions
-                .stream().mapToDouble(PaymentTransaction::getAmount)
-                .sum();
+        return paymentTransactionRepository.sumAmount();
     }
 
     public List<PaymentTransactionResponse> getAllPromotionsTransactions() {
@@ -108,10 +105,7 @@ public class PaymentService {
     }
 
     public Double getTotalPromotionAmount() {
-        List<PaymentTransaction> transactions = paymentTransactionRepository.findAll();
-        return transactions.stream()
-                .mapToDouble(PaymentTransaction::getAmount)
-                .sum();
+        return paymentTransactionRepository.sumAmount();
     }
 
     public BankListResponse getBanks() {
@@ -7,8 +7,12 @@ import invoice.data.models.Subscription;
 import invoice.data.models.User;
 import invoice.data.repositories.SubscriptionRepository;
 import invoice.data.repositories.UserRepository;
+import invoice.utiils.OptimisticRetryExecutor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
@@ -24,15 +28,19 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "app.service", histogram = true)
 public class PaystackSubscriptionService {
     
     private final AppProperties appProperties;
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    @Qualifier("paystackRestTemplate")
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    private static final String PAYSTACK_API_URL = "https://api.paystack.co";
+    @Value("${paystack.api.url:https://api.paystack.co}")
+    private String paystackApiUrl;
     
     /**
      * Helper method to make Paystack API calls with retry logic for Cloudflare issues
@@ -43,7 +51,7 @@ public class PaystackSubscriptionService {
         
         while (attempts < maxRetries) {
             try {
-                return restTemplate.exchange(PAYSTACK_API_URL + endpoint, method, request, String.class);
+                return restTemplate.exchange(paystackApiUrl + endpoint, method, request, String.class);
             } catch (HttpClientErrorException.Forbidden e) {
                 attempts++;
                 String errorBody = e.getResponseBodyAsString();
@@ -130,7 +138,7 @@ public class PaystackSubscriptionService {
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/transaction/initialize",
+                paystackApiUrl + "/transaction/initialize",
                 HttpMethod.POST,
                 request,
                 String.class
@@ -143,15 +151,17 @@ public class PaystackSubscriptionService {
                     JsonNode data = jsonResponse.get("data");
                     
                     // Create pending subscription record
-                    Subscription subscription = subscriptionRepository.findByUser(user)
-                        .orElse(new Subscription());
-                    
-                    subscription.setUser(user);
-                    subscription.setPlan(plan);
-                    subscription.setStatus(Subscription.SubscriptionStatus.INACTIVE); // Will be activated on payment
-                    subscription.setLastResetDate(LocalDateTime.now());
-                    
-                    subscriptionRepository.save(subscription);
+                    optimisticRetryExecutor.run("subscription.initialize", () -> {
+                        Subscription subscription = subscriptionRepository.findByUser(user)
+                            .orElse(new Subscription());
+                        
+                        subscription.setUser(user);
+                        subscription.setPlan(plan);
+                        subscription.setStatus(Subscription.SubscriptionStatus.INACTIVE); // Will be activated on payment
+                        subscription.setLastResetDate(LocalDateTime.now());
+                        
+                        subscriptionRepository.save(subscription);
+                    });
                     
                     Map<String, Object> result = new HashMap<>();
                     result.put("success", true);
@@ -209,17 +219,20 @@ public class PaystackSubscriptionService {
      * Increment invoice usage count
      */
     public void incrementInvoiceUsage(User user) {
-        Optional<Subscription> subscriptionOpt = subscriptionRepository.findByUser(user);
-        
-        if (subscriptionOpt.isEmpty()) {
-            createFreeSubscription(user);
-            subscriptionOpt = subscriptionRepository.findByUser(user);
-        }
-        
-        subscriptionOpt.ifPresent(subscription -> {
-            resetMonthlyLimitsIfNeeded(subscription);
-            subscription.setInvoicesUsedThisMonth(subscription.getInvoicesUsedThisMonth() + 1);
-            subscriptionRepository.save(subscription);
+        // Read-modify-write of a counter: a concurrent increment makes this one re-read and try again
+        optimisticRetryExecutor.run("subscription.invoice-usage", () -> {
+            Optional<Subscription> subscriptionOpt = subscriptionRepository.findByUser(user);
+            
+            if (subscriptionOpt.isEmpty()) {
+                createFreeSubscription(user);
+                subscriptionOpt = subscriptionRepository.findByUser(user);
+            }
+            
+            subscriptionOpt.ifPresent(subscription -> {
+                resetMonthlyLimitsIfNeeded(subscription);
+                subscription.setInvoicesUsedThisMonth(subscription.getInvoicesUsedThisMonth() + 1);
+                subscriptionRepository.save(subscription);
+            });
         });
     }
     
@@ -247,12 +260,14 @@ public class PaystackSubscriptionService {
      * Increment logo upload count
      */
     public void incrementLogoUsage(User user) {
-        Optional<Subscription> subscriptionOpt = subscriptionRepository.findByUser(user);
-        
-        subscriptionOpt.ifPresent(subscription -> {
-            resetMonthlyLimitsIfNeeded(subscription);
-            subscription.setLogosUploadedThisMonth(subscription.getLogosUploadedThisMonth() + 1);
-            subscriptionRepository.save(subscription);
+        optimisticRetryExecutor.run("subscription.logo-usage", () -> {
+            Optional<Subscription> subscriptionOpt = subscriptionRepository.findByUser(user);
+            
+            subscriptionOpt.ifPresent(subscription -> {
+                resetMonthlyLimitsIfNeeded(subscription);
+                subscription.setLogosUploadedThisMonth(subscription.getLogosUploadedThisMonth() + 1);
+                subscriptionRepository.save(subscription);
+            });
         });
     }
     
@@ -301,16 +316,20 @@ public class PaystackSubscriptionService {
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/subscription/disable",
+                paystackApiUrl + "/subscription/disable",
                 HttpMethod.POST,
                 request,
                 String.class
             );
             
             if (response.getStatusCode() == HttpStatus.OK) {
-                subscription.setStatus(Subscription.SubscriptionStatus.CANCELLED);
-                subscription.setCancelledAt(LocalDateTime.now());
-                subscriptionRepository.save(subscription);
+                // Paystack has already cancelled it, so apply the change to a fresh read if a webhook got there first
+                optimisticRetryExecutor.run("subscription.cancel", () ->
+                        subscriptionRepository.findByUser(user).ifPresent(current -> {
+                            current.setStatus(Subscription.SubscriptionStatus.CANCELLED);
+                            current.setCancelledAt(LocalDateTime.now());
+                            subscriptionRepository.save(current);
+                        }));
                 
                 Map<String, Object> result = new HashMap<>();
                 result.put("success", true);
@@ -340,6 +359,11 @@ public class PaystackSubscriptionService {
         
         log.info("Processing webhook event: {}", eventType);
         
+        // Handlers only stage their changes; a conflict surfaces at commit and the event is applied again
+        optimisticRetryExecutor.run("subscription.webhook", () -> dispatchWebhookEvent(eventType, event));
+    }
+    
+    private void dispatchWebhookEvent(String eventType, Map<String, Object> event) {
         switch (eventType) {
             case "subscription.create":
                 handleSubscriptionCreated(event);
@@ -701,7 +725,7 @@ public class PaystackSubscriptionService {
             HttpEntity<Void> request = new HttpEntity<>(headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/subscription/" + subscriptionCode,
+                paystackApiUrl + "/subscription/" + subscriptionCode,
                 HttpMethod.GET,
                 request,
                 String.class
@@ -765,7 +789,7 @@ public class PaystackSubscriptionService {
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/subscription/enable",
+                paystackApiUrl + "/subscription/enable",
                 HttpMethod.POST,
                 request,
                 String.class
@@ -775,8 +799,11 @@ public class PaystackSubscriptionService {
                 JsonNode jsonResponse = objectMapper.readTree(response.getBody());
                 
                 if (jsonResponse.get("status").asBoolean()) {
-                    subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
-                    subscriptionRepository.save(subscription);
+                    optimisticRetryExecutor.run("subscription.enable", () ->
+                            subscriptionRepository.findByUser(user).ifPresent(current -> {
+                                current.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+                                subscriptionRepository.save(current);
+                            }));
                     
                     Map<String, Object> result = new HashMap<>();
                     result.put("success", true);
@@ -832,7 +859,7 @@ public class PaystackSubscriptionService {
             HttpEntity<Void> request = new HttpEntity<>(headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/transaction/verify/" + reference,
+                paystackApiUrl + "/transaction/verify/" + reference,
                 HttpMethod.GET,
                 request,
                 String.class
@@ -860,20 +887,23 @@ public class PaystackSubscriptionService {
                                     // Determine which plan this is
                                     Subscription.SubscriptionPlan plan = getPlanFromCode(planCode);
                                     if (plan != null) {
-                                        // Update or create subscription
-                                        Subscription subscription = subscriptionRepository.findByUser(user)
-                                            .orElse(new Subscription());
-                                        
-                                        subscription.setUser(user);
-                                        subscription.setPlan(plan);
-                                        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
-                                        subscription.setCurrentPeriodStart(LocalDateTime.now());
-                                        subscription.setCurrentPeriodEnd(LocalDateTime.now().plusMonths(1));
-                                        subscription.setLastResetDate(LocalDateTime.now());
-                                        subscription.setInvoicesUsedThisMonth(0);
-                                        subscription.setLogosUploadedThisMonth(0);
-                                        
-                                        subscriptionRepository.save(subscription);
+                                        // Update or create subscription; the charge.success webhook usually
+                                        // races this, so a conflict re-reads and applies the change again
+                                        optimisticRetryExecutor.run("subscription.verify", () -> {
+                                            Subscription subscription = subscriptionRepository.findByUser(user)
+                                                .orElse(new Subscription());
+                                            
+                                            subscription.setUser(user);
+                                            subscription.setPlan(plan);
+                                            subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+                                            subscription.setCurrentPeriodStart(LocalDateTime.now());
+                                            subscription.setCurrentPeriodEnd(LocalDateTime.now().plusMonths(1));
+                                            subscription.setLastResetDate(LocalDateTime.now());
+                                            subscription.setInvoicesUsedThisMonth(0);
+                                            subscription.setLogosUploadedThisMonth(0);
+                                            
+                                            subscriptionRepository.save(subscription);
+                                        });
                                         
                                         Map<String, Object> result = new HashMap<>();
                                         result.put("success", true);
@@ -951,7 +981,7 @@ public class PaystackSubscriptionService {
             HttpEntity<Void> request = new HttpEntity<>(headers);
             
             ResponseEntity<String> response = restTemplate.exchange(
-                PAYSTACK_API_URL + "/subscription",
+                paystackApiUrl + "/subscription",
                 HttpMethod.GET,
                 request,
                 String.class
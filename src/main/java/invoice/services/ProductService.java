@@ -19,6 +19,8 @@ public interface ProductService {
 
     List<ProductResponse> getProductsByIds(List<UUID> ids, String email);
 
+    List<ProductResponse> searchUserProducts(String email, String query, Integer limit);
+
     String deleteAllUserProducts(String email);
 
     String deleteAllProducts();
@@ -1,11 +1,13 @@
 package invoice.services;
 
+import invoice.data.projections.ReceiptVersionProjection;
 import invoice.dtos.response.ReceiptResponse;
 
 import java.util.UUID;
 
 public interface ReceiptService {
     ReceiptResponse getReceiptById(UUID receiptId);
+    ReceiptVersionProjection getReceiptVersion(UUID receiptId);
     ReceiptResponse getReceiptByInvoiceId(UUID invoiceId);
     byte[] generateReceiptPdf(UUID receiptId);
 }
@@ -1,11 +1,14 @@
 package invoice.services;
 
-
-import invoice.data.models.User;
+import java.util.concurrent.CompletableFuture;
 
 public interface TelegramService {
     void sendDocument(String username, String fileURL);
     void sendMessageAndFile(String username, String fileUrl, String text);
+    /**
+     * Queues the text and, when fileUrl is set, the document; the future completes once both were sent
+     */
+    CompletableFuture<Void> sendMessageAndFileAsync(String username, String fileUrl, String text);
     void init();
     boolean hasTelegramConnected(String username);
 }
@@ -2,4 +2,8 @@ package invoice.services;
 
 public interface WhatsappService {
     String sendDocument(String email, String phoneNumber, String url, String message);
+    /**
+     * Sends without the per-call sender checks, for deliveries whose owner was already verified
+     */
+    String sendMessage(String phoneNumber, String mediaUrl, String message);
 }
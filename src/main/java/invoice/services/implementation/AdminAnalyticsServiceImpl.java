@@ -0,0 +1,94 @@
+package invoice.services.implementation;
+
+import invoice.data.projections.PaymentTotalsProjection;
+import invoice.data.projections.UserCountsProjection;
+import invoice.data.repositories.InvoiceRepository;
+import invoice.data.repositories.PaymentTransactionRepository;
+import invoice.data.repositories.UserRepository;
+import invoice.dtos.response.AdminSummaryResponse;
+import invoice.dtos.response.PaymentTransactionResponse;
+import invoice.dtos.response.UserResponse;
+import invoice.services.AdminAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admin dashboard figures computed with SQL aggregates.
+ * The summary is cached and refreshed on a schedule so dashboard polling never touches the big tables directly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminAnalyticsServiceImpl implements AdminAnalyticsService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final AtomicReference<AdminSummaryResponse> summary = new AtomicReference<>();
+
+    @Override
+    public AdminSummaryResponse getSummary() {
+        AdminSummaryResponse cached = summary.get();
+        return cached != null ? cached : refreshSummary();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.admin-analytics.refresh-interval-ms:60000}")
+    public AdminSummaryResponse refreshSummary() {
+        UserCountsProjection users = userRepository.getUserCounts();
+        PaymentTotalsProjection payments = paymentTransactionRepository.getTotals();
+
+        AdminSummaryResponse response = new AdminSummaryResponse(
+                valueOf(users.getTotalUsers()),
+                valueOf(users.getVerifiedUsers()),
+                invoiceRepository.count(),
+                valueOf(payments.getTransactionCount()),
+                valueOf(payments.getTotalAmount()),
+                valueOf(payments.getSuccessfulCount()),
+                valueOf(payments.getSuccessfulAmount()),
+                LocalDateTime.now());
+        summary.set(response);
+        log.debug("Refreshed admin summary");
+        return response;
+    }
+
+    @Override
+    public long countUsers() {
+        return userRepository.count();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserResponse> getUsers(int page, int size) {
+        return userRepository.findAll(pageOf(page, size)).map(UserResponse::new);
+    }
+
+    @Override
+    public Page<PaymentTransactionResponse> getTransactions(int page, int size) {
+        return paymentTransactionRepository.findAll(pageOf(page, size)).map(PaymentTransactionResponse::new);
+    }
+
+    private static Pageable pageOf(int page, int size) {
+        int boundedSize = size <= 0 ? 20 : Math.min(size, MAX_PAGE_SIZE);
+        return PageRequest.of(Math.max(page, 0), boundedSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0;
+    }
+}
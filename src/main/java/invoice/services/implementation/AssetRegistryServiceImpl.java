@@ -0,0 +1,136 @@
+package invoice.services.implementation;
+
+import invoice.config.CloudinaryService;
+import invoice.data.models.MediaAsset;
+import invoice.data.repositories.MediaAssetRepository;
+import invoice.exception.UploadMediaFailedException;
+import invoice.services.AssetRegistryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Content-addressed registry of uploaded logos and signatures.
+ * Identical bytes map to one Cloudinary asset; invoices hold references to it and the
+ * asset is only deleted from Cloudinary once nothing references it any more.
+ * The collector tombstones an asset before deleting it, and an upload of the same content waits until
+ * the tombstone is gone, so a delete never races a re-upload to the same public_id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssetRegistryServiceImpl implements AssetRegistryService {
+    private static final long GARBAGE_GRACE_PERIOD_HOURS = 1;
+    private static final int COLLECTION_WAIT_ATTEMPTS = 20;
+    private static final long COLLECTION_WAIT_MS = 250;
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final CloudinaryService cloudinaryService;
+    @Qualifier("uploadExecutor")
+    private final Executor uploadExecutor;
+
+    @Override
+    // Runs outside any caller transaction so a duplicate-key race can be handled in place
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String acquire(MultipartFile file) {
+        if (file == null || file.isEmpty()) return null;
+        try (CloudinaryService.StagedFile staged = cloudinaryService.stage(file)) {
+            String contentHash = staged.sha256();
+
+            // Already uploaded: take a reference and return the stored url without touching Cloudinary
+            if (mediaAssetRepository.incrementReferenceCount(contentHash) > 0) {
+                return urlOf(contentHash);
+            }
+            awaitCollection(contentHash);
+
+            String url = cloudinaryService.upload(staged, "assets/" + contentHash);
+            try {
+                MediaAsset asset = new MediaAsset();
+                asset.setContentHash(contentHash);
+                asset.setUrl(url);
+                asset.setReferenceCount(1);
+                mediaAssetRepository.saveAndFlush(asset);
+            } catch (DataIntegrityViolationException e) {
+                // Another request registered the same content concurrently; the public_id is the same asset
+                if (mediaAssetRepository.incrementReferenceCount(contentHash) == 0) {
+                    throw new UploadMediaFailedException("Media asset is being replaced, please try again");
+                }
+            }
+            log.info("Registered new media asset {}", contentHash);
+            return url;
+        } catch (IOException e) {
+            log.error("Failed to upload media asset: {}", e.getMessage());
+            throw new UploadMediaFailedException("Failed to upload file");
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> acquireAsync(MultipartFile file) {
+        if (file == null || file.isEmpty()) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.supplyAsync(() -> acquire(file), uploadExecutor);
+    }
+
+    @Override
+    public void release(String url) {
+        if (url == null || url.isBlank()) return;
+        if (mediaAssetRepository.decrementReferenceCount(url, LocalDateTime.now()) > 0) return;
+
+        // Files uploaded before the registry existed are not shared, so delete them directly
+        if (!mediaAssetRepository.existsByUrl(url)) {
+            cloudinaryService.deleteFile(url);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.media-assets.gc-interval-ms:900000}")
+    public void collectGarbage() {
+        LocalDateTime releasedBefore = LocalDateTime.now().minusHours(GARBAGE_GRACE_PERIOD_HOURS);
+        List<MediaAsset> unreferenced = mediaAssetRepository.findUnreferencedReleasedBefore(releasedBefore);
+        for (MediaAsset asset : unreferenced) {
+            if (mediaAssetRepository.markCollecting(asset.getId(), releasedBefore, LocalDateTime.now()) == 0) continue;
+            try {
+                cloudinaryService.deleteFile(asset.getUrl());
+                mediaAssetRepository.deleteCollected(asset.getId());
+                log.info("Collected unreferenced media asset {}", asset.getContentHash());
+            } catch (Exception e) {
+                mediaAssetRepository.restoreCollecting(asset.getId());
+                log.warn("Failed to collect media asset {}: {}", asset.getContentHash(), e.getMessage());
+            }
+        }
+    }
+
+    // Waits for the collector to finish deleting this content before it is uploaded again
+    private void awaitCollection(String contentHash) {
+        for (int attempt = 0; attempt < COLLECTION_WAIT_ATTEMPTS; attempt++) {
+            boolean collecting = mediaAssetRepository.findByContentHash(contentHash)
+                    .map(asset -> asset.getReferenceCount() < 0)
+                    .orElse(false);
+            if (!collecting) return;
+            try {
+                Thread.sleep(COLLECTION_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new UploadMediaFailedException("Media asset is being replaced, please try again");
+    }
+
+    private String urlOf(String contentHash) {
+        return mediaAssetRepository.findByContentHash(contentHash)
+                .map(MediaAsset::getUrl)
+                .orElseThrow(() -> new UploadMediaFailedException("Media asset disappeared during upload"));
+    }
+}
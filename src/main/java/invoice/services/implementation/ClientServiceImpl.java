@@ -7,18 +7,23 @@ import invoice.dtos.request.ClientRequest;
 import invoice.dtos.response.ClientResponse;
 import invoice.exception.ResourceNotFoundException;
 import invoice.services.ClientService;
+import invoice.services.DataLifecycleService;
 import invoice.services.UserService;
 import invoice.services.NotificationService;
+import invoice.utiils.StatementTimeout;
 import invoice.data.constants.NotificationType;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static invoice.utiils.ServiceUtils.*;
+
 @Service
 @AllArgsConstructor
 @Slf4j
@@ -27,6 +32,8 @@ public class ClientServiceImpl implements ClientService {
     private final ModelMapper modelMapper;
     private final UserService userService;
     private final NotificationService notificationService;
+    private final DataLifecycleService dataLifecycleService;
+    private final StatementTimeout statementTimeout;
 
 
     @Override
@@ -104,17 +111,35 @@ public class ClientServiceImpl implements ClientService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ClientResponse> searchUserClients(String email, String query, Integer limit) {
+        String term = normalizeSearchTerm(query);
+        if (term == null) return List.of();
+        UUID userId = userService.getUserIdByEmail(email);
+        try {
+            return statementTimeout.readOnly(ClientServiceImpl.class.getName() + ".searchUserClients", SEARCH_TIMEOUT_MS,
+                    () -> clientRepository.searchByUser(userId, term, toLikePrefix(term), clampSearchLimit(limit))
+                            .stream()
+                            .map(ClientResponse::new)
+                            .collect(Collectors.toList()));
+        } catch (QueryTimeoutException e) {
+            // Typeahead is best effort: an empty list beats a slow suggestion box
+            log.warn("Client search for user {} exceeded its latency budget", userId);
+            return List.of();
+        }
+    }
+
     @Override
     public String deleteAllUserClients(String email) {
-        List<Client> clients = clientRepository.findAllUser(email);
-        if (!clients.isEmpty())clientRepository.deleteAll(clients);
+        long deleted = dataLifecycleService.deleteUserClients(userService.getUserIdByEmail(email));
+        log.info("Deleted {} clients", deleted);
         return "clients deleted successfully";
     }
 
     @Override
     public String deleteAllClients() {
-        List<Client> clients = clientRepository.findAll();
-        if (!clients.isEmpty())clientRepository.deleteAll(clients);
+        long deleted = dataLifecycleService.deleteAllClients();
+        log.info("Deleted {} clients", deleted);
         return "clients deleted successfully";
     }
 
@@ -0,0 +1,291 @@
+package invoice.services.implementation;
+
+import invoice.data.repositories.UserRepository;
+import invoice.dtos.response.DataDeletionProgressResponse;
+import invoice.exception.ResourceNotFoundException;
+import invoice.services.AssetRegistryService;
+import invoice.services.DataLifecycleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set-based deletion of user data.
+ * Rows are removed with DELETE ... WHERE statements in bounded chunks, each chunk in its own
+ * short transaction, so large accounts never pin a connection or load rows into memory.
+ * A requested deletion is recorded on the user row and its job reports progress there; deletions whose job
+ * died with an instance, or failed, are picked up again by the resume sweep until the user row is gone.
+ * Every step is safe to repeat.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DataLifecycleServiceImpl implements DataLifecycleService {
+    private static final long FINISHED_JOB_RETENTION_HOURS = 24;
+
+    // Tables keyed by user_id, in foreign-key order; invoices and their children are handled first
+    private static final List<String> USER_TABLES = List.of(
+            "_notifications",
+            "_invoice_sequence",
+            "subscriptions",
+            "_user_clients",
+            "_user_products",
+            "telegram_users",
+            "verification_tokens"
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final AssetRegistryService assetRegistryService;
+    @Qualifier("dataLifecycleExecutor")
+    private final Executor dataLifecycleExecutor;
+    private final Map<UUID, DeletionJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.data-lifecycle.batch-size:500}")
+    private int batchSize;
+
+    // A deletion whose job has not reported progress for this long is considered dead and resumed
+    @Value("${app.data-lifecycle.stalled-after-seconds:900}")
+    private int stalledAfterSeconds;
+
+    @Override
+    public long deleteUserClients(UUID userId) {
+        return deleteByUser("_user_clients", userId);
+    }
+
+    @Override
+    public long deleteAllClients() {
+        return deleteAll("_user_clients");
+    }
+
+    @Override
+    public long deleteUserProducts(UUID userId) {
+        return deleteByUser("_user_products", userId);
+    }
+
+    @Override
+    public long deleteAllProducts() {
+        return deleteAll("_user_products");
+    }
+
+    @Override
+    public UUID deleteAccountAsync(UUID userId) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE users SET deletion_requested_at = COALESCE(deletion_requested_at, now()), " +
+                        "deletion_heartbeat_at = now() WHERE id = :userId",
+                new MapSqlParameterSource("userId", userId)));
+        return startJob(userId);
+    }
+
+    @Override
+    public DataDeletionProgressResponse getDeletionProgress(UUID jobId) {
+        DeletionJob job = jobs.get(jobId);
+        if (job == null) throw new ResourceNotFoundException("Deletion job not found");
+        return job.toResponse();
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(FINISHED_JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Restarts the deletions left behind by a failed job or a stopped instance. Claiming a deletion moves its
+     * heartbeat forward under a row lock, so with several instances only one of them resumes it.
+     */
+    @Scheduled(initialDelayString = "${app.data-lifecycle.resume-initial-delay-ms:30000}",
+            fixedDelayString = "${app.data-lifecycle.resume-interval-ms:600000}")
+    public void resumeStalledDeletions() {
+        try {
+            List<UUID> stalled = transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                    "UPDATE users SET deletion_heartbeat_at = now() WHERE id IN (" +
+                            "SELECT id FROM users WHERE deletion_requested_at IS NOT NULL " +
+                            "AND (deletion_heartbeat_at IS NULL OR deletion_heartbeat_at < now() - make_interval(secs => :stalledAfter)) " +
+                            "FOR UPDATE SKIP LOCKED) RETURNING id",
+                    new MapSqlParameterSource("stalledAfter", stalledAfterSeconds), UUID.class));
+            if (stalled == null) return;
+            for (UUID userId : stalled) {
+                boolean running = jobs.values().stream()
+                        .anyMatch(job -> job.userId.equals(userId) && job.finishedAt == null);
+                if (running) continue;
+                log.info("Resuming the deletion of user {}", userId);
+                startJob(userId);
+            }
+        } catch (Exception e) {
+            log.error("Resuming stalled deletions failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private UUID startJob(UUID userId) {
+        DeletionJob job = new DeletionJob(UUID.randomUUID(), userId);
+        jobs.put(job.jobId, job);
+        dataLifecycleExecutor.execute(() -> deleteAccount(job));
+        log.info("Started deletion job {} for user {}", job.jobId, userId);
+        return job.jobId;
+    }
+
+    private void deleteAccount(DeletionJob job) {
+        try {
+            step(job, "_invoices");
+            deleteInvoices(job);
+
+            for (String table : USER_TABLES) {
+                step(job, table);
+                job.add(table, deleteByUser(table, job.userId));
+            }
+
+            // The user row last: roles and settings cascade through JPA
+            step(job, "users");
+            transactionTemplate.executeWithoutResult(status -> userRepository.deleteById(job.userId));
+            job.add("users", 1);
+
+            job.finish(null);
+            log.info("Deletion job {} for user {} completed", job.jobId, job.userId);
+        } catch (Exception e) {
+            job.finish(e.getMessage());
+            log.error("Deletion job {} for user {} failed at {}: {}", job.jobId, job.userId, job.currentStep, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the user's invoices chunk by chunk with their taxes, items, receipts, senders and recipients
+     */
+    private void deleteInvoices(DeletionJob job) {
+        MapSqlParameterSource userParams = new MapSqlParameterSource("userId", job.userId).addValue("batch", batchSize);
+        while (true) {
+            List<UUID> invoiceIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM _invoices WHERE user_id = :userId LIMIT :batch", userParams, UUID.class);
+            if (invoiceIds.isEmpty()) return;
+
+            List<String> releasedUrls = transactionTemplate.execute(status -> deleteInvoiceChunk(invoiceIds, job));
+            job.add("_invoices", invoiceIds.size());
+            heartbeat(job);
+
+            // Cloudinary calls stay outside the chunk transaction
+            if (releasedUrls != null) releasedUrls.forEach(this::releaseAsset);
+        }
+    }
+
+    private List<String> deleteInvoiceChunk(List<UUID> invoiceIds, DeletionJob job) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", invoiceIds);
+        job.add("_invoice_taxes", jdbcTemplate.update("DELETE FROM _invoice_taxes WHERE invoice_id IN (:ids)", ids));
+        job.add("_invoice_items", jdbcTemplate.update("DELETE FROM _invoice_items WHERE invoice_id IN (:ids)", ids));
+        job.add("_receipts", jdbcTemplate.update("DELETE FROM _receipts WHERE invoice_id IN (:ids)", ids));
+
+        // Invoices and senders reference each other, so detach senders before deleting invoices
+        Set<Long> senderIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM _invoice_senders WHERE invoice_id IN (:ids)", ids, Long.class));
+        jdbcTemplate.update("UPDATE _invoice_senders SET invoice_id = NULL WHERE invoice_id IN (:ids)", ids);
+
+        Set<Long> recipientIds = new HashSet<>();
+        List<String> assetUrls = new ArrayList<>();
+        List<Map<String, Object>> deleted = jdbcTemplate.queryForList(
+                "DELETE FROM _invoices WHERE id IN (:ids) RETURNING sender_id, recipient_id, logo_url, signature_url", ids);
+        for (Map<String, Object> row : deleted) {
+            if (row.get("sender_id") != null) senderIds.add(((Number) row.get("sender_id")).longValue());
+            if (row.get("recipient_id") != null) recipientIds.add(((Number) row.get("recipient_id")).longValue());
+            if (row.get("logo_url") != null) assetUrls.add((String) row.get("logo_url"));
+            if (row.get("signature_url") != null) assetUrls.add((String) row.get("signature_url"));
+        }
+
+        if (!senderIds.isEmpty()) {
+            job.add("_invoice_senders", jdbcTemplate.update(
+                    "DELETE FROM _invoice_senders WHERE id IN (:ids)", new MapSqlParameterSource("ids", senderIds)));
+        }
+        if (!recipientIds.isEmpty()) {
+            job.add("_invoice_recipients", jdbcTemplate.update(
+                    "DELETE FROM _invoice_recipients WHERE id IN (:ids)", new MapSqlParameterSource("ids", recipientIds)));
+        }
+        return assetUrls;
+    }
+
+    private void step(DeletionJob job, String table) {
+        job.step(table);
+        heartbeat(job);
+    }
+
+    private void heartbeat(DeletionJob job) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE users SET deletion_heartbeat_at = now() WHERE id = :userId",
+                new MapSqlParameterSource("userId", job.userId)));
+    }
+
+    private long deleteByUser(String table, UUID userId) {
+        String sql = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " WHERE user_id = :userId LIMIT :batch)";
+        return deleteInChunks(sql, new MapSqlParameterSource("userId", userId).addValue("batch", batchSize));
+    }
+
+    private long deleteAll(String table) {
+        String sql = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " LIMIT :batch)";
+        return deleteInChunks(sql, new MapSqlParameterSource("batch", batchSize));
+    }
+
+    private long deleteInChunks(String sql, MapSqlParameterSource params) {
+        long total = 0;
+        int deleted;
+        do {
+            Integer count = transactionTemplate.execute(status -> jdbcTemplate.update(sql, params));
+            deleted = count != null ? count : 0;
+            total += deleted;
+        } while (deleted > 0);
+        return total;
+    }
+
+    private void releaseAsset(String url) {
+        try {
+            assetRegistryService.release(url);
+        } catch (Exception e) {
+            log.warn("Failed to release media asset {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static final class DeletionJob {
+        private final UUID jobId;
+        private final UUID userId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<String, AtomicLong> deletedRows = new ConcurrentHashMap<>();
+        private volatile String currentStep;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private DeletionJob(UUID jobId, UUID userId) {
+            this.jobId = jobId;
+            this.userId = userId;
+        }
+
+        private void step(String step) {
+            currentStep = step;
+        }
+
+        private void add(String table, long rows) {
+            deletedRows.computeIfAbsent(table, key -> new AtomicLong()).addAndGet(rows);
+        }
+
+        private void finish(String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private DataDeletionProgressResponse toResponse() {
+            String status = finishedAt == null ? "RUNNING" : error == null ? "COMPLETED" : "FAILED";
+            Map<String, Long> rows = new LinkedHashMap<>();
+            deletedRows.forEach((table, count) -> rows.put(table, count.get()));
+            return new DataDeletionProgressResponse(jobId, userId, status, currentStep, rows,
+                    startedAt, finishedAt, error);
+        }
+    }
+}
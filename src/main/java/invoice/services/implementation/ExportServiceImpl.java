@@ -0,0 +1,160 @@
+package invoice.services.implementation;
+
+import invoice.data.constants.ExportDataset;
+import invoice.exception.BusinessException;
+import invoice.exception.ExportCapacityException;
+import invoice.security.data.models.CurrentUser;
+import invoice.security.services.CurrentUserHolder;
+import invoice.services.ExportService;
+import invoice.utiils.TableWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exports read from a forward-only cursor: the transaction turns off auto-commit, so the driver fetches
+ * {@code app.export.fetch-size} rows at a time instead of materialising the whole result, and each row is
+ * handed to the writer as soon as it arrives. Only a few exports run at once per instance, since each one
+ * holds a connection for as long as the client takes to download. The transaction is read-only and named
+ * after this service, so with read replicas configured exports are served by a replica.
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+    // One row per line item; an invoice without items still gets a row. Taxes are summarised per invoice
+    private static final String INVOICES = """
+            SELECT i.invoice_number AS "Invoice number", i.title AS "Title", i.status AS "Status",
+                   i.creation_date AS "Issued", i.due_date AS "Due", i.payment_terms AS "Payment terms",
+                   r.full_name AS "Client", r.business_name AS "Client business", r.email AS "Client email",
+                   i.currency AS "Currency", i.subtotal AS "Subtotal", i.discount AS "Discount",
+                   i.total_tax_amount AS "Tax", i.total_due AS "Total due", t.taxes AS "Taxes",
+                   it.item_name AS "Item", it.category AS "Category", it.description AS "Item description",
+                   it.quantity AS "Quantity", it.rate AS "Rate", it.amount AS "Amount"
+            FROM _invoices i
+            LEFT JOIN _invoice_recipients r ON r.id = i.recipient_id
+            LEFT JOIN LATERAL (
+                SELECT string_agg(tx.name || ' ' || ivt.applied_rate || '%: ' || ivt.tax_amount, '; ' ORDER BY tx.name) AS taxes
+                FROM _invoice_taxes ivt JOIN _taxes tx ON tx.id = ivt.tax_id
+                WHERE ivt.invoice_id = i.id AND ivt.invoice_creation_date = i.creation_date) t ON true
+            LEFT JOIN _invoice_items it ON it.invoice_id = i.id AND it.invoice_creation_date = i.creation_date
+            WHERE i.user_id = ? AND i.creation_date >= ? AND i.creation_date < ?
+            ORDER BY i.creation_date, i.id, it.id""";
+    private static final String RECEIPTS = """
+            SELECT rc.receipt_number AS "Receipt number", i.invoice_number AS "Invoice number",
+                   rc.payment_date AS "Paid on", rc.payment_method AS "Payment method", i.currency AS "Currency",
+                   rc.total_paid AS "Total paid", rc.created_at AS "Issued"
+            FROM _receipts rc JOIN _invoices i ON i.id = rc.invoice_id
+            WHERE i.user_id = ? AND rc.payment_date >= ? AND rc.payment_date < ?
+            ORDER BY rc.payment_date, rc.receipt_number""";
+    // Payment transactions are not linked to a user, only to the email that paid
+    private static final String TRANSACTIONS = """
+            SELECT p.reference AS "Reference", p.created_at AS "Created", p.updated_at AS "Updated",
+                   p.status AS "Status", p.currency AS "Currency", p.amount AS "Amount",
+                   p.payer_name AS "Payer", p.email AS "Email"
+            FROM payment_transactions p
+            WHERE p.email = ? AND p.created_at >= ? AND p.created_at < ?
+            ORDER BY p.created_at, p.id""";
+    private static final Map<ExportDataset, String> QUERIES = Map.of(
+            ExportDataset.INVOICES, INVOICES,
+            ExportDataset.RECEIPTS, RECEIPTS,
+            ExportDataset.TRANSACTIONS, TRANSACTIONS);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CurrentUserHolder currentUserHolder;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore slots;
+    private final int fetchSize;
+    private final int maxRangeDays;
+
+    public ExportServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             CurrentUserHolder currentUserHolder, MeterRegistry meterRegistry,
+                             @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+                             @Value("${app.export.fetch-size:1000}") int fetchSize,
+                             @Value("${app.export.max-range-days:3660}") int maxRangeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName(ExportServiceImpl.class.getName() + ".export");
+        this.currentUserHolder = currentUserHolder;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(maxConcurrent);
+        this.fetchSize = fetchSize;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    @Override
+    public long export(ExportDataset dataset, LocalDate from, LocalDate to, TableWriter writer) throws IOException {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new BusinessException("Provide a date range with 'from' on or before 'to'");
+        }
+        if (from.plusDays(maxRangeDays).isBefore(to)) {
+            throw new BusinessException("Exports cover at most " + maxRangeDays + " days at a time");
+        }
+        CurrentUser currentUser = currentUserHolder.require();
+        if (!slots.tryAcquire()) {
+            throw new ExportCapacityException("Too many exports are running, please try again in a minute");
+        }
+        long started = System.nanoTime();
+        try {
+            Object owner = dataset == ExportDataset.TRANSACTIONS ? currentUser.getEmail() : currentUser.getId();
+            Long rows = readOnlyTransaction.execute(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(QUERIES.get(dataset),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setObject(1, owner);
+                statement.setTimestamp(2, Timestamp.valueOf(from.atStartOfDay()));
+                statement.setTimestamp(3, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                return statement;
+            }, (ResultSetExtractor<Long>) resultSet -> writeRows(resultSet, writer)));
+            long written = rows == null ? 0 : rows;
+            meterRegistry.counter("export.rows", "dataset", dataset.name().toLowerCase()).increment(written);
+            log.info("Exported {} {} rows for user {} in {} ms", written, dataset, currentUser.getId(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return written;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            slots.release();
+        }
+    }
+
+    private static long writeRows(ResultSet resultSet, TableWriter writer) throws SQLException {
+        try {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            Object[] cells = new Object[metaData.getColumnCount()];
+            for (int i = 0; i < cells.length; i++) cells[i] = metaData.getColumnLabel(i + 1);
+            writer.writeRow(cells);
+            long rows = 0;
+            while (resultSet.next()) {
+                for (int i = 0; i < cells.length; i++) {
+                    Object value = resultSet.getObject(i + 1);
+                    cells[i] = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+                }
+                writer.writeRow(cells);
+                rows++;
+            }
+            writer.finish();
+            return rows;
+        } catch (IOException e) {
+            // Usually the client going away; surfaced to the caller as it was thrown
+            throw new UncheckedIOException(e);
+        }
+    }
+}
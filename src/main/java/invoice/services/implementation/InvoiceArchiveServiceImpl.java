@@ -0,0 +1,202 @@
+package invoice.services.implementation;
+
+import invoice.services.InvoiceArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Upkeep of the range-partitioned tables.
+ * Partitions are created ahead of time so new rows never land in the default partition.
+ * Yearly invoice partitions (with their items and taxes) older than the configured age are archived
+ * once every invoice in them is paid: they are optionally moved to a cold tablespace (e.g. on a compressed
+ * volume) and frozen, so vacuum skips them from then on. They stay attached, so archived invoices are
+ * served by the same queries as any other.
+ * Partition DDL runs under a transaction-scoped advisory lock, so only one instance does it at a time.
+ * Each table of a year is moved in its own short transaction with a lock timeout, so the exclusive lock a
+ * move takes is held for one table at a time, and a move that cannot get its lock gives up and is retried
+ * on the next run instead of queueing every reader of the table behind it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceArchiveServiceImpl implements InvoiceArchiveService {
+    private static final List<String> INVOICE_TABLES = List.of("_invoices", "_invoice_items", "_invoice_taxes");
+    // The invoice partition goes last: a year only counts as archived once it is recorded,
+    // so a run interrupted after moving items or taxes resumes with the tables still left
+    private static final List<String> ARCHIVE_ORDER = List.of("_invoice_items", "_invoice_taxes", "_invoices");
+    private static final String NOTIFICATIONS = "_notifications";
+    private static final Map<String, String> PARTITION_KEYS = Map.of(
+            "_invoices", "creation_date",
+            "_invoice_items", "invoice_creation_date",
+            "_invoice_taxes", "invoice_creation_date",
+            NOTIFICATIONS, "created_at");
+    private static final int NOTIFICATION_MONTHS_AHEAD = 2;
+    private static final long PARTITION_LOCK_KEY = 0x5061727469L;
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern YEARLY_PARTITION = Pattern.compile("_invoices_(\\d{4})");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${app.archive.paid-invoice-age-years:3}")
+    private int paidInvoiceAgeYears;
+
+    @Value("${app.archive.cold-tablespace:}")
+    private String coldTablespace;
+
+    @Value("${app.archive.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    @Scheduled(initialDelayString = "${app.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${app.archive.interval-ms:86400000}")
+    public void maintainPartitions() {
+        try {
+            ensureUpcomingPartitions();
+            if (archiveEnabled) {
+                List<String> archived = archiveOldPartitions();
+                if (!archived.isEmpty()) log.info("Archived partitions {}", archived);
+            }
+        } catch (Exception e) {
+            log.error("Partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void ensureUpcomingPartitions() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tryLock()) return;
+            int thisYear = Year.now().getValue();
+            for (int year = thisYear; year <= thisYear + 1; year++) {
+                for (String table : INVOICE_TABLES) {
+                    createPartition(table, table + "_" + year, LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+                }
+            }
+            YearMonth thisMonth = YearMonth.now();
+            for (int i = 0; i <= NOTIFICATION_MONTHS_AHEAD; i++) {
+                YearMonth month = thisMonth.plusMonths(i);
+                createPartition(NOTIFICATIONS, NOTIFICATIONS + "_" + month.format(MONTH_SUFFIX),
+                        month.atDay(1), month.plusMonths(1).atDay(1));
+            }
+        });
+    }
+
+    @Override
+    public List<String> archiveOldPartitions() {
+        if (!coldTablespace.isBlank() && !IDENTIFIER.matcher(coldTablespace).matches()) {
+            throw new IllegalStateException("Invalid cold tablespace name: " + coldTablespace);
+        }
+        int lastArchivableYear = Year.now().getValue() - paidInvoiceAgeYears;
+        List<String> archived = new ArrayList<>();
+        for (int year : unarchivedYears()) {
+            if (year > lastArchivableYear) continue;
+            List<String> tables = archiveYear(year);
+            if (tables.isEmpty()) continue;
+            // Freezing needs its own transaction; afterwards vacuum skips these pages entirely
+            tables.forEach(table -> jdbcTemplate.execute("VACUUM (FREEZE, ANALYZE) " + table));
+            archived.addAll(tables);
+        }
+        return archived;
+    }
+
+    private List<Integer> unarchivedYears() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = '_invoices'::regclass " +
+                        "AND c.relname NOT IN (SELECT table_name FROM _archived_partitions) ORDER BY c.relname",
+                String.class);
+        List<Integer> years = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = YEARLY_PARTITION.matcher(partition);
+            if (matcher.matches()) years.add(Integer.parseInt(matcher.group(1)));
+        }
+        return years;
+    }
+
+    private List<String> archiveYear(int year) {
+        String invoicePartition = "_invoices_" + year;
+        Long notPaid = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + invoicePartition + " WHERE status IS DISTINCT FROM 'PAID'", Long.class);
+        if (notPaid != null && notPaid > 0) {
+            log.info("Keeping {} hot: {} invoices are not paid yet", invoicePartition, notPaid);
+            return List.of();
+        }
+
+        List<String> tables = new ArrayList<>();
+        for (String table : ARCHIVE_ORDER) {
+            String partition = table + "_" + year;
+            try {
+                Boolean moved = transactionTemplate.execute(status -> archivePartition(partition));
+                // Another instance is at it; leave the rest of the year to it rather than skip ahead
+                if (moved == null) break;
+                if (moved) tables.add(partition);
+            } catch (DataAccessException e) {
+                log.warn("Could not archive {} this run, will retry: {}", partition, e.getMessage());
+                break;
+            }
+        }
+        return tables;
+    }
+
+    // One table with its indexes per transaction; false if it was already archived, null if another instance holds the lock
+    private Boolean archivePartition(String partition) {
+        if (!tryLock()) return null;
+        Integer alreadyArchived = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM _archived_partitions WHERE table_name = ?", Integer.class, partition);
+        if (alreadyArchived != null && alreadyArchived > 0) return false;
+
+        if (!coldTablespace.isBlank()) {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + Math.max(lockTimeoutMs, 1));
+            jdbcTemplate.execute("ALTER TABLE " + partition + " SET TABLESPACE " + coldTablespace);
+            for (String index : jdbcTemplate.queryForList(
+                    "SELECT indexrelid::regclass::text FROM pg_index WHERE indrelid = ?::regclass", String.class, partition)) {
+                jdbcTemplate.execute("ALTER INDEX " + index + " SET TABLESPACE " + coldTablespace);
+            }
+        }
+        jdbcTemplate.update("INSERT INTO _archived_partitions (table_name, tablespace, archived_at) VALUES (?, ?, now())",
+                partition, coldTablespace.isBlank() ? null : coldTablespace);
+        return true;
+    }
+
+    private void createPartition(String table, String partition, LocalDate from, LocalDate to) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+        if (Boolean.TRUE.equals(exists)) return;
+
+        // Attaching a range the default partition already holds rows for would fail
+        String key = PARTITION_KEYS.get(table);
+        Boolean defaultHasRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table + "_default WHERE " + key + " >= ?::date AND " + key + " < ?::date)",
+                Boolean.class, from.toString(), to.toString());
+        if (Boolean.TRUE.equals(defaultHasRows)) {
+            log.warn("Not creating {}: {}_default already holds rows in [{}, {})", partition, table, from, to);
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created partition {}", partition);
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, PARTITION_LOCK_KEY));
+    }
+}
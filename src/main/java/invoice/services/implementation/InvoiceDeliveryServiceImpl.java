@@ -0,0 +1,430 @@
+package invoice.services.implementation;
+
+import invoice.data.constants.DeliveryChannel;
+import invoice.data.models.Invoice;
+import invoice.data.repositories.InvoiceRepository;
+import invoice.dtos.request.BulkDeliveryRequest;
+import invoice.dtos.response.DeliveryBatchResponse;
+import invoice.dtos.response.DeliveryMessageResponse;
+import invoice.exception.BusinessException;
+import invoice.exception.ResourceNotFoundException;
+import invoice.services.InvoiceDeliveryService;
+import invoice.services.TelegramService;
+import invoice.services.WhatsappService;
+import invoice.utiils.TokenBucketRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers invoices in bulk over WhatsApp and Telegram without holding the request thread.
+ * Each channel has its own lane: a bounded queue drained by a fixed number of workers, each taking
+ * a token from the channel's rate limiter before calling the provider. Batch and per-message status
+ * are stored in {@code _delivery_batches} and {@code _delivery_messages}, so any instance can report on a
+ * batch, and are kept for a day after the batch finishes. Messages still queued when the service shuts
+ * down are marked failed; those of an instance that stopped without shutting down are failed by a sweep.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceDeliveryServiceImpl implements InvoiceDeliveryService {
+    private static final long FINISHED_BATCH_RETENTION_HOURS = 24;
+    private static final long TELEGRAM_SEND_TIMEOUT_SECONDS = 120;
+    private static final String INVOICE_URL = "https://originalinvoice.com/customer/invoice/";
+    private static final String PHONE_PATTERN = "^\\+?[1-9]\\d{6,14}$";
+    private static final String SHUTDOWN_ERROR = "Delivery stopped by a server restart, please resend";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final InvoiceRepository invoiceRepository;
+    private final WhatsappService whatsappService;
+    private final TelegramService telegramService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DeliveryChannel, ChannelLane> lanes = new EnumMap<>(DeliveryChannel.class);
+
+    @Value("${app.delivery.max-batch-size:5000}")
+    private int maxBatchSize;
+    @Value("${app.delivery.queue-capacity:20000}")
+    private int queueCapacity;
+    @Value("${app.delivery.whatsapp.messages-per-second:10}")
+    private int whatsappMessagesPerSecond;
+    @Value("${app.delivery.whatsapp.concurrency:4}")
+    private int whatsappConcurrency;
+    // A delivery is up to two bot calls (text and document): 7 a second stays well below the bot-wide
+    // pace of the TelegramSendQueue, leaving room for interactive replies
+    @Value("${app.delivery.telegram.messages-per-second:7}")
+    private int telegramMessagesPerSecond;
+    @Value("${app.delivery.telegram.concurrency:2}")
+    private int telegramConcurrency;
+    // Longer than a full queue takes to drain, so only messages of a stopped instance are this old
+    @Value("${app.delivery.abandoned-after-minutes:180}")
+    private long abandonedAfterMinutes;
+
+    @PostConstruct
+    void init() {
+        lanes.put(DeliveryChannel.WHATSAPP, new ChannelLane(DeliveryChannel.WHATSAPP, whatsappConcurrency, whatsappMessagesPerSecond, queueCapacity));
+        lanes.put(DeliveryChannel.TELEGRAM, new ChannelLane(DeliveryChannel.TELEGRAM, telegramConcurrency, telegramMessagesPerSecond, queueCapacity));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.values().forEach(ChannelLane::shutdown);
+    }
+
+    @Override
+    public DeliveryBatchResponse startBatch(String email, BulkDeliveryRequest request) {
+        Set<UUID> invoiceIds = request.getInvoiceIds() == null ? Set.of() : new LinkedHashSet<>(request.getInvoiceIds());
+        Set<DeliveryChannel> channels = request.getChannels() == null || request.getChannels().isEmpty()
+                ? EnumSet.noneOf(DeliveryChannel.class) : EnumSet.copyOf(request.getChannels());
+        if (invoiceIds.isEmpty()) throw new BusinessException("No invoices selected for delivery");
+        if (channels.isEmpty()) throw new BusinessException("No delivery channel selected");
+        if (invoiceIds.size() * channels.size() > maxBatchSize) {
+            throw new BusinessException("A delivery batch is limited to " + maxBatchSize + " messages");
+        }
+
+        Map<UUID, Invoice> invoices = invoiceRepository.findWithRecipientByIdsAndUserEmail(invoiceIds, email).stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+        if (invoices.size() != invoiceIds.size()) throw new ResourceNotFoundException("Some invoices were not found");
+
+        DeliveryBatch batch = new DeliveryBatch(UUID.randomUUID(), email);
+        Map<DeliveryMessage, Runnable> deliveries = new LinkedHashMap<>();
+        for (UUID invoiceId : invoiceIds) {
+            Invoice invoice = invoices.get(invoiceId);
+            String documentUrl = request.getDocumentUrls() == null ? null : request.getDocumentUrls().get(invoiceId);
+            String text = messageText(request.getMessage(), invoice);
+            for (DeliveryChannel channel : channels) {
+                DeliveryMessage message = batch.add(invoice, channel, recipient(channel, invoice, request));
+                if (message.recipient == null) {
+                    message.skip(channel == DeliveryChannel.TELEGRAM
+                            ? "No Telegram username given for this invoice" : "Recipient has no valid phone number");
+                    continue;
+                }
+                deliveries.put(message, () -> deliver(message, documentUrl, text));
+            }
+        }
+        // Stored before anything is queued, so every status update finds its row
+        transactionTemplate.executeWithoutResult(status -> insert(batch));
+        batch.stored = true;
+
+        deliveries.forEach((message, delivery) -> {
+            try {
+                lanes.get(message.channel).submit(message, delivery);
+            } catch (RejectedExecutionException e) {
+                message.fail("Delivery queue is full, please retry later");
+            }
+        });
+        batch.messageFinished();
+        log.info("Queued delivery batch {} with {} messages for {}", batch.batchId, batch.messages.size(), email);
+        return batch.toResponse();
+    }
+
+    @Override
+    public DeliveryBatchResponse getBatch(String email, UUID batchId, String status) {
+        MapSqlParameterSource params = new MapSqlParameterSource("batchId", batchId).addValue("email", email);
+        List<DeliveryBatchResponse> found = jdbcTemplate.query(
+                "SELECT total, created_at, finished_at FROM _delivery_batches WHERE id = :batchId AND email = :email",
+                params, (rs, rowNum) -> {
+                    LocalDateTime finishedAt = rs.getObject("finished_at", LocalDateTime.class);
+                    return new DeliveryBatchResponse(batchId, finishedAt == null ? "RUNNING" : "COMPLETED",
+                            rs.getInt("total"), null, rs.getObject("created_at", LocalDateTime.class), finishedAt, null);
+                });
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("Delivery batch not found; batches are kept for "
+                    + FINISHED_BATCH_RETENTION_HOURS + " hours after they finish");
+        }
+        DeliveryBatchResponse batch = found.get(0);
+
+        Map<String, Long> counts = emptyCounts();
+        jdbcTemplate.query("SELECT status, count(*) AS messages FROM _delivery_messages WHERE batch_id = :batchId GROUP BY status",
+                params, rs -> {
+                    counts.put(rs.getString("status"), rs.getLong("messages"));
+                });
+        batch.setCountsByStatus(counts);
+
+        String sql = "SELECT invoice_id, invoice_number, channel, recipient, status, provider_message_id, error, updated_at " +
+                "FROM _delivery_messages WHERE batch_id = :batchId" +
+                (status == null ? "" : " AND status = :status") + " ORDER BY position";
+        params.addValue("status", status == null ? null : status.toUpperCase(Locale.ROOT));
+        batch.setMessages(jdbcTemplate.query(sql, params, (rs, rowNum) -> new DeliveryMessageResponse(
+                rs.getObject("invoice_id", UUID.class), rs.getString("invoice_number"),
+                DeliveryChannel.valueOf(rs.getString("channel")), rs.getString("recipient"), rs.getString("status"),
+                rs.getString("provider_message_id"), rs.getString("error"), rs.getObject("updated_at", LocalDateTime.class))));
+        return batch;
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void evictFinishedBatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(FINISHED_BATCH_RETENTION_HOURS);
+        int evicted = jdbcTemplate.update("DELETE FROM _delivery_batches WHERE finished_at < :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff));
+        if (evicted > 0) log.info("Evicted {} finished delivery batches", evicted);
+    }
+
+    /**
+     * Fails the messages an instance left queued or sending when it stopped without shutting down,
+     * and finishes their batches. Safe to run on every instance.
+     */
+    @Scheduled(fixedDelay = 900000)
+    public void failAbandonedMessages() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource("cutoff", now.minusMinutes(abandonedAfterMinutes))
+                .addValue("now", now)
+                .addValue("error", SHUTDOWN_ERROR);
+        int failed = jdbcTemplate.update("UPDATE _delivery_messages SET status = 'FAILED', error = :error, updated_at = :now " +
+                "WHERE status IN ('QUEUED', 'SENDING') AND updated_at < :cutoff", params);
+        jdbcTemplate.update("UPDATE _delivery_batches b SET finished_at = :now " +
+                "WHERE finished_at IS NULL AND created_at < :cutoff AND NOT EXISTS (" +
+                "SELECT 1 FROM _delivery_messages m WHERE m.batch_id = b.id AND m.status IN ('QUEUED', 'SENDING'))", params);
+        if (failed > 0) log.warn("Failed {} delivery messages abandoned by a stopped instance", failed);
+    }
+
+    private void insert(DeliveryBatch batch) {
+        jdbcTemplate.update("INSERT INTO _delivery_batches (id, email, total, created_at) VALUES (:id, :email, :total, :createdAt)",
+                new MapSqlParameterSource("id", batch.batchId)
+                        .addValue("email", batch.email)
+                        .addValue("total", batch.messages.size())
+                        .addValue("createdAt", batch.createdAt));
+        MapSqlParameterSource[] rows = batch.messages.stream()
+                .map(message -> new MapSqlParameterSource("id", message.id)
+                        .addValue("batchId", batch.batchId)
+                        .addValue("position", message.position)
+                        .addValue("invoiceId", message.invoiceId)
+                        .addValue("invoiceNumber", message.invoiceNumber)
+                        .addValue("channel", message.channel.name())
+                        .addValue("recipient", message.recipient)
+                        .addValue("status", message.status.name())
+                        .addValue("error", message.error)
+                        .addValue("updatedAt", message.updatedAt))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO _delivery_messages " +
+                "(id, batch_id, position, invoice_id, invoice_number, channel, recipient, status, error, updated_at) " +
+                "VALUES (:id, :batchId, :position, :invoiceId, :invoiceNumber, :channel, :recipient, :status, :error, :updatedAt)", rows);
+    }
+
+    // A failed write only leaves the stored status behind; the delivery itself goes on
+    private void store(DeliveryMessage message) {
+        try {
+            jdbcTemplate.update("UPDATE _delivery_messages SET status = :status, provider_message_id = :providerMessageId, " +
+                            "error = :error, updated_at = :updatedAt WHERE id = :id",
+                    new MapSqlParameterSource("id", message.id)
+                            .addValue("status", message.status.name())
+                            .addValue("providerMessageId", message.providerMessageId)
+                            .addValue("error", message.error)
+                            .addValue("updatedAt", message.updatedAt));
+        } catch (DataAccessException e) {
+            log.warn("Failed to store the status of delivery message {}: {}", message.id, e.getMessage());
+        }
+    }
+
+    private void storeFinished(DeliveryBatch batch) {
+        try {
+            jdbcTemplate.update("UPDATE _delivery_batches SET finished_at = :finishedAt WHERE id = :id",
+                    new MapSqlParameterSource("id", batch.batchId).addValue("finishedAt", batch.finishedAt));
+        } catch (DataAccessException e) {
+            log.warn("Failed to store the completion of delivery batch {}: {}", batch.batchId, e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> emptyCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (DeliveryStatus status : DeliveryStatus.values()) counts.put(status.name(), 0L);
+        return counts;
+    }
+
+    private void deliver(DeliveryMessage message, String documentUrl, String text) {
+        message.sending();
+        try {
+            switch (message.channel) {
+                case WHATSAPP -> message.sent(whatsappService.sendMessage(message.recipient, documentUrl, text));
+                case TELEGRAM -> {
+                    telegramService.sendMessageAndFileAsync(message.recipient, documentUrl, text)
+                            .get(TELEGRAM_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    message.sent(null);
+                }
+            }
+        } catch (ExecutionException e) {
+            message.fail(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            message.fail("Delivery was interrupted");
+        } catch (TimeoutException e) {
+            message.fail("Timed out waiting for Telegram");
+        } catch (Exception e) {
+            message.fail(e.getMessage());
+        }
+    }
+
+    private static String recipient(DeliveryChannel channel, Invoice invoice, BulkDeliveryRequest request) {
+        if (channel == DeliveryChannel.TELEGRAM) {
+            String username = request.getTelegramUsernames() == null ? null : request.getTelegramUsernames().get(invoice.getId());
+            return username == null || username.isBlank() ? null : username.trim();
+        }
+        String phone = invoice.getRecipient() == null ? null : invoice.getRecipient().getPhone();
+        if (phone == null) return null;
+        phone = phone.replaceAll("[\\s()-]", "");
+        return phone.matches(PHONE_PATTERN) ? phone : null;
+    }
+
+    private static String messageText(String message, Invoice invoice) {
+        String link = "Invoice " + invoice.getInvoiceNumber() + ": " + INVOICE_URL + invoice.getId();
+        return message == null || message.isBlank() ? link : message.trim() + "\n" + link;
+    }
+
+    private enum DeliveryStatus { QUEUED, SENDING, SENT, FAILED, SKIPPED }
+
+    /**
+     * One provider's workers and rate limit
+     */
+    private static final class ChannelLane {
+        private final String key;
+        private final ThreadPoolExecutor executor;
+        private final TokenBucketRateLimiter rateLimiter;
+
+        private ChannelLane(DeliveryChannel channel, int concurrency, int messagesPerSecond, int queueCapacity) {
+            this.key = channel.name();
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    new CustomizableThreadFactory("delivery-" + key.toLowerCase(Locale.ROOT) + "-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+            // A one-second burst, then messagesPerSecond
+            this.rateLimiter = new TokenBucketRateLimiter(messagesPerSecond, Math.max(1000L / messagesPerSecond, 1));
+        }
+
+        private void submit(DeliveryMessage message, Runnable delivery) {
+            executor.execute(new QueuedDelivery(message, () -> {
+                try {
+                    rateLimiter.acquire(key);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    message.fail(SHUTDOWN_ERROR);
+                    return;
+                }
+                delivery.run();
+            }));
+        }
+
+        // Deliveries that never started are failed rather than left queued
+        private void shutdown() {
+            for (Runnable dropped : executor.shutdownNow()) {
+                if (dropped instanceof QueuedDelivery queued) queued.message().fail(SHUTDOWN_ERROR);
+            }
+        }
+    }
+
+    private record QueuedDelivery(DeliveryMessage message, Runnable delivery) implements Runnable {
+        @Override
+        public void run() {
+            delivery.run();
+        }
+    }
+
+    private final class DeliveryBatch {
+        private final UUID batchId;
+        private final String email;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<DeliveryMessage> messages = new ArrayList<>();
+        // Starts at one for the batch being assembled, so it cannot finish before every message is queued
+        private final AtomicInteger pending = new AtomicInteger(1);
+        // Status changes are written once the rows exist; until then they only go into the inserted rows
+        private volatile boolean stored;
+        private volatile LocalDateTime finishedAt;
+
+        private DeliveryBatch(UUID batchId, String email) {
+            this.batchId = batchId;
+            this.email = email;
+        }
+
+        private DeliveryMessage add(Invoice invoice, DeliveryChannel channel, String recipient) {
+            DeliveryMessage message = new DeliveryMessage(this, messages.size(), invoice.getId(), invoice.getInvoiceNumber(),
+                    channel, recipient);
+            messages.add(message);
+            pending.incrementAndGet();
+            return message;
+        }
+
+        private void messageFinished() {
+            if (pending.decrementAndGet() == 0) {
+                finishedAt = LocalDateTime.now();
+                storeFinished(this);
+            }
+        }
+
+        private DeliveryBatchResponse toResponse() {
+            Map<String, Long> counts = emptyCounts();
+            messages.forEach(message -> counts.merge(message.status.name(), 1L, Long::sum));
+            return new DeliveryBatchResponse(batchId, finishedAt == null ? "RUNNING" : "COMPLETED", messages.size(),
+                    counts, createdAt, finishedAt, null);
+        }
+    }
+
+    private final class DeliveryMessage {
+        private final UUID id = UUID.randomUUID();
+        private final DeliveryBatch batch;
+        private final int position;
+        private final UUID invoiceId;
+        private final String invoiceNumber;
+        private final DeliveryChannel channel;
+        private final String recipient;
+        private volatile DeliveryStatus status = DeliveryStatus.QUEUED;
+        private volatile String providerMessageId;
+        private volatile String error;
+        private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+        private DeliveryMessage(DeliveryBatch batch, int position, UUID invoiceId, String invoiceNumber,
+                                DeliveryChannel channel, String recipient) {
+            this.batch = batch;
+            this.position = position;
+            this.invoiceId = invoiceId;
+            this.invoiceNumber = invoiceNumber;
+            this.channel = channel;
+            this.recipient = recipient;
+        }
+
+        private void sending() {
+            update(DeliveryStatus.SENDING);
+        }
+
+        private void sent(String providerMessageId) {
+            this.providerMessageId = providerMessageId;
+            finish(DeliveryStatus.SENT);
+        }
+
+        private void fail(String error) {
+            this.error = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            finish(DeliveryStatus.FAILED);
+        }
+
+        private void skip(String reason) {
+            this.error = reason;
+            finish(DeliveryStatus.SKIPPED);
+        }
+
+        private void finish(DeliveryStatus status) {
+            update(status);
+            batch.messageFinished();
+        }
+
+        private void update(DeliveryStatus status) {
+            this.status = status;
+            this.updatedAt = LocalDateTime.now();
+            if (batch.stored) store(this);
+        }
+    }
+}
@@ -2,16 +2,22 @@ package invoice.services.implementation;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import invoice.data.models.*;
 import invoice.data.projections.InvoiceStatsProjection;
+import invoice.data.projections.InvoiceStatusProjection;
+import invoice.data.projections.InvoiceVersionProjection;
 import invoice.data.projections.PaymentTrendProjection;
 import invoice.data.projections.YearlyTrendProjection;
 import invoice.data.repositories.*;
@@ -28,10 +34,14 @@ import invoice.exception.ResourceNotFoundException;
 import invoice.data.constants.Item_Category;
 import invoice.data.constants.Invoice_Status;
 import invoice.data.constants.NotificationType;
+import invoice.security.data.models.CurrentUser;
+import invoice.security.services.CurrentUserHolder;
+import invoice.services.AssetRegistryService;
 import invoice.services.NotificationService;
+import invoice.utiils.DocumentResponseCache;
+import invoice.utiils.HttpCaching;
+import invoice.utiils.OptimisticRetryExecutor;
 //import org.modelmapper.ModelMapper;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -42,57 +52,68 @@ import invoice.config.CloudinaryService;
 import invoice.dtos.request.CreateInvoiceRequest;
 import invoice.services.InvoiceService;
 import invoice.services.EmailService;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @AllArgsConstructor
 @Slf4j
+@Timed(value = "app.service", histogram = true)
 public class InvoiceServiceImplementation implements InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final InvoiceSequenceRepository invoiceSequenceRepository;
     private final UserRepository userRepository;
 //    private final ModelMapper modelMapper;
     private final CloudinaryService cloudinaryService;
+    private final AssetRegistryService assetRegistryService;
     private final ClientRepository clientRepository;
-    private final TaxRepository taxRepository;
+    private final TaxRateCache taxRateCache;
     private final InvoiceTaxRepository invoiceTaxRepository;
     private final InvoiceSenderRepository invoiceSenderRepository;
     private final EmailService emailService;
     private final NotificationService notificationService;
     private final ReceiptRepository receiptRepository;
     private final ReceiptSequenceRepository receiptSequenceRepository;
+    private final CurrentUserHolder currentUserHolder;
+    private final DocumentResponseCache documentResponseCache;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
 
 
     @Override
-    @Transactional
     public InvoiceResponse createInvoice(CreateInvoiceRequest request) {
-        User currentUser = getCurrentUser();
+        // Upload logo and signature concurrently, before a DB transaction (and connection) is held
+        CompletableFuture<String> logoUpload = assetRegistryService.acquireAsync(request.getLogo());
+        CompletableFuture<String> signatureUpload = assetRegistryService.acquireAsync(request.getSignature());
+        String logoUrl = awaitUpload(logoUpload, "Failed to upload logo file");
+        String signatureUrl = awaitUpload(signatureUpload, "Failed to upload signature file");
 
-        // Fetch client data if clientId is provided (for populating billTo)
-        Client client = null;
-        if (request.getClientId() != null) {
-            client = clientRepository.findById(request.getClientId())
-                    .orElseThrow(() -> new ResourceNotFoundException("client not found"));
+        try {
+            // A concurrent creation for the same user that took the next number first makes this run again
+            return optimisticRetryExecutor.execute("invoice.create", () -> persistInvoice(request, logoUrl, signatureUrl));
+        } catch (RuntimeException e) {
+            assetRegistryService.release(logoUrl);
+            assetRegistryService.release(signatureUrl);
+            throw e;
         }
+    }
 
-        String logoUrl = null;
-        String signatureUrl = null;
-
+    private String awaitUpload(CompletableFuture<String> upload, String failureMessage) {
         try {
-            if (request.getLogo() != null && !request.getLogo().isEmpty()) {
-                logoUrl = cloudinaryService.uploadFile(request.getLogo());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload logo file", e);
+            return upload.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(failureMessage, e.getCause());
         }
+    }
 
-        try {
-            if (request.getSignature() != null && !request.getSignature().isEmpty()) {
-                signatureUrl = cloudinaryService.uploadFile(request.getSignature());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload signature file", e);
+    private InvoiceResponse persistInvoice(CreateInvoiceRequest request, String logoUrl, String signatureUrl) {
+        CurrentUser currentUser = currentUserHolder.require();
+
+        // Fetch client data if clientId is provided (for populating billTo)
+        Client client = null;
+        if (request.getClientId() != null) {
+            client = clientRepository.findById(request.getClientId())
+                    .orElseThrow(() -> new ResourceNotFoundException("client not found"));
         }
 
         // Create invoice entity manually to avoid detached entity issues
@@ -101,7 +122,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
         // Map basic fields from request (excluding items which need special handling)
         invoice.setTitle(request.getTitle());
         invoice.setInvoiceColor(request.getInvoiceColor());
-        invoice.setCreationDate(request.getInvoiceDate() != null ? request.getInvoiceDate().atStartOfDay() : null);
+        // The invoice date is the partition key, so an undated invoice is dated today
+        invoice.setCreationDate(request.getInvoiceDate() != null
+                ? request.getInvoiceDate().atStartOfDay() : LocalDate.now().atStartOfDay());
         invoice.setDueDate(request.getDueDate() != null ? request.getDueDate().atStartOfDay() : null);
         invoice.setPaymentTerms(request.getPaymentTerms());
         invoice.setAccountNumber(request.getAccountNumber());
@@ -143,8 +166,10 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
         // Handle invoice-level taxes if provided
         if (request.getTaxIds() != null && !request.getTaxIds().isEmpty()) {
+            // Resolve rates from one consistent in-memory snapshot of the tax table
+            TaxRateCache.Snapshot taxTable = taxRateCache.current();
             for (UUID taxId : request.getTaxIds()) {
-                    Tax tax = taxRepository.findById(taxId).orElse(null);
+                    Tax tax = taxTable.findById(taxId).orElse(null);
                     if (tax != null) {
                         InvoiceTax invoiceTax = new InvoiceTax();
                         invoiceTax.setTax(tax);
@@ -155,11 +180,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
                             BigDecimal taxableAmount = BigDecimal.valueOf(subtotal);
                             // Use client-specific tax rate if client is available and has customerType, otherwise use base rate
                             BigDecimal appliedRate = (client != null && client.getCustomerType() != null) ?
-                                tax.getApplicableRate(client.getCustomerType()) :
+                                taxTable.getApplicableRate(taxId, client.getCustomerType()) :
                                 tax.getBaseTaxRate();
-                            BigDecimal taxAmount = taxableAmount
-                                    .multiply(appliedRate)
-                                    .divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP);
+                            BigDecimal taxAmount = InvoiceTax.calculateTaxAmount(taxableAmount, appliedRate);
 
                             invoiceTax.setTaxableAmount(taxableAmount);
                             invoiceTax.setAppliedRate(appliedRate);
@@ -183,7 +206,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
         if(request.getAddress() != null && !request.getAddress().isEmpty())
             sender.setAddress(request.getAddress());
-        invoice.setUser(currentUser);
+        invoice.setUser(userRepository.getReferenceById(currentUser.getId()));
         if (logoUrl != null)
             invoice.setLogoUrl(logoUrl);
         if (signatureUrl != null)
@@ -253,7 +276,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         // Create notification for invoice sent
         try {
             notificationService.createNotification(
-                currentUser,
+                userRepository.getReferenceById(currentUser.getId()),
                 "Invoice sent",
                 "Your invoice to " + recipient.getFullName() + " was delivered successfully and is now viewable.",
                 NotificationType.INVOICE_CREATED,
@@ -326,18 +349,11 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-    }
-
-    private String generateNextAvailableInvoiceNumber(User user) {
-        InvoiceSequence sequence = invoiceSequenceRepository.findByUserIdForUpdate(user.getId())
+    private String generateNextAvailableInvoiceNumber(CurrentUser user) {
+        InvoiceSequence sequence = invoiceSequenceRepository.findByUserId(user.getId())
                 .orElseGet(() -> {
                     // Initialize sequence for this user if it doesn't exist
-                    InvoiceSequence newSequence = new InvoiceSequence(user, 0);
+                    InvoiceSequence newSequence = new InvoiceSequence(userRepository.getReferenceById(user.getId()), 0);
                     return invoiceSequenceRepository.save(newSequence);
                 });
 
@@ -353,7 +369,8 @@ public class InvoiceServiceImplementation implements InvoiceService {
             if (invoiceRepository.findByInvoiceNumberAndUserId(candidateInvoiceNumber, user.getId()).isEmpty()) {
                 // Found an available number, update the sequence and return
                 sequence.setLastSequenceNumber(candidateNumber);
-                invoiceSequenceRepository.save(sequence);
+                // Flushed now so a conflicting creation is detected before anything is saved or emailed
+                invoiceSequenceRepository.saveAndFlush(sequence);
                 log.info("Generated available invoice number: {} (sequence: {}) for user: {}",
                         candidateInvoiceNumber, candidateNumber, user.getEmail());
                 return candidateInvoiceNumber;
@@ -371,10 +388,10 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     @Override
     public InvoiceResponse getInvoiceById(UUID id) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         log.info("Fetching invoice with ID: {} for user: {}", id, currentUser.getEmail());
 
-        Invoice invoice = invoiceRepository.findById(id)
+        Invoice invoice = invoiceRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
 
         // Verify the invoice belongs to the current user
@@ -390,19 +407,11 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     @Override
     public List<InvoiceResponse> getAllUserInvoices() {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         log.info("Fetching all invoices for user: {}", currentUser.getEmail());
 
         List<Invoice> invoices = invoiceRepository.findAllByUserId(currentUser.getId());
-        return invoices.stream()
-                .map(invoice -> {
-                    // Since clientId was removed from Invoice model, we pass null for client
-                    // The mapToResponse method will use InvoiceRecipient data instead
-                    InvoiceSender sender = invoiceSenderRepository.findByInvoice(invoice.getId())
-                            .orElseThrow(()->new ResourceNotFoundException("Sender not found"));
-                    return mapToResponse(invoice, null, sender);
-                })
-                .collect(Collectors.toList());
+        return mapToResponses(invoices);
     }
 
     @Override
@@ -415,23 +424,57 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
         // Then find all invoices related to that user
         List<Invoice> invoices = invoiceRepository.findAllByUserId(user.getId());
-        return invoices.stream()
-                .map(invoice -> {
-                    // Since clientId was removed from Invoice model, we pass null for client
-                    // The mapToResponse method will use InvoiceRecipient data instead
-                    InvoiceSender sender = invoiceSenderRepository.findByInvoice(invoice.getId())
-                            .orElseThrow(()->new ResourceNotFoundException("Sender not found"));
-                    return mapToResponse(invoice, null, sender);
-                })
-                .collect(Collectors.toList());
+        return mapToResponses(invoices);
     }
 
     @Override
-    @Transactional
     public InvoiceResponse updateInvoice(UUID id, CreateInvoiceRequest request) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         log.info("Updating invoice with ID: {} for user: {}", id, currentUser.getEmail());
 
+        // Uploaded once, outside the transaction that is retried on a conflicting edit
+        String newLogoUrl = assetRegistryService.acquire(request.getLogo());
+        String newSignatureUrl = assetRegistryService.acquire(request.getSignature());
+
+        InvoiceUpdate update;
+        try {
+            update = optimisticRetryExecutor.execute("invoice.update",
+                    () -> applyUpdate(id, request, currentUser, newLogoUrl, newSignatureUrl));
+        } catch (RuntimeException e) {
+            assetRegistryService.release(newLogoUrl);
+            assetRegistryService.release(newSignatureUrl);
+            throw e;
+        }
+        log.info("Invoice updated successfully with ID: {} for user: {}", id, currentUser.getEmail());
+
+        // Create notification for invoice update
+        try {
+            notificationService.createNotification(
+                userRepository.getReferenceById(currentUser.getId()),
+                "Invoice Updated",
+                "Invoice " + update.response().getInvoiceNumber() + " has been updated successfully",
+                NotificationType.INVOICE_UPDATED,
+                id,
+                "INVOICE"
+            );
+        } catch (Exception e) {
+            log.error("Failed to create notification for invoice update: {}", e.getMessage());
+        }
+
+        if (newLogoUrl != null && update.oldLogoUrl() != null) {
+            assetRegistryService.release(update.oldLogoUrl());
+        }
+        if (newSignatureUrl != null && update.oldSignatureUrl() != null) {
+            assetRegistryService.release(update.oldSignatureUrl());
+        }
+        return update.response();
+    }
+
+    private record InvoiceUpdate(InvoiceResponse response, String oldLogoUrl, String oldSignatureUrl) {
+    }
+
+    private InvoiceUpdate applyUpdate(UUID id, CreateInvoiceRequest request, CurrentUser currentUser,
+                                      String newLogoUrl, String newSignatureUrl) {
         Invoice existingInvoice = invoiceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
 
@@ -447,7 +490,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         // Update basic fields manually to avoid detached entity issues
         existingInvoice.setTitle(request.getTitle());
         existingInvoice.setInvoiceColor(request.getInvoiceColor());
-        existingInvoice.setCreationDate(request.getInvoiceDate() != null ? request.getInvoiceDate().atStartOfDay() : null);
+        if (request.getInvoiceDate() != null) existingInvoice.setCreationDate(request.getInvoiceDate().atStartOfDay());
         existingInvoice.setDueDate(request.getDueDate() != null ? request.getDueDate().atStartOfDay() : null);
         existingInvoice.setPaymentTerms(request.getPaymentTerms());
         existingInvoice.setAccountNumber(request.getAccountNumber());
@@ -487,22 +530,12 @@ public class InvoiceServiceImplementation implements InvoiceService {
                 existingInvoice.addItem(item);
             }
         }
-        try {
-            if (request.getLogo() != null && !request.getLogo().isEmpty()) {
-                String newLogoUrl = cloudinaryService.uploadFile(request.getLogo());
-                existingInvoice.setLogoUrl(newLogoUrl);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload updated logo", e);
+        if (newLogoUrl != null) {
+            existingInvoice.setLogoUrl(newLogoUrl);
         }
 
-        try {
-            if (request.getSignature() != null && !request.getSignature().isEmpty()) {
-                String newSignatureUrl = cloudinaryService.uploadFile(request.getSignature());
-                existingInvoice.setSignatureUrl(newSignatureUrl);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload updated signature", e);
+        if (newSignatureUrl != null) {
+            existingInvoice.setSignatureUrl(newSignatureUrl);
         }
 
         // Handle invoice number update
@@ -520,41 +553,20 @@ public class InvoiceServiceImplementation implements InvoiceService {
                     oldInvoiceNumber, request.getInvoiceNumber(), currentUser.getEmail());
         }
 
-        Invoice updatedInvoice = invoiceRepository.save(existingInvoice);
-        log.info("Invoice updated successfully with ID: {} for user: {}", updatedInvoice.getId(), currentUser.getEmail());
-
-        // Create notification for invoice update
-        try {
-            notificationService.createNotification(
-                currentUser,
-                "Invoice Updated",
-                "Invoice " + updatedInvoice.getInvoiceNumber() + " has been updated successfully",
-                NotificationType.INVOICE_UPDATED,
-                updatedInvoice.getId(),
-                "INVOICE"
-            );
-        } catch (Exception e) {
-            log.error("Failed to create notification for invoice update: {}", e.getMessage());
-        }
-
-        if (request.getLogo() != null && !request.getLogo().isEmpty() && oldLogoUrl != null) {
-            cloudinaryService.deleteFile(oldLogoUrl);
-        }
-        if (request.getSignature() != null && !request.getSignature().isEmpty() && oldSignatureUrl != null) {
-            cloudinaryService.deleteFile(oldSignatureUrl);
-        }
+        // Flushed here so the version bump, and thus the response and its ETag, match what is committed
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(existingInvoice);
 
         // Get sender for response mapping (client data is in InvoiceRecipient now)
         InvoiceSender sender = invoiceSenderRepository.findByInvoice(updatedInvoice.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
 
-        return mapToResponse(updatedInvoice, null, sender);
+        return new InvoiceUpdate(mapToResponse(updatedInvoice, null, sender), oldLogoUrl, oldSignatureUrl);
     }
 
     @Override
     @Transactional
     public void deleteInvoice(UUID id) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         log.info("Deleting invoice with ID: {} for user: {}", id, currentUser.getEmail());
 
         Invoice invoice = invoiceRepository.findById(id)
@@ -589,22 +601,22 @@ public class InvoiceServiceImplementation implements InvoiceService {
             invoice.getItems().clear();
         }
 
-        // 4. Delete uploaded files from Cloudinary
+        // 4. Release uploaded files; shared assets are garbage-collected once unreferenced
         if (invoice.getLogoUrl() != null) {
             try {
-                cloudinaryService.deleteFile(invoice.getLogoUrl());
-                log.info("Deleted logo file for invoice: {}", id);
+                assetRegistryService.release(invoice.getLogoUrl());
+                log.info("Released logo file for invoice: {}", id);
             } catch (Exception e) {
-                log.warn("Failed to delete logo file for invoice {}: {}", id, e.getMessage());
+                log.warn("Failed to release logo file for invoice {}: {}", id, e.getMessage());
             }
         }
 
         if (invoice.getSignatureUrl() != null) {
             try {
-                cloudinaryService.deleteFile(invoice.getSignatureUrl());
-                log.info("Deleted signature file for invoice: {}", id);
+                assetRegistryService.release(invoice.getSignatureUrl());
+                log.info("Released signature file for invoice: {}", id);
             } catch (Exception e) {
-                log.warn("Failed to delete signature file for invoice {}: {}", id, e.getMessage());
+                log.warn("Failed to release signature file for invoice {}: {}", id, e.getMessage());
             }
         }
 
@@ -615,7 +627,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         // Create notification for invoice deletion
         try {
             notificationService.createNotification(
-                currentUser,
+                userRepository.getReferenceById(currentUser.getId()),
                 "Invoice Deleted",
                 "Invoice " + invoiceNumber + " has been deleted successfully",
                 NotificationType.INVOICE_DELETED,
@@ -628,15 +640,26 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponse> getAllInvoices() {
-        List<Invoice> invoices = invoiceRepository.findAll();
+        List<Invoice> invoices = invoiceRepository.findAllDetailed();
         if(invoices.isEmpty())return List.of();
+        return mapToResponses(invoices);
+    }
+
+    private List<InvoiceResponse> mapToResponses(List<Invoice> invoices) {
+        if (invoices.isEmpty()) return List.of();
+        // Load all senders with one query instead of one per invoice
+        Map<UUID, InvoiceSender> senders = invoiceSenderRepository
+                .findAllByInvoiceIds(invoices.stream().map(Invoice::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(sender -> sender.getInvoice().getId(), sender -> sender, (first, second) -> first));
         return invoices.stream()
                 .map(invoice -> {
                     // Since clientId was removed from Invoice model, we pass null for client
                     // The mapToResponse method will use InvoiceRecipient data instead
-                    InvoiceSender sender = invoiceSenderRepository.findByInvoice(invoice.getId())
-                            .orElseThrow(()->new ResourceNotFoundException("Sender not found"));
+                    InvoiceSender sender = senders.get(invoice.getId());
+                    if (sender == null) throw new ResourceNotFoundException("Sender not found");
                     return mapToResponse(invoice, null, sender);
                 })
                 .collect(Collectors.toList());
@@ -644,15 +667,25 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     @Override
     public InvoiceResponse getInvoiceByUuid(UUID uuid) {
-        log.info("Fetching invoice with UUID: {} for public access", uuid);
+        InvoiceVersionProjection current = getInvoiceVersion(uuid);
+        // Shared links are opened many times; the response is only rebuilt once the invoice changes
+        return documentResponseCache.get(uuid, HttpCaching.etag(current.getVersion()), () -> {
+            log.info("Fetching invoice with UUID: {} for public access", uuid);
 
-        Invoice invoice = invoiceRepository.findById(uuid)
-                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+            Invoice invoice = invoiceRepository.findDetailedById(uuid)
+                    .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
-        InvoiceSender sender = invoiceSenderRepository.findByInvoice(invoice.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
+            InvoiceSender sender = invoiceSenderRepository.findByInvoice(invoice.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
 
-        return mapToResponse(invoice, null, sender);
+            return mapToResponse(invoice, null, sender);
+        });
+    }
+
+    @Override
+    public InvoiceVersionProjection getInvoiceVersion(UUID uuid) {
+        return invoiceRepository.findVersionById(uuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
     }
 
     @Override
@@ -725,8 +758,8 @@ public class InvoiceServiceImplementation implements InvoiceService {
     public Map<String, Long> getInvoiceStats(String email) {
         log.info("Fetching invoice statistics for recipient email: {}", email);
 
-        // Get all invoices sent to this email address
-        List<Invoice> invoices = invoiceRepository.findAllByRecipientEmail(email);
+        // Get status and due date of all invoices sent to this email address
+        List<InvoiceStatusProjection> invoices = invoiceRepository.findStatusesByRecipientEmail(email);
 
         // Get current date/time for overdue calculation
         LocalDateTime now = LocalDateTime.now();
@@ -771,31 +804,18 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
     @Override
-    @Transactional
     public ReceiptResponse markInvoiceAsPaid(UUID invoiceId, String paymentMethod) {
         log.info("Marking invoice as paid: {}", invoiceId);
 
-        // 1. Fetch the Invoice
-        Invoice invoice = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with ID: " + invoiceId));
-
-        // 2. Update Invoice status to PAID
-        invoice.setStatus(Invoice_Status.PAID);
-        Invoice updatedInvoice = invoiceRepository.save(invoice);
-
-        log.info("Invoice {} marked as paid successfully", invoiceId);
-
-        // 3. Map Data: Create Receipt record
-        Receipt receipt = new Receipt();
-        receipt.setReceiptNumber(generateReceiptNumber());
-        receipt.setInvoice(updatedInvoice);
-        receipt.setPaymentDate(LocalDateTime.now());
-        receipt.setPaymentMethod(paymentMethod != null ? paymentMethod : "Bank Transfer");
-        receipt.setTotalPaid(BigDecimal.valueOf(invoice.getTotalDue() != null ? invoice.getTotalDue() : 0.0));
-
-        // 4. Save Receipt to database
-        Receipt savedReceipt = receiptRepository.save(receipt);
-        log.info("Receipt {} created for invoice {}", savedReceipt.getReceiptNumber(), invoiceId);
+        // Steps 1-4 commit before anything is sent, so a conflicting edit can re-run them safely
+        Settlement settlement = optimisticRetryExecutor.execute("invoice.mark-paid",
+                () -> settleInvoice(invoiceId, paymentMethod));
+        Invoice invoice = settlement.invoice();
+        Receipt savedReceipt = settlement.receipt();
+        if (!settlement.newlyPaid()) {
+            log.info("Invoice {} was already paid with receipt {}", invoiceId, savedReceipt.getReceiptNumber());
+            return new ReceiptResponse(savedReceipt);
+        }
 
         // 5. Send receipt email to customer (reusing existing email service)
         InvoiceRecipient recipient = invoice.getRecipient();
@@ -891,6 +911,40 @@ public class InvoiceServiceImplementation implements InvoiceService {
         return new ReceiptResponse(savedReceipt);
     }
 
+    private record Settlement(Invoice invoice, Receipt receipt, boolean newlyPaid) {
+    }
+
+    private Settlement settleInvoice(UUID invoiceId, String paymentMethod) {
+        // 1. Fetch the Invoice with everything the receipt email renders
+        Invoice invoice = invoiceRepository.findForRenderingById(invoiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with ID: " + invoiceId));
+
+        // Marking twice (a double click, a retried request) returns the first receipt
+        if (invoice.getStatus() == Invoice_Status.PAID) {
+            Optional<Receipt> existing = receiptRepository.findByInvoiceId(invoiceId);
+            if (existing.isPresent()) return new Settlement(invoice, existing.get(), false);
+        }
+
+        // 2. Update Invoice status to PAID
+        invoice.setStatus(Invoice_Status.PAID);
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(invoice);
+
+        log.info("Invoice {} marked as paid successfully", invoiceId);
+
+        // 3. Map Data: Create Receipt record
+        Receipt receipt = new Receipt();
+        receipt.setReceiptNumber(generateReceiptNumber());
+        receipt.setInvoice(updatedInvoice);
+        receipt.setPaymentDate(LocalDateTime.now());
+        receipt.setPaymentMethod(paymentMethod != null ? paymentMethod : "Bank Transfer");
+        receipt.setTotalPaid(BigDecimal.valueOf(invoice.getTotalDue() != null ? invoice.getTotalDue() : 0.0));
+
+        // 4. Save Receipt to database
+        Receipt savedReceipt = receiptRepository.save(receipt);
+        log.info("Receipt {} created for invoice {}", savedReceipt.getReceiptNumber(), invoiceId);
+        return new Settlement(updatedInvoice, savedReceipt, true);
+    }
+
     private String generateReceiptNumber() {
         ReceiptSequence sequence = receiptSequenceRepository.findGlobalSequenceForUpdate()
                 .orElseGet(() -> {
@@ -906,10 +960,12 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
     // Dashboard Analytics Implementation
+    // Read-only, so served by a read replica when one is configured; a few seconds of staleness is fine here
 
     @Override
+    @Transactional(readOnly = true)
     public DashboardStatsResponse getDashboardStats() {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         LocalDateTime now = LocalDateTime.now();
 
         LocalDateTime currentMonthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
@@ -1007,8 +1063,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PaymentTrendResponse> getPaymentTrends(String period) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         LocalDateTime now = LocalDateTime.now();
         
         List<PaymentTrendResponse> trends = new ArrayList<>();
@@ -1074,8 +1131,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RecentInvoiceResponse> getRecentInvoices(Integer limit) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = currentUserHolder.require();
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Invoice> invoices = invoiceRepository.getRecentInvoices(currentUser.getId(), pageable);
@@ -10,9 +10,12 @@ import invoice.dtos.request.ProfileUpdateRequest;
 import invoice.dtos.request.TaxSettingsDto;
 import invoice.dtos.response.ProfileUpdateResponse;
 import invoice.exception.OriginalInvoiceBaseException;
+import invoice.services.AssetRegistryService;
 import invoice.services.InvoiceSettingsService;
 import invoice.services.UserService;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,6 +29,8 @@ public class InvoiceSettingsServiceImplementation implements InvoiceSettingsServ
 
     private final UserService userService;
     private final CloudinaryService cloudinaryService;
+    private final AssetRegistryService assetRegistryService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public BusinessProfileDto updateBusinessProfile(String email, BusinessProfileDto request) {
@@ -102,15 +107,29 @@ public class InvoiceSettingsServiceImplementation implements InvoiceSettingsServ
     }
 
     @Override
+    // The upload can take a minute, so no connection is held across it; only the profile update is transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String uploadLogo(String email, MultipartFile logoFIle) {
-        String logoUrl = null;
+        // Re-uploading an unchanged logo returns the stored url without a Cloudinary round-trip
+        String logoUrl = assetRegistryService.acquire(logoFIle);
+        String previousUrl;
         try {
-            if (logoFIle != null) {
-                logoUrl = cloudinaryService.uploadFile(logoFIle);
-            }
-        } catch (IOException e) {
-            throw new OriginalInvoiceBaseException("Failed to upload logo file");
+            previousUrl = transactionTemplate.execute(status -> {
+                User user = userService.findByEmail(email);
+                BusinessProfileSettings profile = user.getSettings().getProfile();
+                String replaced = profile.getBusinessLogoUrl();
+                profile.setBusinessLogoUrl(logoUrl);
+                userService.updateUser(user);
+                return replaced;
+            });
+        } catch (RuntimeException e) {
+            // The profile was not changed, so give back the reference just taken
+            assetRegistryService.release(logoUrl);
+            throw e;
         }
+        // The profile holds one reference: give back the replaced logo's now that the change is committed
+        // (the same url twice means a second reference was just taken)
+        assetRegistryService.release(previousUrl);
         return logoUrl;
     }
 
@@ -234,10 +253,7 @@ public class InvoiceSettingsServiceImplementation implements InvoiceSettingsServ
             profile.setBusinessRegistrationNumber(request.getBusinessRegistrationNumber());
         }
 
-        if (request.getBusinessLogoUrl() != null && !request.getBusinessLogoUrl().isEmpty()
-                && !request.getBusinessLogoUrl().equalsIgnoreCase(profile.getBusinessLogoUrl())) {
-            profile.setBusinessLogoUrl(request.getBusinessLogoUrl());
-        }
+        // The logo is only replaced through uploadLogo, which keeps the asset's reference count in step
     }
 
     private BusinessProfileDto mapToDto(BusinessProfileSettings profile) {
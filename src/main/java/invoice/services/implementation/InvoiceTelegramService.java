@@ -9,78 +9,181 @@ import invoice.data.models.TelegramUser;
 import invoice.data.repositories.TelegramUserRepository;
 import invoice.exception.BusinessException;
 import invoice.services.TelegramService;
+import invoice.utiils.TelegramSendQueue;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Update batches from the bot are handed to a bounded worker pool: each batch resolves its chat ids
+ * with one IN query and persists new or renamed chats with one batched upsert.
+ * Replies and invoice deliveries go through the rate-limited {@link TelegramSendQueue}.
+ * Username lookups for {@link #hasTelegramConnected} are cached briefly; sends always resolve the chat
+ * from telegram_users, so a re-linked or deleted chat never receives someone else's invoice.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class InvoiceTelegramService implements TelegramService {
+    private static final int MAX_CACHED_USERNAMES = 10_000;
+    private static final String CONNECTED_MESSAGE = "Telegram connected successfully, You can now receive invoices and updates from this bot.";
+    private static final String PREVIOUSLY_CONNECTED_MESSAGE = "Previously connected";
 
     private final TelegramBot telegramBot;
     private final TelegramUserRepository telegramUserRepository;
+    private final TelegramSendQueue telegramSendQueue;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("telegramUpdateExecutor")
+    private final Executor telegramUpdateExecutor;
+    // Lower-cased username to chat id; another instance or the account deletion job may change the row,
+    // so entries are only trusted for a short while
+    private final Map<String, CachedChat> chatIdsByUsername = new ConcurrentHashMap<>();
+
+    @Value("${app.telegram.chat-id-cache-ttl-ms:60000}")
+    private long chatIdCacheTtlMs;
 
     @PostConstruct
     @Override
     public void init() {
         telegramBot.setUpdatesListener(updates -> {
+            // Last /start per chat wins within a batch
+            Map<Long, String> startCommands = new LinkedHashMap<>();
             for (Update update : updates) {
                 if (update.message() == null || update.message().text() == null) continue;
-                Long chatId = update.message().chat().id();
                 String text = update.message().text().trim();
-                String username = update.message().chat().username();
-                if (text.startsWith("/start")) handleStartCommand(chatId, username);
+                if (text.startsWith("/start")) {
+                    startCommands.put(update.message().chat().id(), update.message().chat().username());
+                }
             }
+            if (!startCommands.isEmpty()) telegramUpdateExecutor.execute(() -> handleStartCommands(startCommands));
             return UpdatesListener.CONFIRMED_UPDATES_ALL;
         });
     }
 
-    private void handleStartCommand(Long chatId, String username) {
-        telegramUserRepository.findByChatId(chatId)
-                .ifPresentOrElse(
-                        user -> {
-                            sendTelegramMessage(chatId, "Previously connected");
-                            if (username != null && !username.equals(user.getUsername())) {
-                                user.setUsername(username);
-                                telegramUserRepository.save(user);
-                            }
-                        },
-                        () -> {
-                            TelegramUser newUser = TelegramUser.builder().username(username).chatId(chatId).build();
-                            telegramUserRepository.save(newUser);
-                            sendTelegramMessage(chatId, "Telegram connected successfully, You can now receive invoices and updates from this bot.");
-                        }
-                );
+    private void handleStartCommands(Map<Long, String> usernamesByChatId) {
+        try {
+            Map<Long, TelegramUser> existing = telegramUserRepository.findAllByChatIdIn(usernamesByChatId.keySet()).stream()
+                    .collect(Collectors.toMap(TelegramUser::getChatId, Function.identity()));
+
+            Map<Long, String> changed = new LinkedHashMap<>();
+            usernamesByChatId.forEach((chatId, username) -> {
+                TelegramUser user = existing.get(chatId);
+                if (user == null || (username != null && !username.equals(user.getUsername()))) {
+                    changed.put(chatId, username);
+                }
+            });
+            if (!changed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> upsertChats(changed));
+                changed.forEach((chatId, username) -> {
+                    TelegramUser previous = existing.get(chatId);
+                    if (previous != null && previous.getUsername() != null) uncache(previous.getUsername());
+                    if (username != null) cache(username, chatId);
+                });
+            }
+
+            usernamesByChatId.keySet().forEach(chatId -> telegramSendQueue.enqueue(chatId,
+                    new SendMessage(chatId, existing.containsKey(chatId) ? PREVIOUSLY_CONNECTED_MESSAGE : CONNECTED_MESSAGE)));
+        } catch (Exception e) {
+            log.error("Failed to handle {} Telegram /start commands: {}", usernamesByChatId.size(), e.getMessage(), e);
+        }
     }
 
-    private void sendTelegramMessage(long chatId, String text) {
-        telegramBot.execute(new SendMessage(chatId, text));
+    private void upsertChats(Map<Long, String> usernamesByChatId) {
+        // Telegram usernames can move between accounts; release them from other chats first
+        List<String> usernames = usernamesByChatId.values().stream()
+                .filter(Objects::nonNull)
+                .map(username -> username.toLowerCase(Locale.ROOT))
+                .toList();
+        if (!usernames.isEmpty()) {
+            jdbcTemplate.update("UPDATE telegram_users SET username = NULL " +
+                            "WHERE lower(username) IN (:usernames) AND chat_id NOT IN (:chatIds)",
+                    new MapSqlParameterSource("usernames", usernames).addValue("chatIds", usernamesByChatId.keySet()));
+        }
+
+        MapSqlParameterSource[] batch = usernamesByChatId.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource("id", UUID.randomUUID())
+                        .addValue("chatId", entry.getKey())
+                        .addValue("username", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO telegram_users (id, chat_id, username) VALUES (:id, :chatId, :username) " +
+                "ON CONFLICT (chat_id) DO UPDATE SET username = EXCLUDED.username", batch);
     }
 
     @Override
     public void sendDocument(String username, String fileUrl) {
-        TelegramUser telegramUser = telegramUserRepository.findByUsernameIgnoreCase(username)
-                .orElseThrow(() -> new BusinessException("User has not connected Telegram"));
-        telegramBot.execute(new SendDocument(telegramUser.getChatId(), fileUrl));
+        long chatId = requireChatId(username);
+        telegramSendQueue.enqueue(chatId, new SendDocument(chatId, fileUrl));
     }
 
     @Override
     public void sendMessageAndFile(String username, String fileUrl, String text) {
         try{
-            TelegramUser telegramUser = telegramUserRepository.findByUsernameIgnoreCase(username)
-                    .orElseThrow(() -> new BusinessException("User has not connected Telegram"));
-            sendTelegramMessage(telegramUser.getChatId(),text);
-            sendDocument(telegramUser.getUsername(), fileUrl);
+            long chatId = requireChatId(username);
+            telegramSendQueue.enqueue(chatId, new SendMessage(chatId, text), new SendDocument(chatId, fileUrl));
         }catch(Exception e){
             throw new BusinessException("Unable to sendFileAndMessage");
         }
     }
+    @Override
+    public CompletableFuture<Void> sendMessageAndFileAsync(String username, String fileUrl, String text) {
+        long chatId = requireChatId(username);
+        if (fileUrl == null || fileUrl.isBlank()) return telegramSendQueue.submit(chatId, new SendMessage(chatId, text));
+        return telegramSendQueue.submit(chatId, new SendMessage(chatId, text), new SendDocument(chatId, fileUrl));
+    }
+
     @Override
     public boolean hasTelegramConnected(String username){
+        return findChatId(username) != null;
+    }
+
+    // Read from telegram_users on every send: one indexed lookup next to a Telegram call
+    private long requireChatId(String username) {
+        Long chatId = username == null || username.isBlank() ? null : loadChatId(username);
+        if (chatId == null) throw new BusinessException("User has not connected Telegram");
+        return chatId;
+    }
+
+    private Long findChatId(String username) {
+        if (username == null || username.isBlank()) return null;
+        CachedChat cached = chatIdsByUsername.get(username.toLowerCase(Locale.ROOT));
+        if (cached != null && System.currentTimeMillis() - cached.cachedAt() < chatIdCacheTtlMs) return cached.chatId();
+        return loadChatId(username);
+    }
+
+    private Long loadChatId(String username) {
         Optional<TelegramUser> user = telegramUserRepository.findByUsernameIgnoreCase(username);
-        return user.isPresent();
+        // Misses are not cached: the user may connect at any moment
+        if (user.isEmpty()) {
+            uncache(username);
+            return null;
+        }
+        cache(username, user.get().getChatId());
+        return user.get().getChatId();
+    }
+
+    private void cache(String username, long chatId) {
+        if (chatIdsByUsername.size() >= MAX_CACHED_USERNAMES) chatIdsByUsername.clear();
+        chatIdsByUsername.put(username.toLowerCase(Locale.ROOT), new CachedChat(chatId, System.currentTimeMillis()));
+    }
+
+    private void uncache(String username) {
+        chatIdsByUsername.remove(username.toLowerCase(Locale.ROOT));
+    }
+
+    private record CachedChat(long chatId, long cachedAt) {
     }
-}
\ No newline at end of file
+}
@@ -4,27 +4,38 @@ import com.twilio.type.PhoneNumber;
 import invoice.exception.BusinessException;
 import invoice.services.UserService;
 import invoice.services.WhatsappService;
+import invoice.utiils.IntegrationBulkheads;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.twilio.rest.api.v2010.account.Message;
 
+import static invoice.utiils.IntegrationBulkheads.TWILIO;
+
 
 @Service
 @RequiredArgsConstructor
 public class InvoiceWhatsappService implements WhatsappService {
     private final UserService userService;
+    private final IntegrationBulkheads integrationBulkheads;
 
     @Value("${TWILIO_PHONE_NUMBER}")
     private String invoiceWhatsappNumber;
     @Override
     public String sendDocument(String email, String receiverPhoneNumber, String url, String message) {
         validateInputs(email, receiverPhoneNumber);
-        var messageCreated = Message.creator(
+        return sendMessage(receiverPhoneNumber, url, message);
+    }
+
+    @Override
+    public String sendMessage(String receiverPhoneNumber, String mediaUrl, String message) {
+        var messageCreator = Message.creator(
                 new PhoneNumber(receiverPhoneNumber),
                 new PhoneNumber(invoiceWhatsappNumber),
-                message.isBlank() || message.isEmpty() ? "" : message.trim()
-        ).setMediaUrl(java.util.List.of(java.net.URI.create(url))).create();
+                message == null || message.isBlank() ? "" : message.trim()
+        );
+        if (mediaUrl != null && !mediaUrl.isBlank()) messageCreator.setMediaUrl(java.util.List.of(java.net.URI.create(mediaUrl)));
+        var messageCreated = integrationBulkheads.get(TWILIO).execute(messageCreator::create);
         return messageCreated.getSid();
     }
 
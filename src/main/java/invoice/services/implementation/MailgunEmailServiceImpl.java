@@ -1,8 +1,13 @@
 package invoice.services.implementation;
 
+import invoice.config.StaticAssets;
+import invoice.config.StaticAssets.StaticAsset;
 import invoice.services.EmailService;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -10,9 +15,12 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
+@Timed(value = "app.service", histogram = true)
 public class MailgunEmailServiceImpl implements EmailService {
 
     @Value("${mailgun.api.key}")
@@ -27,10 +35,24 @@ public class MailgunEmailServiceImpl implements EmailService {
     @Value("${mailgun.from.email}")
     private String fromEmail;
 
+    @Value("${mailgun.api.base-url:https://api.mailgun.net}")
+    private String apiBaseUrl;
+
+    // "svg" keeps the logo as inline markup; "cid" sends it as an inline PNG attachment per message
+    @Value("${mailgun.brand-logo-mode:svg}")
+    private String brandLogoMode;
+
+    // The brand logo as inlined in the templates, at whatever size the template draws it
+    private static final Pattern BRAND_LOGO_SVG = Pattern.compile(
+            "<svg width=\"(\\d+)\" height=\"(\\d+)\"[^>]*>\\s*<rect width=\"32\" height=\"32\" rx=\"9\" fill=\"url\\(#paint0_linear_14310_13934\\)\"/>.*?</svg>",
+            Pattern.DOTALL);
+
     private final RestTemplate restTemplate;
+    private final HttpEntity<ByteArrayResource> logoAttachment;
 
-    public MailgunEmailServiceImpl() {
-        this.restTemplate = new RestTemplate();
+    public MailgunEmailServiceImpl(@Qualifier("mailgunRestTemplate") RestTemplate restTemplate, StaticAssets staticAssets) {
+        this.restTemplate = restTemplate;
+        this.logoAttachment = inlineAttachment(staticAssets.logoPng());
     }
 
 
@@ -126,23 +148,27 @@ public class MailgunEmailServiceImpl implements EmailService {
     // ================== Helper Method ==================
 
     private void sendEmailInternal(String toName, String toEmail, String subject, String htmlContent) {
-        String url = String.format("https://api.mailgun.net/v3/%s/messages", domain);
+        String url = String.format("%s/v3/%s/messages", apiBaseUrl, domain);
+
+        EmailBody email = "cid".equalsIgnoreCase(brandLogoMode) ? logoAsCid(htmlContent) : new EmailBody(htmlContent, false);
+        boolean attachLogo = email.attachesLogo();
 
         // Create headers with Basic Auth
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setContentType(attachLogo ? MediaType.MULTIPART_FORM_DATA : MediaType.APPLICATION_FORM_URLENCODED);
         String auth = "api:" + apiKey;
         String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
         headers.set("Authorization", "Basic " + encodedAuth);
 
         // Create form data
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
         body.add("from", String.format("%s <%s>", fromName, fromEmail));
         body.add("to", String.format("%s <%s>", toName, toEmail));
         body.add("subject", subject);
-        body.add("html", htmlContent);
+        body.add("html", email.html());
+        if (attachLogo) body.add("inline", logoAttachment);
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
+        HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
 
         try {
             ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
@@ -160,6 +186,39 @@ public class MailgunEmailServiceImpl implements EmailService {
         }
     }
 
+    /**
+     * Replaces the inlined logo markup with references to the attached PNG logo
+     */
+    private static EmailBody logoAsCid(String htmlContent) {
+        Matcher matcher = BRAND_LOGO_SVG.matcher(htmlContent);
+        if (!matcher.find()) return new EmailBody(htmlContent, false);
+        StringBuilder html = new StringBuilder(htmlContent.length());
+        do {
+            // Square tags are sized logos; wider ones draw the 32px logo on a larger canvas
+            String size = matcher.group(1).equals(matcher.group(2)) ? matcher.group(1) : "32";
+            matcher.appendReplacement(html, "<img src=\"cid:" + StaticAssets.LOGO_PNG + "\" width=\"" + size + "\" height=\"" + size
+                    + "\" alt=\"Original Invoice\" style=\"display: block; margin-right: 12px;\">");
+        } while (matcher.find());
+        matcher.appendTail(html);
+        return new EmailBody(html.toString(), true);
+    }
+
+    // The html to send, and whether it references the inline logo attachment
+    private record EmailBody(String html, boolean attachesLogo) {
+    }
+
+    private static HttpEntity<ByteArrayResource> inlineAttachment(StaticAsset asset) {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.parseMediaType(asset.contentType()));
+        ByteArrayResource resource = new ByteArrayResource(asset.bytes()) {
+            @Override
+            public String getFilename() {
+                return asset.name();
+            }
+        };
+        return new HttpEntity<>(resource, partHeaders);
+    }
+
     // ================== HTML Templates ==================
 
     private String buildVerificationEmailTemplate(String firstName, String verificationCode) {
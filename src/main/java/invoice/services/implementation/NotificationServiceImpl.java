@@ -8,7 +8,11 @@ import invoice.data.repositories.NotificationRepository;
 import invoice.data.repositories.UserRepository;
 import invoice.dtos.response.NotificationResponse;
 import invoice.exception.OriginalInvoiceBaseException;
+import invoice.security.data.models.CurrentUser;
+import invoice.security.services.CurrentUserHolder;
 import invoice.services.NotificationService;
+import invoice.utiils.OptimisticRetryExecutor;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,10 +24,13 @@ import java.util.stream.Collectors;
 @Service
 @AllArgsConstructor
 @Slf4j
+@Timed(value = "app.service", histogram = true)
 public class NotificationServiceImpl implements NotificationService {
     
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final CurrentUserHolder currentUserHolder;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
 //    private final
     // Temporarily comment out Pusher to test compilation
     // private final Pusher pusher;
@@ -41,21 +48,21 @@ public class NotificationServiceImpl implements NotificationService {
             notification.setRelatedEntityType(relatedEntityType);
             
             Notification saved = notificationRepository.save(notification);
-            log.info("Created notification for user {}: {}", user.getEmail(), title);
+            log.info("Created notification for user {}: {}", user.getId(), title);
             
             // Send real-time notification
             sendRealTimeNotification(user, title, message, type);
             
         } catch (Exception e) {
-            log.error("Error creating notification for user {}: {}", user.getEmail(), e.getMessage());
+            log.error("Error creating notification for user {}: {}", user.getId(), e.getMessage());
         }
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationResponse> getUserNotifications(UUID userId) {
         List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        User user = userRepository.findUserById(userId).orElseThrow(()-> new OriginalInvoiceBaseException("Invalid user details provided"));
-        NotificationsPreferences preferences = user.getSettings().getNotificationsPreferences();
+        NotificationsPreferences preferences = getPreferences(userId);
         return notifications.stream()
         .filter(notification -> isNotificationEnabled(notification.getType(), preferences))
                 .map(NotificationResponse::new)
@@ -63,10 +70,10 @@ public class NotificationServiceImpl implements NotificationService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationResponse> getUnreadNotifications(UUID userId) {
         List<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
-        User user = userRepository.findUserById(userId).orElseThrow(()-> new OriginalInvoiceBaseException("Invalid user details provided"));
-        NotificationsPreferences preferences = user.getSettings().getNotificationsPreferences();
+        NotificationsPreferences preferences = getPreferences(userId);
         return notifications.stream()
                 .filter(notification -> isNotificationEnabled(notification.getType(), preferences))
                 .map(NotificationResponse::new)
@@ -74,10 +81,9 @@ public class NotificationServiceImpl implements NotificationService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public long getUnreadCount(UUID userId) {
-        User user = userRepository.findUserById(userId)
-                .orElseThrow(() -> new OriginalInvoiceBaseException("Invalid user details provided"));
-        NotificationsPreferences preferences = user.getSettings().getNotificationsPreferences();
+        NotificationsPreferences preferences = getPreferences(userId);
         return notificationRepository
                 .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId)
                 .stream()
@@ -86,18 +92,19 @@ public class NotificationServiceImpl implements NotificationService {
     }
     
     @Override
-    @Transactional
     public void markAllAsRead(UUID userId) {
 //        notificationRepository.markAllAsReadByUserId(userId);
-        User user = userRepository.findUserById(userId).orElseThrow(() -> new OriginalInvoiceBaseException("Invalid user details provided"));
-        NotificationsPreferences preferences = user.getSettings().getNotificationsPreferences();
-        List<Notification> enabledUnread = notificationRepository
-                .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId)
-                .stream()
-                .filter(n -> isNotificationEnabled(n.getType(), preferences))
-                .toList();
-        enabledUnread.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(enabledUnread);
+        NotificationsPreferences preferences = getPreferences(userId);
+        // Overlaps with a concurrent markAsRead (or a second tab) are re-read and applied again
+        optimisticRetryExecutor.run("notification.mark-all-read", () -> {
+            List<Notification> enabledUnread = notificationRepository
+                    .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId)
+                    .stream()
+                    .filter(n -> isNotificationEnabled(n.getType(), preferences))
+                    .toList();
+            enabledUnread.forEach(n -> n.setRead(true));
+            notificationRepository.saveAll(enabledUnread);
+        });
         log.info("Marked all enabled notifications as read for user: {}", userId);
     }
 
@@ -108,17 +115,17 @@ public class NotificationServiceImpl implements NotificationService {
 //        log.info("Marked notification {} as read for user: {}", notificationId, userId);
 //    }
 @Override
-@Transactional
 public void markAsRead(UUID notificationId, UUID userId) {
 
-    User user = userRepository.findUserById(userId).orElseThrow(() -> new OriginalInvoiceBaseException("Invalid user details provided"));
-    NotificationsPreferences preferences = user.getSettings().getNotificationsPreferences();
-    Notification notification = notificationRepository.findById(notificationId)
-            .filter(n -> n.getUser().getId().equals(userId))
-            .orElseThrow(() -> new OriginalInvoiceBaseException("Notification not found"));
-    if (!isNotificationEnabled(notification.getType(), preferences))return;
-    notification.setRead(true);
-    notificationRepository.save(notification);
+    NotificationsPreferences preferences = getPreferences(userId);
+    optimisticRetryExecutor.run("notification.mark-read", () -> {
+        Notification notification = notificationRepository.findById(notificationId)
+                .filter(n -> n.getUser().getId().equals(userId))
+                .orElseThrow(() -> new OriginalInvoiceBaseException("Notification not found"));
+        if (!isNotificationEnabled(notification.getType(), preferences))return;
+        notification.setRead(true);
+        notificationRepository.save(notification);
+    });
     log.info("Marked notification {} as read for user {}", notificationId, userId);
 }
 
@@ -127,7 +134,7 @@ public void markAsRead(UUID notificationId, UUID userId) {
     public void sendRealTimeNotification(User user, String title, String message, NotificationType type) {
         try {
             // Temporarily disable Pusher for testing
-            log.info("Would send real-time notification to user {}: {} (Pusher disabled for testing)", user.getEmail(), title);
+            log.info("Would send real-time notification to user {}: {} (Pusher disabled for testing)", user.getId(), title);
             
             /* TODO: Re-enable when Pusher is properly configured
             Map<String, Object> data = new HashMap<>();
@@ -144,10 +151,20 @@ public void markAsRead(UUID notificationId, UUID userId) {
             */
             
         } catch (Exception e) {
-            log.error("Error sending real-time notification to user {}: {}", user.getEmail(), e.getMessage());
+            log.error("Error sending real-time notification to user {}: {}", user.getId(), e.getMessage());
         }
     }
 
+    private NotificationsPreferences getPreferences(UUID userId) {
+        // The caller's own preferences are already on the request; only other users need a lookup
+        Optional<CurrentUser> currentUser = currentUserHolder.get();
+        if (currentUser.isPresent() && currentUser.get().getId().equals(userId)) {
+            return currentUser.get().getNotificationsPreferences();
+        }
+        User user = userRepository.findUserById(userId).orElseThrow(() -> new OriginalInvoiceBaseException("Invalid user details provided"));
+        return user.getSettings().getNotificationsPreferences();
+    }
+
     private boolean isNotificationEnabled(NotificationType type, NotificationsPreferences preferences) {
         return switch (type) {
 
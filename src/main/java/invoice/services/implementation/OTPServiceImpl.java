@@ -7,26 +7,82 @@ import invoice.data.models.VerificationToken;
 import invoice.data.repositories.UserRepository;
 import invoice.data.repositories.VerificationTokenRepository;
 import invoice.exception.BusinessException;
+import invoice.security.config.RsaKeyProperties;
 import invoice.services.EmailService;
 import invoice.services.OTPService;
+import invoice.utiils.TokenBucketRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * OTPs are issued with a single upsert and stored as an HMAC, never in clear.
+ * Send rate limits (per email and per client IP) are in-memory token buckets checked before any
+ * database or Mailgun work. Failed attempts are counted in memory and written behind in batches.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OTPServiceImpl implements OTPService {
-    
+    private static final int OTP_VALIDITY_MINUTES = 10;
+    private static final int TOKEN_VALIDITY_HOURS = 24;
+    private static final int MAX_ATTEMPTS = 5;
+
     private final VerificationTokenRepository tokenRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final RsaKeyProperties rsaKeyProperties;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
     private final SecureRandom secureRandom = new SecureRandom();
+    // Failed attempts not yet written to the token row, by user id
+    private final Map<UUID, PendingAttempts> pendingAttempts = new ConcurrentHashMap<>();
+
+    @Value("${app.otp.hmac-secret:}")
+    private String hmacSecret;
+    @Value("${app.otp.email-send-capacity:3}")
+    private int emailSendCapacity;
+    @Value("${app.otp.email-send-refill-ms:120000}")
+    private long emailSendRefillMs;
+    @Value("${app.otp.ip-send-capacity:20}")
+    private int ipSendCapacity;
+    @Value("${app.otp.ip-send-refill-ms:30000}")
+    private long ipSendRefillMs;
+
+    private SecretKeySpec hmacKey;
+    private TokenBucketRateLimiter emailSendLimiter;
+    private TokenBucketRateLimiter ipSendLimiter;
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        // Without a dedicated secret, derive one from the JWT signing key so hashes survive restarts
+        byte[] secret = hmacSecret.isBlank()
+                ? MessageDigest.getInstance("SHA-256").digest(rsaKeyProperties.privateKey().getEncoded())
+                : hmacSecret.getBytes(StandardCharsets.UTF_8);
+        hmacKey = new SecretKeySpec(secret, "HmacSHA256");
+        emailSendLimiter = new TokenBucketRateLimiter(emailSendCapacity, emailSendRefillMs);
+        ipSendLimiter = new TokenBucketRateLimiter(ipSendCapacity, ipSendRefillMs);
+    }
 
     @Override
     public String generateOTP() {
@@ -37,109 +93,33 @@ public class OTPServiceImpl implements OTPService {
 
 
     @Override
-    @Transactional
-    public VerificationToken createOTPToken(User user) {
-        log.info("Creating OTP token for user: id={}, email={}", user.getId(), user.getEmail());
-        
-        // Try to find existing token and update it instead of creating new one
-        Optional<VerificationToken> existingTokenOpt = tokenRepository.findByUser(user);
-        
-        if (existingTokenOpt.isPresent()) {
-            log.info("Found existing token for user: {}, updating it", user.getEmail());
-            VerificationToken existingToken = existingTokenOpt.get();
-            
-            // Update the existing token with new OTP and reset expiry
-            existingToken.setOtp(generateOTP());
-            existingToken.setOtpExpiryDate(LocalDateTime.now().plusMinutes(10));
-            existingToken.resetOtpAttempts();
-            existingToken.setVerificationType(VerificationToken.VerificationType.OTP);
-            
-            try {
-                VerificationToken savedToken = tokenRepository.save(existingToken);
-                log.info("Successfully updated existing OTP token for user: {}", user.getEmail());
-                return savedToken;
-            } catch (Exception e) {
-                log.error("Failed to update existing OTP token for user {}: {}", user.getEmail(), e.getMessage(), e);
-                throw new BusinessException("Failed to update verification token: " + e.getMessage());
-            }
-        } else {
-            log.info("No existing token found for user: {}, creating new one", user.getEmail());
-            
-            // Create new OTP token
-            VerificationToken token = new VerificationToken(user, VerificationToken.VerificationType.OTP);
-            token.setOtp(generateOTP());
-            
-            try {
-                VerificationToken savedToken = tokenRepository.save(token);
-                log.info("Successfully created new OTP token for user: {}", user.getEmail());
-                return savedToken;
-            } catch (Exception e) {
-                log.error("Failed to create new OTP token for user {}: {}", user.getEmail(), e.getMessage(), e);
-                
-                // If we get a constraint violation, it means a token was created between our check and save
-                // Try to find and update the existing token
-                try {
-                    log.info("Attempting to find and update token that was created concurrently for user: {}", user.getEmail());
-                    Optional<VerificationToken> concurrentToken = tokenRepository.findByUser(user);
-                    if (concurrentToken.isPresent()) {
-                        VerificationToken existingToken = concurrentToken.get();
-                        existingToken.setOtp(generateOTP());
-                        existingToken.setOtpExpiryDate(LocalDateTime.now().plusMinutes(10));
-                        existingToken.resetOtpAttempts();
-                        existingToken.setVerificationType(VerificationToken.VerificationType.OTP);
-                        
-                        VerificationToken savedToken = tokenRepository.save(existingToken);
-                        log.info("Successfully updated concurrent token for user: {}", user.getEmail());
-                        return savedToken;
-                    }
-                } catch (Exception e2) {
-                    log.error("Failed to handle concurrent token creation for user {}: {}", user.getEmail(), e2.getMessage(), e2);
-                }
-                
-                throw new BusinessException("Failed to create verification token: " + e.getMessage());
-            }
-        }
+    public String createOTPToken(User user) {
+        log.info("Creating OTP token for user: {}", user.getId());
+        checkSendRate(user.getEmail());
+        return issueOtp(user);
     }
 
     @Override
-    public boolean validateOTP(String email, String otp) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("User not found"));
-        
-        Optional<VerificationToken> tokenOpt = tokenRepository.findByUser(user);
-        if (tokenOpt.isEmpty()) {
-            throw new BusinessException("No verification token found. Please request a new OTP.");
-        }
-        
-        VerificationToken token = tokenOpt.get();
-        
-        // Check if OTP has expired
-        if (token.isOtpExpired())
-            throw new BusinessException("OTP has expired. Please request a new one.");
+    public String createOTPTokenAfterRateCheck(User user) {
+        log.info("Creating OTP token for user: {}", user.getId());
+        return issueOtp(user);
+    }
 
+    @Override
+    public boolean validateOTP(String email, String otp) {
+        VerificationToken token = tokenRepository.findByUserEmail(email)
+                .orElseThrow(() -> new BusinessException("No verification token found. Please request a new OTP."));
         
-        // Check if max attempts exceeded
-        if (token.hasExceededMaxAttempts()) {
-            tokenRepository.delete(token);
-            throw new BusinessException("Maximum OTP attempts exceeded. Please request a new OTP.");
-        }
-        
-        // Validate OTP
-        if (!otp.equals(token.getOtp())) {
-            token.incrementAttempts();
-            tokenRepository.save(token);
-            
-            int remainingAttempts = token.getMaxAttempts() - token.getOtpAttempts();
-            throw new BusinessException("Invalid OTP. " + remainingAttempts + " attempts remaining.");
-        }
+        checkOtp(token, otp);
         
         // OTP is valid - verify user and cleanup
+        User user = token.getUser();
         user.setVerified(true);
         user.setStatus(UserStatus.VERIFIED);
         userRepository.save(user);
         
         // Delete the token after successful verification
-        tokenRepository.delete(token);
+        deleteToken(token);
         
         // Send welcome email
         try {
@@ -152,7 +132,6 @@ public class OTPServiceImpl implements OTPService {
     }
 
     @Override
-    @Transactional
     public boolean resendOTP(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BusinessException("User not found"));
@@ -161,12 +140,12 @@ public class OTPServiceImpl implements OTPService {
             throw new BusinessException("This account has already been verified.");
         }
         
-        // Create new OTP token (this will delete the existing one)
-        VerificationToken newToken = createOTPToken(user);
+        // Replaces the code of the existing token
+        String otp = createOTPToken(user);
         
         // Send OTP email
         try {
-            emailService.sendOTPEmail(user.getEmail(), user.getEmail(), newToken.getOtp());
+            emailService.sendOTPEmail(user.getEmail(), user.getEmail(), otp);
             return true;
         } catch (Exception e) {
             log.error("Failed to send OTP email to {}: {}", user.getEmail(), e.getMessage());
@@ -175,74 +154,16 @@ public class OTPServiceImpl implements OTPService {
     }
 
     @Override
-    @Transactional
-    public VerificationToken createPasswordResetOTPToken(User user) {
-        // Try to find existing token and update it instead of creating new one
-        Optional<VerificationToken> existingTokenOpt = tokenRepository.findByUser(user);
-        
-        if (existingTokenOpt.isPresent()) {
-            VerificationToken existingToken = existingTokenOpt.get();
-            // Update the existing token with new OTP and reset expiry
-            existingToken.setOtp(generateOTP());
-            existingToken.setOtpExpiryDate(LocalDateTime.now().plusMinutes(10));
-            existingToken.resetOtpAttempts();
-            existingToken.setVerificationType(VerificationToken.VerificationType.OTP);
-            try {
-                return tokenRepository.save(existingToken);
-            } catch (Exception e) {
-                log.error("Failed to update existing token for password reset for user {}: {}", user.getEmail(), e.getMessage(), e);
-                throw new BusinessException("Failed to update password reset token: " + e.getMessage());
-            }
-        } else {
-            log.info("No existing token found for user: {}, creating new password reset token", user.getEmail());
-            
-            // Create new password reset OTP token (using OTP type temporarily until migration runs)
-            VerificationToken token = new VerificationToken(user, VerificationToken.VerificationType.OTP);
-            token.setOtp(generateOTP());
-            
-            try {
-                VerificationToken savedToken = tokenRepository.save(token);
-                log.info("Successfully created new password reset OTP token for user: {}", user.getEmail());
-                return savedToken;
-            } catch (Exception e) {
-                log.error("Failed to create new password reset OTP token for user {}: {}", user.getEmail(), e.getMessage(), e);
-                
-                // If we get a constraint violation, it means a token was created between our check and save
-                // Try to find and update the existing token
-                try {
-                    log.info("Attempting to find and update token that was created concurrently for password reset for user: {}", user.getEmail());
-                    Optional<VerificationToken> concurrentToken = tokenRepository.findByUser(user);
-                    if (concurrentToken.isPresent()) {
-                        VerificationToken existingToken = concurrentToken.get();
-                        existingToken.setOtp(generateOTP());
-                        existingToken.setOtpExpiryDate(LocalDateTime.now().plusMinutes(10));
-                        existingToken.resetOtpAttempts();
-                        existingToken.setVerificationType(VerificationToken.VerificationType.OTP);
-                        
-                        VerificationToken savedToken = tokenRepository.save(existingToken);
-                        log.info("Successfully updated concurrent token for password reset for user: {}", user.getEmail());
-                        return savedToken;
-                    }
-                } catch (Exception e2) {
-                    log.error("Failed to handle concurrent token creation for password reset for user {}: {}", user.getEmail(), e2.getMessage(), e2);
-                }
-                
-                throw new BusinessException("Failed to create password reset token: " + e.getMessage());
-            }
-        }
+    public String createPasswordResetOTPToken(User user) {
+        log.info("Creating password reset OTP token for user: {}", user.getId());
+        checkSendRate(user.getEmail());
+        return issueOtp(user);
     }
 
     @Override
     public boolean validatePasswordResetOTP(String email, String otp) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("User not found"));
-        
-        Optional<VerificationToken> tokenOpt = tokenRepository.findByUser(user);
-        if (tokenOpt.isEmpty()) {
-            throw new BusinessException("No password reset token found. Please request a new OTP.");
-        }
-        
-        VerificationToken token = tokenOpt.get();
+        VerificationToken token = tokenRepository.findByUserEmail(email)
+                .orElseThrow(() -> new BusinessException("No password reset token found. Please request a new OTP."));
         
         // Check if this is a password reset token (temporarily accepting OTP type until migration runs)
         if (token.getVerificationType() != VerificationToken.VerificationType.OTP && 
@@ -250,25 +171,7 @@ public class OTPServiceImpl implements OTPService {
             throw new BusinessException("Invalid token type. Please request a password reset.");
         }
         
-        // Check if OTP has expired
-        if (token.isOtpExpired()) {
-            throw new BusinessException("OTP has expired. Please request a new one.");
-        }
-        
-        // Check if max attempts exceeded
-        if (token.hasExceededMaxAttempts()) {
-            tokenRepository.delete(token);
-            throw new BusinessException("Maximum OTP attempts exceeded. Please request a new OTP.");
-        }
-        
-        // Validate OTP
-        if (!otp.equals(token.getOtp())) {
-            token.incrementAttempts();
-            tokenRepository.save(token);
-            
-            int remainingAttempts = token.getMaxAttempts() - token.getOtpAttempts();
-            throw new BusinessException("Invalid OTP. " + remainingAttempts + " attempts remaining.");
-        }
+        checkOtp(token, otp);
         
         // OTP is valid - don't delete token yet, it will be used for password reset
         return true;
@@ -279,16 +182,143 @@ public class OTPServiceImpl implements OTPService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BusinessException("User not found"));
         
-        // Create new password reset OTP token (this will delete the existing one)
-        VerificationToken newToken = createPasswordResetOTPToken(user);
+        // Replaces the code of the existing token
+        String otp = createPasswordResetOTPToken(user);
         
         // Send password reset OTP email
         try {
-            emailService.sendPasswordResetOTPEmail(user.getEmail(), user.getEmail(), newToken.getOtp());
+            emailService.sendPasswordResetOTPEmail(user.getEmail(), user.getEmail(), otp);
             return true;
         } catch (Exception e) {
             log.error("Failed to send password reset OTP email to {}: {}", user.getEmail(), e.getMessage());
             throw new BusinessException("Failed to send password reset OTP email: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Scheduled(fixedDelayString = "${app.otp.attempt-flush-interval-ms:5000}")
+    public void flushAttempts() {
+        if (pendingAttempts.isEmpty()) return;
+        Map<UUID, PendingAttempts> snapshot = Map.copyOf(pendingAttempts);
+        MapSqlParameterSource[] batch = snapshot.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource("userId", entry.getKey())
+                        .addValue("otpHash", entry.getValue().otpHash())
+                        .addValue("attempts", entry.getValue().attempts()))
+                .toArray(MapSqlParameterSource[]::new);
+        try {
+            // Matching on the hash keeps counts for a replaced code off the new one
+            jdbcTemplate.batchUpdate("UPDATE verification_tokens SET otp_attempts = GREATEST(otp_attempts, :attempts) " +
+                    "WHERE user_id = :userId AND otp_hash = :otpHash", batch);
+            snapshot.forEach(pendingAttempts::remove);
+        } catch (Exception e) {
+            log.warn("Failed to persist {} OTP attempt counters: {}", batch.length, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.cleanup-interval-ms:900000}")
+    public void deleteExpiredTokens() {
+        int deleted = tokenRepository.deleteExpired(LocalDateTime.now());
+        emailSendLimiter.evictIdle();
+        ipSendLimiter.evictIdle();
+        if (deleted > 0) log.info("Deleted {} expired verification tokens", deleted);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushAttempts();
+    }
+
+    private String issueOtp(User user) {
+        String otp = generateOTP();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            tokenRepository.upsertOtp(user.getId(), UUID.randomUUID().toString(), hash(user.getId(), otp),
+                    VerificationToken.VerificationType.OTP.name(),
+                    now.plusHours(TOKEN_VALIDITY_HOURS), now.plusMinutes(OTP_VALIDITY_MINUTES), MAX_ATTEMPTS);
+        } catch (Exception e) {
+            log.error("Failed to store OTP token for user {}: {}", user.getId(), e.getMessage(), e);
+            throw new BusinessException("Failed to create verification token: " + e.getMessage());
+        }
+        return otp;
+    }
+
+    @Override
+    public void checkSendRate(String email) {
+        String clientIp = currentClientIp();
+        if (clientIp != null && !ipSendLimiter.tryAcquire(clientIp)) {
+            log.warn("OTP send rate limit reached for client {}", clientIp);
+            throw new BusinessException("Too many verification code requests. Please try again in a few minutes.");
+        }
+        if (!emailSendLimiter.tryAcquire(email.toLowerCase())) {
+            log.warn("OTP send rate limit reached for {}", email);
+            throw new BusinessException("Too many verification code requests. Please try again in a few minutes.");
+        }
+    }
+
+    /**
+     * Throws unless the code matches; failed attempts are counted against the current code
+     */
+    private void checkOtp(VerificationToken token, String otp) {
+        UUID userId = token.getUser().getId();
+        
+        // Check if OTP has expired
+        if (token.isOtpExpired())
+            throw new BusinessException("OTP has expired. Please request a new one.");
+        
+        if (token.getOtpHash() == null)
+            throw new BusinessException("No verification token found. Please request a new OTP.");
+        
+        // Check if max attempts exceeded
+        int attempts = attempts(token);
+        if (attempts >= token.getMaxAttempts()) {
+            deleteToken(token);
+            throw new BusinessException("Maximum OTP attempts exceeded. Please request a new OTP.");
+        }
+        
+        // Validate OTP
+        if (otp == null || !MessageDigest.isEqual(
+                hash(userId, otp).getBytes(StandardCharsets.US_ASCII),
+                token.getOtpHash().getBytes(StandardCharsets.US_ASCII))) {
+            PendingAttempts recorded = pendingAttempts.compute(userId, (id, pending) ->
+                    pending != null && pending.otpHash().equals(token.getOtpHash())
+                            ? new PendingAttempts(pending.otpHash(), pending.attempts() + 1)
+                            : new PendingAttempts(token.getOtpHash(), attempts + 1));
+            
+            int remainingAttempts = token.getMaxAttempts() - recorded.attempts();
+            throw new BusinessException("Invalid OTP. " + remainingAttempts + " attempts remaining.");
+        }
+    }
+
+    private int attempts(VerificationToken token) {
+        PendingAttempts pending = pendingAttempts.get(token.getUser().getId());
+        if (pending == null || !pending.otpHash().equals(token.getOtpHash())) return token.getOtpAttempts();
+        return Math.max(token.getOtpAttempts(), pending.attempts());
+    }
+
+    private void deleteToken(VerificationToken token) {
+        pendingAttempts.remove(token.getUser().getId());
+        tokenRepository.delete(token);
+    }
+
+    // Keyed by user so equal codes never produce equal hashes across users
+    private String hash(UUID userId, String otp) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            byte[] digest = mac.doFinal((userId + ":" + otp).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // Null outside a request. With server.forward-headers-strategy=native the remote address is the
+    // X-Forwarded-For hop just before our trusted proxies, which a client cannot choose
+    private static String currentClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return null;
+        return servletAttributes.getRequest().getRemoteAddr();
+    }
+
+    private record PendingAttempts(String otpHash, int attempts) {
+    }
+}
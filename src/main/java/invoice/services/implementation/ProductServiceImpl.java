@@ -7,11 +7,15 @@ import invoice.data.repositories.ProductRepository;
 import invoice.dtos.request.ProductRequest;
 import invoice.dtos.response.ProductResponse;
 import invoice.exception.ResourceNotFoundException;
+import invoice.services.DataLifecycleService;
 import invoice.services.ProductService;
 import invoice.services.UserService;
+import invoice.utiils.StatementTimeout;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,12 +23,17 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static invoice.utiils.ServiceUtils.*;
+
 @Service
 @AllArgsConstructor
+@Slf4j
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ModelMapper modelMapper;
     private final UserService userService;
+    private final DataLifecycleService dataLifecycleService;
+    private final StatementTimeout statementTimeout;
 
     @Override
     public ProductResponse addProduct(String email, ProductRequest productRequest) {
@@ -91,17 +100,35 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ProductResponse> searchUserProducts(String email, String query, Integer limit) {
+        String term = normalizeSearchTerm(query);
+        if (term == null) return List.of();
+        UUID userId = userService.getUserIdByEmail(email);
+        try {
+            return statementTimeout.readOnly(ProductServiceImpl.class.getName() + ".searchUserProducts", SEARCH_TIMEOUT_MS,
+                    () -> productRepository.searchByUser(userId, term, toLikePrefix(term), clampSearchLimit(limit))
+                            .stream()
+                            .map(ProductResponse::new)
+                            .collect(Collectors.toList()));
+        } catch (QueryTimeoutException e) {
+            // Typeahead is best effort: an empty list beats a slow suggestion box
+            log.warn("Product search for user {} exceeded its latency budget", userId);
+            return List.of();
+        }
+    }
+
     @Override
     public String deleteAllUserProducts(String email) {
-        List<Product> products = productRepository.findAllByUserEmail(email);
-        if (!products.isEmpty()) productRepository.deleteAll(products);
+        long deleted = dataLifecycleService.deleteUserProducts(userService.getUserIdByEmail(email));
+        log.info("Deleted {} products", deleted);
         return "products deleted successfully";
     }
 
     @Override
     public String deleteAllProducts() {
-        List<Product> products = productRepository.findAll();
-        if (!products.isEmpty()) productRepository.deleteAll(products);
+        long deleted = dataLifecycleService.deleteAllProducts();
+        log.info("Deleted {} products", deleted);
         return "products deleted successfully";
     }
 
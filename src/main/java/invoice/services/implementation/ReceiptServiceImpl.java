@@ -1,10 +1,13 @@
 package invoice.services.implementation;
 
 import invoice.data.models.Receipt;
+import invoice.data.projections.ReceiptVersionProjection;
 import invoice.data.repositories.ReceiptRepository;
 import invoice.dtos.response.ReceiptResponse;
 import invoice.exception.ResourceNotFoundException;
 import invoice.services.ReceiptService;
+import invoice.utiils.DocumentResponseCache;
+import invoice.utiils.HttpCaching;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,15 +20,25 @@ import java.util.UUID;
 public class ReceiptServiceImpl implements ReceiptService {
     
     private final ReceiptRepository receiptRepository;
+    private final DocumentResponseCache documentResponseCache;
     
     @Override
     public ReceiptResponse getReceiptById(UUID receiptId) {
-        log.info("Fetching receipt with ID: {}", receiptId);
-        
-        Receipt receipt = receiptRepository.findByIdWithInvoice(receiptId)
+        ReceiptVersionProjection current = getReceiptVersion(receiptId);
+        return documentResponseCache.get(receiptId, HttpCaching.etag(current.getVersion(), current.getInvoiceVersion()), () -> {
+            log.info("Fetching receipt with ID: {}", receiptId);
+            
+            Receipt receipt = receiptRepository.findByIdWithInvoice(receiptId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Receipt not found with ID: " + receiptId));
+            
+            return new ReceiptResponse(receipt);
+        });
+    }
+    
+    @Override
+    public ReceiptVersionProjection getReceiptVersion(UUID receiptId) {
+        return receiptRepository.findVersionById(receiptId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receipt not found with ID: " + receiptId));
-        
-        return new ReceiptResponse(receipt);
     }
     
     @Override
@@ -0,0 +1,205 @@
+package invoice.services.implementation;
+
+import invoice.data.constants.CustomerType;
+import invoice.data.constants.TaxType;
+import invoice.data.models.Tax;
+import invoice.data.projections.TaxTableFingerprintProjection;
+import invoice.data.repositories.TaxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory, versioned copy of the tax table.
+ * Readers always see a complete immutable snapshot; writers build a new snapshot
+ * and swap it in atomically (copy-on-write). Other nodes pick up changes by polling
+ * a cheap count/last-modified fingerprint of the _taxes table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaxRateCache {
+    private final TaxRepository taxRepository;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    public Optional<Tax> findById(UUID id) {
+        return current().findById(id);
+    }
+
+    /**
+     * Rebuild the table from the database (startup, bulk changes, other nodes)
+     */
+    public Snapshot reload() {
+        TaxTableFingerprintProjection fingerprint = taxRepository.getTaxTableFingerprint();
+        List<Tax> taxes = taxRepository.findAll();
+        Snapshot snapshot = swap(previous -> new Snapshot(nextVersion(previous), taxes, Fingerprint.of(fingerprint)));
+        log.info("Loaded tax table version {} with {} taxes", snapshot.getVersion(), taxes.size());
+        return snapshot;
+    }
+
+    /**
+     * Apply a saved tax to the table on this node
+     */
+    public void put(Tax tax) {
+        TaxTableFingerprintProjection fingerprint = taxRepository.getTaxTableFingerprint();
+        swap(previous -> {
+            Map<UUID, Tax> taxes = previous != null ? new LinkedHashMap<>(previous.byId) : new LinkedHashMap<>();
+            taxes.put(tax.getId(), tax);
+            return new Snapshot(nextVersion(previous), taxes.values(), Fingerprint.of(fingerprint));
+        });
+    }
+
+    /**
+     * Drop a deleted tax from the table on this node
+     */
+    public void remove(UUID id) {
+        TaxTableFingerprintProjection fingerprint = taxRepository.getTaxTableFingerprint();
+        swap(previous -> {
+            Map<UUID, Tax> taxes = previous != null ? new LinkedHashMap<>(previous.byId) : new LinkedHashMap<>();
+            taxes.remove(id);
+            return new Snapshot(nextVersion(previous), taxes.values(), Fingerprint.of(fingerprint));
+        });
+    }
+
+    /**
+     * Change notification across nodes: reload when another node has modified the tax table
+     */
+    @Scheduled(fixedDelayString = "${app.tax-cache.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) return;
+        try {
+            Fingerprint latest = Fingerprint.of(taxRepository.getTaxTableFingerprint());
+            if (!latest.equals(snapshot.fingerprint)) {
+                log.info("Tax table changed on another node, reloading");
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to check tax table for changes: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot swap(UnaryOperator<Snapshot> update) {
+        return current.updateAndGet(update);
+    }
+
+    private static long nextVersion(Snapshot previous) {
+        return previous != null ? previous.version + 1 : 1;
+    }
+
+    private static Tax copyOf(Tax tax) {
+        return new Tax(tax.getId(), tax.getName(), tax.getTaxType(), tax.getBaseTaxRate(),
+                tax.getIndividualRate(), tax.getBusinessRate(), tax.getDescription(), tax.isActive(),
+                tax.getCreatedAt(), tax.getUpdatedAt());
+    }
+
+    private record Fingerprint(long taxCount, LocalDateTime lastModified) {
+        static Fingerprint of(TaxTableFingerprintProjection projection) {
+            if (projection == null) return new Fingerprint(0, null);
+            return new Fingerprint(projection.getTaxCount() != null ? projection.getTaxCount() : 0,
+                    projection.getLastModified());
+        }
+    }
+
+    /**
+     * Immutable view of the tax table with applicable rates precomputed per customer type
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Fingerprint fingerprint;
+        private final Map<UUID, Tax> byId;
+        private final List<Tax> active;
+        private final Map<TaxType, List<Tax>> activeByType;
+        private final Map<CustomerType, List<Tax>> applicableByCustomerType;
+        private final Map<UUID, Map<CustomerType, BigDecimal>> applicableRates;
+
+        private Snapshot(long version, Collection<Tax> taxes, Fingerprint fingerprint) {
+            this.version = version;
+            this.fingerprint = fingerprint;
+
+            Map<UUID, Tax> byId = new LinkedHashMap<>();
+            Map<UUID, Map<CustomerType, BigDecimal>> applicableRates = new HashMap<>();
+            for (Tax tax : taxes) {
+                Tax copy = copyOf(tax);
+                byId.put(copy.getId(), copy);
+
+                Map<CustomerType, BigDecimal> rates = new EnumMap<>(CustomerType.class);
+                for (CustomerType customerType : CustomerType.values()) {
+                    rates.put(customerType, copy.getApplicableRate(customerType));
+                }
+                applicableRates.put(copy.getId(), Collections.unmodifiableMap(rates));
+            }
+
+            List<Tax> active = byId.values().stream().filter(Tax::isActive).toList();
+
+            Map<TaxType, List<Tax>> activeByType = new EnumMap<>(TaxType.class);
+            for (TaxType taxType : TaxType.values()) {
+                activeByType.put(taxType, active.stream().filter(tax -> tax.getTaxType() == taxType).toList());
+            }
+
+            Map<CustomerType, List<Tax>> applicableByCustomerType = new EnumMap<>(CustomerType.class);
+            for (CustomerType customerType : CustomerType.values()) {
+                applicableByCustomerType.put(customerType, active.stream()
+                        .filter(tax -> applicableRates.get(tax.getId()).get(customerType).compareTo(BigDecimal.ZERO) > 0)
+                        .toList());
+            }
+
+            this.byId = Collections.unmodifiableMap(byId);
+            this.active = active;
+            this.activeByType = Collections.unmodifiableMap(activeByType);
+            this.applicableByCustomerType = Collections.unmodifiableMap(applicableByCustomerType);
+            this.applicableRates = Collections.unmodifiableMap(applicableRates);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Optional<Tax> findById(UUID id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        public Collection<Tax> findAll() {
+            return byId.values();
+        }
+
+        public List<Tax> findActive() {
+            return active;
+        }
+
+        public List<Tax> findActiveByType(TaxType taxType) {
+            return taxType != null ? activeByType.get(taxType) : List.of();
+        }
+
+        /**
+         * Active taxes with a positive rate for the given client type
+         */
+        public List<Tax> findApplicable(CustomerType customerType) {
+            if (customerType == null) {
+                return active.stream()
+                        .filter(tax -> tax.getApplicableRate(null).compareTo(BigDecimal.ZERO) > 0)
+                        .toList();
+            }
+            return applicableByCustomerType.get(customerType);
+        }
+
+        public BigDecimal getApplicableRate(UUID taxId, CustomerType customerType) {
+            Tax tax = byId.get(taxId);
+            if (tax == null) return BigDecimal.ZERO;
+            if (customerType == null) return tax.getApplicableRate(null);
+            return applicableRates.get(taxId).get(customerType);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,11 +25,13 @@ import java.util.stream.Collectors;
 public class TaxServiceImpl implements TaxService {
     private final TaxRepository taxRepository;
     private final ModelMapper modelMapper;
+    private final TaxRateCache taxRateCache;
 
     @Override
     public TaxResponse addTax(TaxRequest request) {
         Tax tax = modelMapper.map(request, Tax.class);
         taxRepository.save(tax);
+        taxRateCache.put(tax);
         log.info("Created new tax: {} ({})", tax.getName(), tax.getTaxType());
         return new TaxResponse(tax);
     }
@@ -38,6 +41,7 @@ public class TaxServiceImpl implements TaxService {
         Tax tax = getTax(id);
         modelMapper.map(request, tax);
         taxRepository.save(tax);
+        taxRateCache.put(tax);
         log.info("Updated tax: {} ({})", tax.getName(), tax.getTaxType());
         return new TaxResponse(tax);
     }
@@ -49,13 +53,14 @@ public class TaxServiceImpl implements TaxService {
 
     @Override
     public TaxResponse findById(UUID id) {
-        Tax tax = getTax(id);
+        Tax tax = taxRateCache.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Tax not found"));
         return new TaxResponse(tax);
     }
 
     @Override
     public List<TaxResponse> findAll() {
-        List<Tax> taxes = taxRepository.findAll();
+        Collection<Tax> taxes = taxRateCache.current().findAll();
         if(taxes.isEmpty()) return List.of();
         return taxes.stream().map(TaxResponse::new)
                 .collect(Collectors.toList());
@@ -63,28 +68,21 @@ public class TaxServiceImpl implements TaxService {
     
     @Override
     public List<TaxResponse> findActiveTaxes() {
-        List<Tax> taxes = taxRepository.findByIsActiveTrue();
+        List<Tax> taxes = taxRateCache.current().findActive();
         return taxes.stream().map(TaxResponse::new)
                 .collect(Collectors.toList());
     }
     
     @Override
     public List<TaxResponse> findByTaxType(TaxType taxType) {
-        List<Tax> taxes = taxRepository.findByTaxTypeAndIsActiveTrue(taxType);
+        List<Tax> taxes = taxRateCache.current().findActiveByType(taxType);
         return taxes.stream().map(TaxResponse::new)
                 .collect(Collectors.toList());
     }
     
     @Override
     public List<TaxResponse> findApplicableTaxes(CustomerType clientType) {
-        List<Tax> allActiveTaxes = taxRepository.findByIsActiveTrue();
-        List<Tax> applicableTaxes = allActiveTaxes.stream()
-                .filter(tax -> {
-                    BigDecimal applicableRate = tax.getApplicableRate(clientType);
-                    return applicableRate != null && applicableRate.compareTo(BigDecimal.ZERO) > 0;
-                })
-                .collect(Collectors.toList());
-        
+        List<Tax> applicableTaxes = taxRateCache.current().findApplicable(clientType);
         return applicableTaxes.stream().map(TaxResponse::new)
                 .collect(Collectors.toList());
     }
@@ -93,13 +91,16 @@ public class TaxServiceImpl implements TaxService {
     public String deleteById(UUID id) {
         Tax tax = getTax(id);
         taxRepository.delete(tax);
+        taxRateCache.remove(id);
         log.info("Deleted tax: {} ({})", tax.getName(), tax.getTaxType());
         return "tax deleted";
     }
 
     @Override
     public String deleteAll() {
-        taxRepository.deleteAll();
+        // Single set-based DELETE instead of loading and removing taxes one by one
+        taxRepository.deleteAllInBatch();
+        taxRateCache.reload();
         log.warn("Deleted all taxes");
         return "all taxes deleted";
     }
@@ -109,6 +110,7 @@ public class TaxServiceImpl implements TaxService {
         // Check if taxes already exist
         if (!taxRepository.findAll().isEmpty()) {
             log.info("Taxes already exist, skipping initialization");
+            taxRateCache.reload();
             return;
         }
         
@@ -134,6 +136,7 @@ public class TaxServiceImpl implements TaxService {
         vatTax.setActive(true);
         taxRepository.save(vatTax);
         
+        taxRateCache.reload();
         log.info("Initialized default taxes: WHT and VAT");
     }
 }
@@ -12,6 +12,9 @@ import invoice.dtos.response.SignUpResponse;
 import invoice.dtos.response.UserResponse;
 import invoice.exception.BusinessException;
 import invoice.exception.ResourceNotFoundException;
+import invoice.security.data.models.CurrentUser;
+import invoice.security.services.CurrentUserHolder;
+import invoice.services.DataLifecycleService;
 import invoice.services.EmailService;
 import invoice.services.OTPService;
 import invoice.services.UserService;
@@ -22,6 +25,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.UnsupportedEncodingException;
@@ -44,6 +48,9 @@ public class UserServiceImpl implements UserService {
     private final OTPService otpService;
     private final VerificationTokenRepository tokenRepository;
     private final Cloudinary cloudinary;
+    private final CurrentUserHolder currentUserHolder;
+    private final DataLifecycleService dataLifecycleService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public boolean verifyUser(String token) {
@@ -109,10 +116,10 @@ public class UserServiceImpl implements UserService {
 
         // Create OTP token and send OTP email
         try {
-            VerificationToken verificationToken = otpService.createOTPToken(user);
+            String otp = otpService.createOTPToken(user);
             log.info("Created OTP token for user: {}", user.getEmail());
 
-            emailService.sendOTPEmail(user.getEmail(), user.getFullName(), verificationToken.getOtp());
+            emailService.sendOTPEmail(user.getEmail(), user.getFullName(), otp);
             log.info("Successfully sent verification OTP to: {}", user.getEmail());
         } catch (Exception e) {
             log.error("Failed to send verification OTP to {}: {}", user.getEmail(), e.getMessage(), e);
@@ -167,10 +174,7 @@ public class UserServiceImpl implements UserService {
     public String deleteUser(UUID id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found."));
-        tokenRepository.findByUser(user).ifPresent(tokenRepository::delete);
-        userRepository.delete(user);
-
-        return "user deleted";
+        return scheduleDeletion(user);
     }
 
     @Override
@@ -205,9 +209,18 @@ public class UserServiceImpl implements UserService {
     public String deleteUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found."));
-        tokenRepository.findByUser(user).ifPresent(tokenRepository::delete);
-        userRepository.delete(user);
-        return "user deleted";
+        return scheduleDeletion(user);
+    }
+
+    /**
+     * Locks the account out immediately, then removes its data in the background
+     */
+    private String scheduleDeletion(User user) {
+        user.setStatus(INACTIVE);
+        user.setCurrentToken(null);
+        userRepository.save(user);
+        UUID jobId = dataLifecycleService.deleteAccountAsync(user.getId());
+        return "user deletion started: " + jobId;
     }
 
     @Override
@@ -228,6 +241,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UUID getUserIdByEmail(String email) {
+        Optional<CurrentUser> currentUser = currentUserHolder.get();
+        if (currentUser.isPresent() && currentUser.get().getEmail().equals(email)) {
+            return currentUser.get().getId();
+        }
         User user = getUserByEmail(email);
         return user.getId();
     }
@@ -277,6 +294,8 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public SignUpResponse register(SignUpRequest signUpRequest) {
+        // Refused sends cost no database work, and hashing and mail happen outside the transaction
+        otpService.checkSendRate(signUpRequest.getEmail());
         boolean existsByEmail = userRepository.existsByEmail(signUpRequest.getEmail());
         if (existsByEmail) throw new BusinessException("user exists with email");
         User user = User.builder()
@@ -288,13 +307,24 @@ public class UserServiceImpl implements UserService {
                 .build();
         user.setRoles(new HashSet<>());
         user.getRoles().add(Role.USER);
-        User savedUser = userRepository.save(user);
-        // Create OTP token and send OTP email
-        VerificationToken verificationToken = otpService.createOTPToken(savedUser);
-        emailService.sendOTPEmail(savedUser.getEmail(), savedUser.getFullName(), verificationToken.getOtp());
+        Registration registration = transactionTemplate.execute(status -> {
+            User savedUser = userRepository.save(user);
+            return new Registration(savedUser, otpService.createOTPTokenAfterRateCheck(savedUser));
+        });
+        User savedUser = registration.user();
+        try {
+            emailService.sendOTPEmail(savedUser.getEmail(), savedUser.getFullName(), registration.otp());
+        } catch (RuntimeException e) {
+            // Nobody can verify the account, so remove it and let the address sign up again
+            transactionTemplate.executeWithoutResult(status -> {
+                tokenRepository.deleteByUser(savedUser);
+                userRepository.deleteById(savedUser.getId());
+            });
+            throw e;
+        }
         SignUpResponse response = new SignUpResponse();
         response.setMessage("User registered successfully.");
-        response.setCreatedAt(user.getCreatedAt());
+        response.setCreatedAt(savedUser.getCreatedAt());
         return response;
     }
 
@@ -355,5 +385,6 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(user);
     }
 
-
+    private record Registration(User user, String otp) {
+    }
 }
@@ -0,0 +1,86 @@
+package invoice.utiils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * The virtual-thread counterpart of a bounded thread pool: at most {@code maxConcurrency} tasks run at once,
+ * up to {@code queueCapacity} more wait (parked on their own virtual thread), and a task beyond that is
+ * handled by the {@link Overflow} policy straight away instead of blocking the submitter.
+ */
+@Slf4j
+public class BoundedVirtualThreadExecutor implements Executor {
+
+    /**
+     * What happens to a task submitted while the executor is full, mirroring the thread pool policies
+     */
+    public enum Overflow {
+        ABORT, CALLER_RUNS, DISCARD;
+
+        public RejectedExecutionHandler rejectedExecutionHandler() {
+            return switch (this) {
+                case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+                case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+                case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            };
+        }
+    }
+
+    private final String name;
+    private final Overflow overflow;
+    private final SimpleAsyncTaskExecutor threads;
+    // Tasks running or waiting to run
+    private final Semaphore admitted;
+    private final Semaphore running;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency, int queueCapacity, Overflow overflow) {
+        this.name = threadNamePrefix;
+        this.overflow = overflow;
+        this.threads = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        this.threads.setVirtualThreads(true);
+        this.admitted = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            overflow(task);
+            return;
+        }
+        try {
+            threads.execute(() -> {
+                try {
+                    running.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    admitted.release();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    admitted.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    private void overflow(Runnable task) {
+        switch (overflow) {
+            case ABORT -> throw new RejectedExecutionException("Executor " + name + " is saturated");
+            case CALLER_RUNS -> task.run();
+            case DISCARD -> log.debug("Executor {} is saturated, discarding a task", name);
+        }
+    }
+}
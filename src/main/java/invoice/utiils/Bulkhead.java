@@ -0,0 +1,221 @@
+package invoice.utiils;
+
+import invoice.config.IntegrationProperties.BulkheadSettings;
+import invoice.dtos.response.IntegrationStatusResponse;
+import invoice.exception.BusinessException;
+import invoice.exception.IntegrationUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Isolates calls to one external integration.
+ * Calls run on the integration's own bounded pool so a slow upstream can only tie up its own threads;
+ * the caller waits at most the configured timeout, a full pool rejects immediately, and repeated
+ * failures open a circuit breaker that fails fast until a trial call succeeds.
+ * Pools use platform threads even in virtual-thread mode, since several SDKs block inside synchronized code.
+ * Every call is timed as {@code integration.calls}, tagged with the integration and its outcome.
+ */
+@Slf4j
+public class Bulkhead {
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @Getter
+    private final String name;
+    private final BulkheadSettings settings;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer timeoutTimer;
+    private final Timer rejectedTimer;
+
+    public Bulkhead(String name, BulkheadSettings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.executor = new ThreadPoolExecutor(
+                settings.getMaxConcurrent(), settings.getMaxConcurrent(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(settings.getQueueCapacity(), 1)),
+                new CustomizableThreadFactory(name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.successTimer = callTimer(meterRegistry, "success");
+        this.failureTimer = callTimer(meterRegistry, "failure");
+        this.timeoutTimer = callTimer(meterRegistry, "timeout");
+        this.rejectedTimer = callTimer(meterRegistry, "rejected");
+        Gauge.builder("integration.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("integration", name).register(meterRegistry);
+        Gauge.builder("integration.queued", executor, pool -> pool.getQueue().size())
+                .tag("integration", name).register(meterRegistry);
+        Gauge.builder("integration.circuit.open", state, current -> current.get() == CircuitState.CLOSED ? 0 : 1)
+                .tag("integration", name).register(meterRegistry);
+    }
+
+    public <T, E extends Exception> T execute(Call<T, E> call) throws E {
+        return execute(call, result -> false);
+    }
+
+    /**
+     * @param failedResult marks results that should count against the circuit breaker (e.g. 5xx responses)
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T execute(Call<T, E> call, Predicate<T> failedResult) throws E {
+        long start = System.nanoTime();
+        if (!allowRequest()) {
+            rejections.incrementAndGet();
+            record(rejectedTimer, start);
+            throw new IntegrationUnavailableException(name + " is temporarily unavailable, please try again shortly");
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(call::call);
+        } catch (RejectedExecutionException e) {
+            rejections.incrementAndGet();
+            record(rejectedTimer, start);
+            releaseTrial();
+            throw new IntegrationUnavailableException(name + " is busy, please try again shortly");
+        }
+
+        try {
+            T result = future.get(settings.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            boolean failed = failedResult.test(result);
+            if (failed) onFailure(); else onSuccess();
+            record(failed ? failureTimer : successTimer, start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.incrementAndGet();
+            record(timeoutTimer, start);
+            onFailure();
+            throw new IntegrationUnavailableException(name + " did not respond in time");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            releaseTrial();
+            throw new IntegrationUnavailableException(name + " call was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            boolean failed = countsAsFailure(cause);
+            if (failed) onFailure(); else onSuccess();
+            record(failed ? failureTimer : successTimer, start);
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw (E) cause;
+        }
+    }
+
+    public IntegrationStatusResponse status() {
+        return new IntegrationStatusResponse(name, state.get().name(),
+                executor.getActiveCount(), settings.getMaxConcurrent(),
+                executor.getQueue().size(), settings.getQueueCapacity(),
+                successes.get(), failures.get(), timeouts.get(), rejections.get());
+    }
+
+    public CircuitState getCircuitState() {
+        return state.get();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean allowRequest() {
+        CircuitState current = state.get();
+        if (current == CircuitState.CLOSED) return true;
+        if (current == CircuitState.OPEN
+                && System.currentTimeMillis() - openedAt >= settings.getOpenDurationMs()) {
+            // Let exactly one trial call through
+            return state.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+        }
+        return false;
+    }
+
+    private void onSuccess() {
+        successes.incrementAndGet();
+        consecutiveFailures.set(0);
+        if (state.getAndSet(CircuitState.CLOSED) != CircuitState.CLOSED) {
+            log.info("Circuit for {} closed", name);
+        }
+    }
+
+    private void onFailure() {
+        failures.incrementAndGet();
+        if (state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN)) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Trial call to {} failed, circuit stays open", name);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= settings.getFailureThreshold()
+                && state.compareAndSet(CircuitState.CLOSED, CircuitState.OPEN)) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Circuit for {} opened after {} consecutive failures", name, consecutiveFailures.get());
+        }
+    }
+
+    // A trial that never reached the upstream should not keep the circuit half-open forever
+    private void releaseTrial() {
+        if (state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN)) {
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    private Timer callTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("integration.calls")
+                .description("Calls to an external integration, including time queued in its bulkhead")
+                .tags("integration", name, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Client errors mean the upstream answered, and rejected input is the caller's fault (e.g. an invalid
+    // grant or a bad token); only count outages, timeouts, 5xx and throttling
+    private static boolean countsAsFailure(Throwable cause) {
+        if (cause instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode().value() == 429;
+        }
+        if (cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            return response.getStatusCode().value() == 429;
+        }
+        return !(cause instanceof BusinessException);
+    }
+}
@@ -0,0 +1,30 @@
+package invoice.utiils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Routes every request of a RestTemplate through a bulkhead; 5xx responses count as failures
+ */
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements ClientHttpRequestInterceptor {
+    private final Bulkhead bulkhead;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        return bulkhead.execute(() -> execution.execute(request, body), BulkheadInterceptor::isServerError);
+    }
+
+    private static boolean isServerError(ClientHttpResponse response) {
+        try {
+            return response.getStatusCode().is5xxServerError();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+}
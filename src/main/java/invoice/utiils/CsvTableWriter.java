@@ -0,0 +1,54 @@
+package invoice.utiils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV in UTF-8, with a byte order mark so Excel does not read it as the local code page.
+ * Text cells starting with a formula character are prefixed with an apostrophe, so a client name
+ * like {@code =HYPERLINK(...)} is shown rather than evaluated when the file is opened.
+ */
+public class CsvTableWriter implements TableWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private boolean started;
+
+    public CsvTableWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public void writeRow(Object[] cells) throws IOException {
+        if (!started) {
+            writer.write('\uFEFF');
+            started = true;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(cells[i] instanceof Number ? TableWriter.text(cells[i]) : escape(TableWriter.text(cells[i])));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private static String escape(String value) {
+        if (value.isEmpty()) return value;
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
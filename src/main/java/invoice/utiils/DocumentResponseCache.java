@@ -0,0 +1,79 @@
+package invoice.utiils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Built responses of the most recently viewed public documents (invoices, receipts), keyed by id and valid
+ * for one version: a shared invoice link opened again is served without reloading and remapping the invoice.
+ * Cached responses are shared between requests and must not be modified.
+ * The access-ordered map is guarded by a ReentrantLock rather than synchronized, so a virtual thread
+ * waiting for it unmounts instead of pinning its carrier.
+ */
+@Component
+public class DocumentResponseCache {
+    private final Map<UUID, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    public DocumentResponseCache(MeterRegistry meterRegistry,
+                                 @Value("${app.document-cache.max-entries:2000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("document.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("document.cache.requests", "result", "miss");
+        Gauge.builder("document.cache.size", this, DocumentResponseCache::size).register(meterRegistry);
+    }
+
+    /**
+     * The response cached for this version of the document, or a freshly loaded one that replaces any older version
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID id, String version, Supplier<T> loader) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.version().equals(version)) {
+                hits.increment();
+                return (T) entry.response();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        T response = loader.get();
+        lock.lock();
+        try {
+            entries.put(id, new Entry(version, response));
+        } finally {
+            lock.unlock();
+        }
+        return response;
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(String version, Object response) {
+    }
+}
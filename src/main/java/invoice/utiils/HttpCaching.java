@@ -0,0 +1,55 @@
+package invoice.utiils;
+
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * ETags and Cache-Control for versioned documents.
+ */
+public final class HttpCaching {
+    // Receipts no longer change; the bound only limits how long a later correction goes unseen
+    private static final Duration SETTLED_MAX_AGE = Duration.ofDays(1);
+
+    private HttpCaching() {
+    }
+
+    /**
+     * A strong ETag made of the document's version numbers
+     */
+    public static String etag(Object... versions) {
+        return Arrays.stream(versions).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * Whether an If-None-Match header names the current ETag (weak comparison, as RFC 9110 asks for GET)
+     */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Documents that can still change: caches keep them but revalidate on every use
+     */
+    public static CacheControl revalidate(boolean shared) {
+        CacheControl cacheControl = CacheControl.noCache();
+        return shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+
+    /**
+     * Settled documents (receipts): served from the cache without revalidation
+     */
+    public static CacheControl settled(boolean shared) {
+        CacheControl cacheControl = CacheControl.maxAge(SETTLED_MAX_AGE).immutable();
+        return shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+}
@@ -0,0 +1,47 @@
+package invoice.utiils;
+
+import invoice.config.IntegrationProperties;
+import invoice.dtos.response.IntegrationStatusResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One bulkhead per external integration, created lazily from {@link IntegrationProperties}
+ */
+@Component
+@RequiredArgsConstructor
+public class IntegrationBulkheads {
+    public static final String MAILGUN = "mailgun";
+    public static final String CLOUDINARY = "cloudinary";
+    public static final String PAYSTACK = "paystack";
+    public static final String TWILIO = "twilio";
+    public static final String TELEGRAM = "telegram";
+    public static final String OAUTH = "oauth";
+
+    private final IntegrationProperties integrationProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public Bulkhead get(String name) {
+        return bulkheads.computeIfAbsent(name, key -> new Bulkhead(key, integrationProperties.settingsFor(key), meterRegistry));
+    }
+
+    public List<IntegrationStatusResponse> status() {
+        return bulkheads.values().stream()
+                .map(Bulkhead::status)
+                .sorted(Comparator.comparing(IntegrationStatusResponse::getName))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
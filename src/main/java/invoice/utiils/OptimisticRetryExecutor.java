@@ -0,0 +1,77 @@
+package invoice.utiils;
+
+import invoice.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write of versioned entities in its own transaction, and runs it again from a fresh
+ * read when another writer committed first. Waits between attempts grow exponentially up to a cap, with
+ * full jitter so the writers that collided do not collide again. Conflicts are counted per operation as
+ * {@code optimistic.conflicts}, and operations that still conflict after the last attempt as
+ * {@code optimistic.exhausted}; those fail with a {@link ConcurrentUpdateException}.
+ * Called inside an existing transaction the work runs once, and the conflict is left to that transaction's owner.
+ */
+@Component
+@Slf4j
+public class OptimisticRetryExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public OptimisticRetryExecutor(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                   @Value("${app.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${app.optimistic-retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                   @Value("${app.optimistic-retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return work.get();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("optimistic.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.exhausted", "operation", operation).increment();
+                    log.warn("{} still conflicted after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw new ConcurrentUpdateException("The record was changed by someone else, please try again");
+                }
+                log.debug("{} conflicted on attempt {}, retrying", operation, attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a conflicting update");
+        }
+    }
+}
@@ -8,6 +8,7 @@ import invoice.exception.BusinessException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
@@ -24,6 +25,7 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 public class PaystackApiClient {
+    @Qualifier("paystackRestTemplate")
     private final RestTemplate externalApiRestTemplate;
 
     @Value("${paystack.api.url}")
@@ -0,0 +1,197 @@
+package invoice.utiils;
+
+import invoice.config.QueryGuardProperties;
+import invoice.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Watches every JDBC statement through the data source proxy.
+ * Statements are counted per request scope and checked against the endpoint's query budget; SELECTs
+ * repeated within one request are reported as N+1 shapes; slow statements are logged with their bind
+ * parameters and, for SELECTs, their EXPLAIN plan (fetched in the background, never inside the caller's transaction).
+ * Findings are published as {@code db.statements}, {@code db.query.repeated}, {@code db.query.slow}
+ * and {@code db.query.budget.exceeded}, tagged with the route.
+ */
+@Slf4j
+public class QueryGuard implements QueryExecutionListener {
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+    private static final String NO_ENDPOINT = "none";
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private final QueryGuardProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final DataSource dataSource;
+    private final Executor explainExecutor;
+    private final Map<String, Long> lastExplainedAt = new ConcurrentHashMap<>();
+
+    public QueryGuard(QueryGuardProperties properties, MeterRegistry meterRegistry,
+                      DataSource dataSource, Executor explainExecutor) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.explainExecutor = explainExecutor;
+    }
+
+    /**
+     * Starts counting the statements of this thread for an HTTP request, until the scope is closed
+     */
+    public QueryScope open(HttpServletRequest request) {
+        return open(null, request);
+    }
+
+    /**
+     * Starts counting the statements of this thread under an explicit endpoint key, e.g. in an integration test
+     */
+    public QueryScope open(String endpoint) {
+        return open(endpoint, null);
+    }
+
+    public static Optional<QueryScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public int budgetFor(String endpoint) {
+        return properties.budgetFor(endpoint);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryScope scope = CURRENT.get();
+        if (scope == null || !properties.isEnforce()) return;
+        String endpoint = scope.getEndpoint();
+        int budget = budgetFor(endpoint);
+        if (budget > 0 && scope.getStatementCount() >= budget) {
+            throw new QueryBudgetExceededException(
+                    endpoint + " exceeded its budget of " + budget + " statements");
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.recordExecution(execInfo.getElapsedTime());
+            for (QueryInfo query : queryInfoList) scope.recordStatement(query.getQuery());
+        }
+        if (execInfo.getElapsedTime() >= properties.getSlowQueryMs()) {
+            onSlowQuery(execInfo, queryInfoList, scope != null ? scope.getEndpoint() : null);
+        }
+    }
+
+    private QueryScope open(String endpoint, HttpServletRequest request) {
+        QueryScope scope = new QueryScope(endpoint, request, this::close);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    private void close(QueryScope scope) {
+        CURRENT.remove();
+        String endpoint = Objects.requireNonNullElse(scope.getEndpoint(), NO_ENDPOINT);
+        DistributionSummary.builder("db.statements")
+                .description("JDBC statements executed per request")
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(scope.getStatementCount());
+
+        scope.getExecutionsBySql().forEach((sql, executions) -> {
+            if (executions >= properties.getRepeatedQueryThreshold() && isSelect(sql)) {
+                meterRegistry.counter("db.query.repeated", "uri", endpoint).increment();
+                log.warn("Possible N+1 on {}: statement ran {} times: {}", endpoint, executions, sql);
+            }
+        });
+
+        int budget = budgetFor(scope.getEndpoint());
+        if (budget > 0 && scope.getStatementCount() > budget) {
+            meterRegistry.counter("db.query.budget.exceeded", "uri", endpoint).increment();
+            log.warn("{} ran {} statements ({} ms), over its budget of {}",
+                    endpoint, scope.getStatementCount(), scope.getTotalTimeMs(), budget);
+        }
+    }
+
+    private void onSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, String endpoint) {
+        String uri = Objects.requireNonNullElse(endpoint, NO_ENDPOINT);
+        meterRegistry.counter("db.query.slow", "uri", uri).increment();
+        for (QueryInfo query : queryInfoList) {
+            List<List<Object>> parameterSets = query.getParametersList().stream()
+                    .map(QueryGuard::bindValues)
+                    .toList();
+            log.warn("Slow query on {} ({} ms{}): {} parameters {}", uri, execInfo.getElapsedTime(),
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    query.getQuery(), parameterSets.stream().map(QueryGuard::describe).collect(Collectors.joining(" ")));
+
+            if (properties.isExplainSlowQueries() && isSelect(query.getQuery()) && parameterSets.size() <= 1) {
+                explainLater(query.getQuery(), parameterSets.isEmpty() ? List.of() : parameterSets.get(0), uri);
+            }
+        }
+    }
+
+    private void explainLater(String sql, List<Object> values, String endpoint) {
+        long now = System.currentTimeMillis();
+        Long previous = lastExplainedAt.get(sql);
+        if (previous != null && now - previous < properties.getExplainIntervalMs()) return;
+        lastExplainedAt.put(sql, now);
+        try {
+            explainExecutor.execute(() -> explain(sql, values, endpoint));
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipped EXPLAIN, explain queue is full");
+        }
+    }
+
+    private void explain(String sql, List<Object> values, String endpoint) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            connection.setReadOnly(true);
+            for (int i = 0; i < values.size(); i++) statement.setObject(i + 1, values.get(i));
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) plan.append(System.lineSeparator()).append(rows.getString(1));
+            }
+            log.warn("Plan of slow query on {}: {}{}", endpoint, sql, plan);
+        } catch (SQLException e) {
+            log.debug("Could not explain {}: {}", sql, e.getMessage());
+        }
+    }
+
+    // Parameter setters record (index, value); setNull records (index, sqlType)
+    private static List<Object> bindValues(List<ParameterSetOperation> operations) {
+        SortedMap<Integer, Object> byIndex = new TreeMap<>();
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            if (args.length == 0 || !(args[0] instanceof Integer index)) continue;
+            boolean isNull = "setNull".equals(operation.getMethod().getName()) || args.length < 2;
+            byIndex.put(index, isNull ? null : args[1]);
+        }
+        return new ArrayList<>(byIndex.values());
+    }
+
+    private static String describe(List<Object> values) {
+        return values.stream()
+                .map(value -> {
+                    String text = String.valueOf(value);
+                    return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+                })
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "select", 0, 6);
+    }
+}
@@ -0,0 +1,28 @@
+package invoice.utiils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens a query scope around each request, so statements issued by the security filters count too
+ */
+@RequiredArgsConstructor
+public class QueryGuardFilter extends OncePerRequestFilter {
+    private final QueryGuard queryGuard;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (QueryScope ignored = queryGuard.open(request)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package invoice.utiils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Statements executed on one thread between {@link QueryGuard#open} and {@link #close()}, usually one HTTP request.
+ * The endpoint is the matched route pattern, known once the request has been dispatched to a handler.
+ */
+public final class QueryScope implements AutoCloseable {
+    private final HttpServletRequest request;
+    private final Consumer<QueryScope> onClose;
+    private String endpoint;
+    private int statementCount;
+    private long totalTimeMs;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    QueryScope(String endpoint, HttpServletRequest request, Consumer<QueryScope> onClose) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.onClose = onClose;
+    }
+
+    public String getEndpoint() {
+        if (endpoint == null && request != null) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) endpoint = request.getMethod() + " " + pattern;
+        }
+        return endpoint;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalTimeMs() {
+        return totalTimeMs;
+    }
+
+    /**
+     * How often each statement ran, keyed by its SQL with placeholders
+     */
+    public Map<String, Integer> getExecutionsBySql() {
+        return executionsBySql;
+    }
+
+    @Override
+    public void close() {
+        onClose.accept(this);
+    }
+
+    void recordExecution(long elapsedMs) {
+        statementCount++;
+        totalTimeMs += elapsedMs;
+    }
+
+    void recordStatement(String sql) {
+        executionsBySql.merge(sql, 1, Integer::sum);
+    }
+}
@@ -0,0 +1,133 @@
+package invoice.utiils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections to read-only transactions started in the routed packages, and primary
+ * connections to everything else. Replicas take turns; one that lags too far behind, or fails to hand out
+ * a connection, is skipped until the next lag check finds it healthy, and reads fall back to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the choice
+ * is made at the first statement, once the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final List<String> routedPackages;
+    private final long maxLagSeconds;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, List<String> routedPackages,
+                                    long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.routedPackages = routedPackages;
+        this.maxLagSeconds = maxLagSeconds;
+        this.meterRegistry = meterRegistry;
+        for (Replica replica : this.replicas) {
+            Gauge.builder("db.replica.lag", replica, current -> current.lagSeconds)
+                    .description("Seconds the replica's replay is behind the primary")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.healthy", replica, current -> current.healthy ? 1 : 0)
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isRoutedReadOnlyTransaction()) return primary.getConnection();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) continue;
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.healthy = false;
+                log.warn("Replica {} unavailable, skipping it until the next lag check: {}", replica.name(), e.getMessage());
+            }
+        }
+        meterRegistry.counter("db.replica.fallback").increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Use the configured credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${app.read-replicas.lag-check-interval-ms:5000}")
+    public void checkReplicationLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                replica.lagSeconds = result.getDouble(1);
+                boolean healthy = replica.lagSeconds <= maxLagSeconds;
+                if (healthy != replica.healthy) {
+                    log.warn("Replica {} is {} ({} s behind)", replica.name(),
+                            healthy ? "back in rotation" : "lagging, reads go to the primary", replica.lagSeconds);
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                if (replica.healthy) log.warn("Replica {} failed its lag check: {}", replica.name(), e.getMessage());
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    // Spring Data opens its own read-only transactions around repository calls; those stay on the primary,
+    // so a read right after a write outside a service transaction still sees it
+    private boolean isRoutedReadOnlyTransaction() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && routedPackages.stream().anyMatch(name::startsWith);
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+    }
+}
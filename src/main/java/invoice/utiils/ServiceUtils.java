@@ -13,6 +13,33 @@ import java.util.Map;
 
 @Slf4j
 public class ServiceUtils {
+    public static final int DEFAULT_SEARCH_LIMIT = 10;
+    public static final int MAX_SEARCH_LIMIT = 25;
+    // Latency budget of a typeahead query
+    public static final long SEARCH_TIMEOUT_MS = 250;
+    private static final int MAX_SEARCH_TERM_LENGTH = 100;
+
+    /**
+     * Lower-cased, trimmed search term, or null when there is nothing to search for
+     */
+    public static String normalizeSearchTerm(String query) {
+        if (query == null) return null;
+        String term = query.trim().toLowerCase();
+        if (term.isEmpty()) return null;
+        return term.length() > MAX_SEARCH_TERM_LENGTH ? term.substring(0, MAX_SEARCH_TERM_LENGTH) : term;
+    }
+
+    /**
+     * LIKE pattern matching values that start with the term, with wildcards in the term escaped
+     */
+    public static String toLikePrefix(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    public static int clampSearchLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_SEARCH_LIMIT;
+        return Math.min(limit, MAX_SEARCH_LIMIT);
+    }
 
     public static String getMediaUrl(MultipartFile mediaFile, Uploader uploader) {
         log.info("Trying to upload image to Cloudinary");
@@ -0,0 +1,38 @@
+package invoice.utiils;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads under a Postgres statement timeout, set with SET LOCAL so it ends with the transaction.
+ * JDBC query timeouts are whole seconds, too coarse for a latency budget in milliseconds. A statement that
+ * runs over is cancelled by the server and surfaces as a {@link org.springframework.dao.QueryTimeoutException}
+ * once the transaction has been rolled back.
+ */
+@Component
+public class StatementTimeout {
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatementTimeout(PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate) {
+        this.transactionManager = transactionManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param operation names the read-only transaction, which decides whether it may go to a read replica
+     */
+    public <T> T readOnly(String operation, long timeoutMs, Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setName(operation);
+        return transaction.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + Math.max(timeoutMs, 1));
+            return work.get();
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package invoice.utiils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a table to a stream one row at a time, so an export never holds more than the current row.
+ * Cells are {@code null}, numbers, dates or anything else written as its string form; the cell array
+ * may be reused by the caller once {@link #writeRow} returns.
+ */
+public interface TableWriter {
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    void writeRow(Object[] cells) throws IOException;
+
+    /**
+     * Completes the document and flushes it; the underlying stream is left open
+     */
+    void finish() throws IOException;
+
+    static String text(Object value) {
+        if (value == null) return "";
+        if (value instanceof LocalDateTime dateTime) return dateTime.format(DATE_TIME);
+        if (value instanceof LocalDate date) return date.toString();
+        if (value instanceof BigDecimal decimal) return decimal.toPlainString();
+        // Doubles in plain notation: 1.25E7 means nothing to a spreadsheet import
+        if (value instanceof Double number) return BigDecimal.valueOf(number).toPlainString();
+        return value.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package invoice.utiils;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.response.BaseResponse;
+import invoice.exception.IntegrationUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static invoice.utiils.IntegrationBulkheads.TELEGRAM;
+
+/**
+ * Outgoing Telegram messages, sent by a few dispatcher threads paced to the bot-wide rate limit.
+ * The requests of one message (e.g. a text and its document) are queued together and sent in order.
+ * A 429 pauses every dispatcher for the retry_after Telegram asks for before the request is retried.
+ */
+@Component
+@Slf4j
+public class TelegramSendQueue {
+    private static final int MAX_RETRIES = 3;
+
+    private final TelegramBot telegramBot;
+    private final IntegrationBulkheads integrationBulkheads;
+    private final BlockingQueue<Outgoing> queue;
+    private final long intervalMs;
+    private final int dispatcherCount;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final List<Thread> dispatchers = new ArrayList<>();
+
+    public TelegramSendQueue(TelegramBot telegramBot, IntegrationBulkheads integrationBulkheads,
+                             @Value("${app.telegram.messages-per-second:25}") int messagesPerSecond,
+                             @Value("${app.telegram.send-queue-capacity:1000}") int queueCapacity,
+                             @Value("${app.telegram.dispatchers:4}") int dispatcherCount) {
+        this.telegramBot = telegramBot;
+        this.integrationBulkheads = integrationBulkheads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.intervalMs = Math.max(1000L / messagesPerSecond, 1);
+        this.dispatcherCount = dispatcherCount;
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 1; i <= dispatcherCount; i++) {
+            Thread dispatcher = new Thread(this::dispatch, "telegram-send-" + i);
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatchers.forEach(Thread::interrupt);
+        if (!queue.isEmpty()) log.warn("Discarding {} queued Telegram messages on shutdown", queue.size());
+        Outgoing outgoing;
+        while ((outgoing = queue.poll()) != null) {
+            outgoing.result().completeExceptionally(new IllegalStateException("Discarded on shutdown"));
+        }
+    }
+
+    /**
+     * Queues the requests for sending in order; fails fast when the queue is full
+     */
+    public void enqueue(long chatId, BaseRequest<?, ?>... requests) {
+        submit(chatId, requests);
+    }
+
+    /**
+     * Like {@link #enqueue}, with a future that completes once every request was sent,
+     * or exceptionally with the reason the first failing one was not
+     */
+    public CompletableFuture<Void> submit(long chatId, BaseRequest<?, ?>... requests) {
+        Outgoing outgoing = new Outgoing(chatId, List.of(requests), new CompletableFuture<>());
+        if (!queue.offer(outgoing)) {
+            throw new IntegrationUnavailableException("Telegram is busy, please try again shortly");
+        }
+        return outgoing.result();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Outgoing outgoing = queue.take();
+                String error = null;
+                for (BaseRequest<?, ?> request : outgoing.requests()) {
+                    // Later parts of a message make no sense without the earlier ones
+                    error = send(outgoing.chatId(), request);
+                    if (error != null) break;
+                }
+                if (error == null) outgoing.result().complete(null);
+                else outgoing.result().completeExceptionally(new IllegalStateException(error));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Telegram dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @return null once sent, otherwise why the request was not delivered
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private String send(long chatId, BaseRequest<?, ?> request) throws InterruptedException {
+        String requestType = request.getClass().getSimpleName();
+        for (int attempt = 1; ; attempt++) {
+            awaitSlot();
+            BaseResponse response;
+            try {
+                response = integrationBulkheads.get(TELEGRAM).execute(() -> telegramBot.execute((BaseRequest) request));
+            } catch (Exception e) {
+                log.warn("Failed to send {} to chat {}: {}", requestType, chatId, e.getMessage());
+                return e.getMessage();
+            }
+            if (response.isOk()) return null;
+
+            if (response.errorCode() == 429 && attempt <= MAX_RETRIES) {
+                Integer retryAfter = response.parameters() != null ? response.parameters().retryAfter() : null;
+                long pauseMs = TimeUnit.SECONDS.toMillis(retryAfter != null ? retryAfter : 1);
+                nextSlot.accumulateAndGet(System.currentTimeMillis() + pauseMs, Math::max);
+                log.warn("Telegram rate limit hit, pausing sends for {} ms", pauseMs);
+                continue;
+            }
+            log.warn("Telegram rejected {} for chat {}: {} {}", requestType, chatId, response.errorCode(), response.description());
+            return "Telegram rejected " + requestType + ": " + response.description();
+        }
+    }
+
+    // Hands out send slots intervalMs apart across all dispatchers
+    private void awaitSlot() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        long slot = nextSlot.getAndUpdate(previous -> Math.max(previous, now) + intervalMs);
+        long waitMs = Math.max(slot, now) - now;
+        if (waitMs > 0) Thread.sleep(waitMs);
+    }
+
+    private record Outgoing(long chatId, List<BaseRequest<?, ?>> requests, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,83 @@
+package invoice.utiils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token buckets keyed by an arbitrary string such as an email or an IP address.
+ * Each key holds up to {@code capacity} tokens and regains one every refill period.
+ * Buckets are updated inside ConcurrentHashMap.compute, so callers only contend on the same hash bin.
+ * Limits are per instance.
+ */
+public class TokenBucketRateLimiter {
+    private final int capacity;
+    private final long refillPeriodMs;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(int capacity, long refillPeriodMs) {
+        this.capacity = capacity;
+        this.refillPeriodMs = refillPeriodMs;
+    }
+
+    public boolean tryAcquire(String key) {
+        return acquireOrDelay(key) == 0;
+    }
+
+    /**
+     * Blocks until a token for the key is available, for callers that pace work rather than reject it
+     */
+    public void acquire(String key) throws InterruptedException {
+        long delayMs;
+        while ((delayMs = acquireOrDelay(key)) > 0) {
+            Thread.sleep(delayMs);
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they are indistinguishable from absent ones
+     */
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        buckets.entrySet().removeIf(entry -> entry.getValue().tokensAt(now) >= capacity);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Takes a token and returns 0, or returns how long until the next token
+    private long acquireOrDelay(String key) {
+        long now = System.currentTimeMillis();
+        long[] delayMs = new long[1];
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) bucket = new Bucket(capacity, now);
+            else bucket.refill(now);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+            } else {
+                delayMs[0] = Math.max((long) Math.ceil((1 - bucket.tokens) * refillPeriodMs), 1);
+            }
+            return bucket;
+        });
+        return delayMs[0];
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+
+        private double tokensAt(long now) {
+            return Math.min(capacity, tokens + (double) (now - updatedAt) / refillPeriodMs);
+        }
+
+        private void refill(long now) {
+            tokens = tokensAt(now);
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package invoice.utiils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A single-sheet XLSX workbook written as it goes: the package parts are emitted up front and the sheet's
+ * rows are deflated straight into the stream, so unlike a workbook built in memory the heap stays flat
+ * however many rows there are. Numbers are numeric cells; everything else is an inline string.
+ */
+public class XlsxTableWriter implements TableWriter {
+    // The row limit of a worksheet
+    private static final int MAX_ROWS = 1_048_576;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+            <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+            </Types>""";
+    private static final String ROOT_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+            </Relationships>""";
+    private static final String WORKBOOK = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+            xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+            <sheets><sheet name="%s" sheetId="1" r:id="rId1"/></sheets></workbook>""";
+    private static final String WORKBOOK_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>\
+            </Relationships>""";
+    private static final String SHEET_START = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <worksheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"><sheetData>""";
+    private static final String SHEET_END = "</sheetData></worksheet>";
+
+    private final ZipOutputStream zip;
+    private final String sheetName;
+    private Writer sheet;
+    private int rowNumber;
+
+    public XlsxTableWriter(OutputStream out, String sheetName) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.sheetName = sheetName;
+    }
+
+    @Override
+    public void writeRow(Object[] cells) throws IOException {
+        if (sheet == null) start();
+        if (rowNumber == MAX_ROWS) {
+            throw new IOException("A worksheet holds at most " + MAX_ROWS + " rows; export a shorter range or as CSV");
+        }
+        rowNumber++;
+        sheet.write("<row r=\"" + rowNumber + "\">");
+        for (int i = 0; i < cells.length; i++) {
+            Object value = cells[i];
+            if (value == null) continue;
+            String reference = column(i) + rowNumber;
+            if (value instanceof Number) {
+                sheet.write("<c r=\"" + reference + "\"><v>" + TableWriter.text(value) + "</v></c>");
+            } else {
+                sheet.write("<c r=\"" + reference + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                sheet.write(escape(TableWriter.text(value)));
+                sheet.write("</t></is></c>");
+            }
+        }
+        sheet.write("</row>");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheet == null) start();
+        sheet.write(SHEET_END);
+        // Flushed, not closed: closing the writer would close the zip and the response under it
+        sheet.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void start() throws IOException {
+        part("[Content_Types].xml", CONTENT_TYPES);
+        part("_rels/.rels", ROOT_RELS);
+        part("xl/workbook.xml", WORKBOOK.formatted(escape(sheetName)));
+        part("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        sheet = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        sheet.write(SHEET_START);
+    }
+
+    private void part(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    // 0 -> A, 25 -> Z, 26 -> AA
+    private static String column(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+            name.insert(0, (char) ('A' + (i - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                default -> {
+                    // Control characters other than tab and line breaks are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') escaped.append(c);
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,257 @@
+-- Schema as previously created by hibernate.ddl-auto=update.
+-- Databases that already hold these tables are baselined at version 1 and skip this script.
+
+CREATE TABLE users (
+    id                uuid         NOT NULL PRIMARY KEY,
+    email             varchar(255) NOT NULL CONSTRAINT uk_users_email UNIQUE,
+    full_name         varchar(255),
+    phone_number      varchar(255),
+    is_verified       boolean      NOT NULL,
+    media_url         varchar(255),
+    password          varchar(255) NOT NULL,
+    current_token     text,
+    status            varchar(255),
+    oauth_provider    varchar(255),
+    oauth_provider_id varchar(255),
+    created_at        timestamp(6),
+    updated_at        timestamp(6)
+);
+
+CREATE TABLE user_roles (
+    user_id uuid NOT NULL REFERENCES users (id),
+    roles   varchar(255)
+);
+
+CREATE TABLE users_settings (
+    id                                     uuid         NOT NULL PRIMARY KEY,
+    user_id                                uuid         NOT NULL CONSTRAINT uk_users_settings_user UNIQUE REFERENCES users (id),
+    business_name                          varchar(255),
+    business_full_name                     varchar(255),
+    registered_business_address            varchar(255),
+    email_address                          varchar(255),
+    phone_number                           varchar(255),
+    business_type                          varchar(255),
+    country                                varchar(255),
+    business_registration_number           varchar(255),
+    business_logo_url                      varchar(255),
+    tax_applied                            varchar(255),
+    tax_id                                 varchar(255),
+    is_enablingvat                         boolean      NOT NULL,
+    is_enablingwht                         boolean      NOT NULL,
+    payment_notifications_enabled          boolean      NOT NULL,
+    invoice_notifications_enabled          boolean      NOT NULL,
+    invoice_reminder_notifications_enabled boolean      NOT NULL,
+    client_notifications_enabled           boolean      NOT NULL,
+    system_notifications_enabled           boolean      NOT NULL,
+    language                               varchar(255) NOT NULL
+);
+
+CREATE TABLE _user_clients (
+    id            uuid NOT NULL PRIMARY KEY,
+    customer_type varchar(255),
+    title         varchar(255),
+    full_name     varchar(255),
+    business_name varchar(255),
+    phone         varchar(255),
+    email         varchar(255),
+    country       varchar(255),
+    created_at    timestamp(6),
+    updated_at    timestamp(6),
+    user_id       uuid REFERENCES users (id)
+);
+
+CREATE TABLE _user_products (
+    id          uuid NOT NULL PRIMARY KEY,
+    user_id     uuid NOT NULL REFERENCES users (id),
+    item_name   varchar(255),
+    category    varchar(255),
+    description varchar(255),
+    quantity    integer,
+    rate        numeric(15, 2),
+    amount      numeric(15, 2),
+    created_at  timestamp(6),
+    updated_at  timestamp(6)
+);
+
+CREATE TABLE _taxes (
+    id              uuid    NOT NULL PRIMARY KEY,
+    name            varchar(255),
+    tax_type        varchar(255),
+    base_tax_rate   numeric(5, 2),
+    individual_rate numeric(5, 2),
+    business_rate   numeric(5, 2),
+    description     varchar(255),
+    is_active       boolean NOT NULL,
+    created_at      timestamp(6),
+    updated_at      timestamp(6)
+);
+
+CREATE TABLE _invoice_recipients (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name       varchar(255),
+    business_name   varchar(255),
+    email           varchar(255),
+    phone           varchar(255),
+    address         varchar(255),
+    customer_type   varchar(255),
+    title           varchar(255),
+    country         varchar(255),
+    business_number varchar(255),
+    fax             varchar(255)
+);
+
+CREATE TABLE _invoice_senders (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name     varchar(255),
+    email         varchar(255),
+    address       varchar(255),
+    phone         varchar(255),
+    business_name varchar(255),
+    invoice_id    uuid
+);
+
+CREATE TABLE _invoices (
+    id                   uuid NOT NULL PRIMARY KEY,
+    user_id              uuid NOT NULL REFERENCES users (id),
+    title                varchar(255),
+    business_owner       varchar(255),
+    invoice_number       varchar(255),
+    invoice_color        varchar(255),
+    logo_url             varchar(255),
+    signature_url        varchar(255),
+    client_id            uuid,
+    sender_id            bigint CONSTRAINT uk_invoices_sender UNIQUE REFERENCES _invoice_senders (id),
+    recipient_id         bigint CONSTRAINT uk_invoices_recipient UNIQUE REFERENCES _invoice_recipients (id),
+    creation_date        timestamp(6),
+    due_date             timestamp(6),
+    payment_terms        varchar(255),
+    account_number       varchar(255),
+    account_name         varchar(255),
+    bank                 varchar(255),
+    status               varchar(255),
+    currency             varchar(255),
+    discount             float(53),
+    subtotal             float(53),
+    total_tax_amount     float(53),
+    total_due            float(53),
+    note                 varchar(255),
+    terms_and_conditions varchar(255)
+);
+
+ALTER TABLE _invoice_senders
+    ADD CONSTRAINT fk_invoice_senders_invoice FOREIGN KEY (invoice_id) REFERENCES _invoices (id);
+
+CREATE TABLE _invoice_items (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    invoice_id  uuid NOT NULL REFERENCES _invoices (id),
+    item_name   varchar(255),
+    category    varchar(255),
+    description varchar(255),
+    quantity    integer,
+    rate        numeric(15, 2),
+    amount      numeric(15, 2)
+);
+
+CREATE TABLE _invoice_taxes (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    invoice_id     uuid           NOT NULL REFERENCES _invoices (id),
+    tax_id         uuid           NOT NULL REFERENCES _taxes (id),
+    applied_rate   numeric(5, 2)  NOT NULL,
+    tax_amount     numeric(15, 2) NOT NULL,
+    taxable_amount numeric(15, 2) NOT NULL
+);
+
+CREATE TABLE _invoice_sequence (
+    id                   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id              uuid    NOT NULL CONSTRAINT uk_invoice_sequence_user UNIQUE REFERENCES users (id),
+    last_sequence_number integer NOT NULL
+);
+
+CREATE TABLE _receipts (
+    id             uuid           NOT NULL PRIMARY KEY,
+    receipt_number varchar(255)   NOT NULL CONSTRAINT uk_receipts_receipt_number UNIQUE,
+    invoice_id     uuid           NOT NULL CONSTRAINT uk_receipts_invoice UNIQUE REFERENCES _invoices (id),
+    payment_date   timestamp(6)   NOT NULL,
+    payment_method varchar(255)   NOT NULL,
+    total_paid     numeric(19, 2) NOT NULL,
+    pdf_url        varchar(500),
+    created_at     timestamp(6)   NOT NULL
+);
+
+CREATE TABLE _receipt_sequences (
+    id                   uuid    NOT NULL PRIMARY KEY,
+    last_sequence_number integer NOT NULL
+);
+
+CREATE TABLE _notifications (
+    id                  uuid         NOT NULL PRIMARY KEY,
+    title               varchar(255) NOT NULL,
+    message             varchar(500) NOT NULL,
+    type                varchar(255) NOT NULL,
+    is_read             boolean      NOT NULL,
+    related_entity_id   uuid,
+    related_entity_type varchar(255),
+    user_id             uuid         NOT NULL REFERENCES users (id),
+    created_at          timestamp(6),
+    updated_at          timestamp(6)
+);
+
+CREATE TABLE payment_transactions (
+    id                uuid NOT NULL PRIMARY KEY,
+    reference         varchar(255),
+    email             varchar(255),
+    amount            float(53),
+    currency          varchar(255),
+    access_code       varchar(255),
+    status            varchar(255),
+    call_back_url     varchar(255),
+    authorization_url varchar(255),
+    payer_name        varchar(255),
+    created_at        timestamp(6),
+    updated_at        timestamp(6)
+);
+
+CREATE TABLE subscriptions (
+    id                         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                    uuid         NOT NULL REFERENCES users (id),
+    plan                       varchar(255) NOT NULL,
+    paystack_subscription_code varchar(255),
+    paystack_customer_code     varchar(255),
+    paystack_email_token       varchar(255),
+    status                     varchar(255) NOT NULL,
+    current_period_start       timestamp(6),
+    current_period_end         timestamp(6),
+    next_payment_date          timestamp(6),
+    invoices_used_this_month   integer,
+    logos_uploaded_this_month  integer,
+    last_reset_date            timestamp(6),
+    created_at                 timestamp(6),
+    updated_at                 timestamp(6),
+    cancelled_at               timestamp(6)
+);
+
+CREATE TABLE telegram_users (
+    id       uuid   NOT NULL PRIMARY KEY,
+    user_id  uuid CONSTRAINT uk_telegram_users_user UNIQUE REFERENCES users (id),
+    chat_id  bigint NOT NULL CONSTRAINT uk_telegram_users_chat_id UNIQUE,
+    username varchar(255) CONSTRAINT uk_telegram_users_username UNIQUE
+);
+
+CREATE TABLE verification_tokens (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token             varchar(255) CONSTRAINT uk_verification_tokens_token UNIQUE,
+    otp               varchar(6),
+    user_id           uuid CONSTRAINT uk_verification_tokens_user UNIQUE REFERENCES users (id),
+    expiry_date       timestamp(6),
+    otp_expiry_date   timestamp(6),
+    verification_type varchar(255),
+    otp_attempts      integer,
+    max_attempts      integer
+);
+
+CREATE TABLE blacklisted_tokens (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token          varchar(1000) NOT NULL,
+    expires_at     timestamp(6) WITH TIME ZONE,
+    blacklisted_at timestamp(6)
+);
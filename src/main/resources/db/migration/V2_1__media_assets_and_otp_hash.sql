@@ -0,0 +1,15 @@
+-- Schema added after the ddl-auto era: the shared media asset registry and hashed OTPs.
+-- Runs on fresh databases (after V1) and on baselined ones alike, hence IF [NOT] EXISTS throughout.
+
+CREATE TABLE IF NOT EXISTS _media_assets (
+    id              uuid         NOT NULL PRIMARY KEY,
+    content_hash    varchar(64)  NOT NULL CONSTRAINT uk_media_assets_content_hash UNIQUE,
+    url             varchar(255) NOT NULL CONSTRAINT uk_media_assets_url UNIQUE,
+    reference_count integer      NOT NULL,
+    created_at      timestamp(6),
+    released_at     timestamp(6)
+);
+
+-- Codes are only ever stored as an HMAC; pending plain-text codes are dropped and have to be requested again
+ALTER TABLE verification_tokens ADD COLUMN IF NOT EXISTS otp_hash varchar(64);
+ALTER TABLE verification_tokens DROP COLUMN IF EXISTS otp;
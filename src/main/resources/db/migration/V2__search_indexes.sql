@@ -0,0 +1,14 @@
+-- Trigram indexes behind client and product typeahead, and the case-insensitive Telegram username lookup.
+-- Previously created at startup by SearchIndexInitializer, hence IF NOT EXISTS.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_user_products_user_id ON _user_products (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_products_item_name_trgm ON _user_products USING gin (lower(item_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_user_clients_user_id ON _user_clients (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_clients_full_name_trgm ON _user_clients USING gin (lower(full_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_clients_business_name_trgm ON _user_clients USING gin (lower(business_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_clients_email_trgm ON _user_clients USING gin (lower(email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_telegram_users_username_lower ON telegram_users (lower(username));
@@ -0,0 +1,90 @@
+-- Indexes for the predicates of the repository queries.
+-- Built CONCURRENTLY so existing tables keep taking writes. CONCURRENTLY cannot run in a transaction block,
+-- so Flyway detects it and runs this whole migration without a transaction (spring.flyway.mixed lets the
+-- DO block below run alongside); a failure part-way leaves the statements before it applied.
+
+-- A concurrent build that fails (deadlock, unique violation, cancelled deploy) leaves its index behind
+-- marked INVALID, and IF NOT EXISTS would then skip it for good. Drop such leftovers so a re-run rebuilds them;
+-- an invalid index is never used for reads, so dropping it only takes the table lock for a moment.
+DO $$
+DECLARE
+    leftover text;
+BEGIN
+    FOR leftover IN
+        SELECT c.relname
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE NOT i.indisvalid AND n.nspname = current_schema() AND c.relname = ANY (ARRAY[
+            'idx_invoices_user_creation_date', 'idx_invoices_user_status_creation_date',
+            'idx_invoices_user_due_date_unpaid', 'idx_invoices_user_invoice_number',
+            'idx_invoice_recipients_email', 'idx_invoice_items_invoice_id', 'idx_invoice_taxes_invoice_id',
+            'idx_invoice_taxes_tax_id', 'idx_invoice_senders_invoice_id', 'idx_notifications_user_created_at',
+            'idx_notifications_user_unread', 'idx_blacklisted_tokens_token',
+            'idx_blacklisted_tokens_expires_at', 'idx_subscriptions_user_id',
+            'idx_subscriptions_paystack_subscription_code', 'idx_payment_transactions_reference',
+            'idx_media_assets_released_at', 'idx_verification_tokens_expiry_date'])
+    LOOP
+        RAISE NOTICE 'Dropping invalid index % left by an interrupted build', leftover;
+        EXECUTE format('DROP INDEX %I', leftover);
+    END LOOP;
+END $$;
+
+-- Invoices: recent list and date-range stats per user
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_user_creation_date
+    ON _invoices (user_id, creation_date DESC);
+
+-- Invoices: stats and payment trends by status; total_due included so the sums are index-only
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_user_status_creation_date
+    ON _invoices (user_id, status, creation_date) INCLUDE (total_due);
+
+-- Invoices: overdue stats only ever look at unpaid invoices
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_user_due_date_unpaid
+    ON _invoices (user_id, due_date) INCLUDE (total_due) WHERE status <> 'PAID';
+
+-- Invoices: duplicate-number check and number generation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_user_invoice_number
+    ON _invoices (user_id, invoice_number);
+
+-- Received-invoice stats look invoices up by the recipient's email
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_recipients_email
+    ON _invoice_recipients (email);
+
+-- Child rows are loaded and deleted by invoice
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_items_invoice_id
+    ON _invoice_items (invoice_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_taxes_invoice_id
+    ON _invoice_taxes (invoice_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_taxes_tax_id
+    ON _invoice_taxes (tax_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_senders_invoice_id
+    ON _invoice_senders (invoice_id);
+
+-- Notifications: newest first per user, and the unread badge
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created_at
+    ON _notifications (user_id, created_at DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_unread
+    ON _notifications (user_id, created_at DESC) WHERE is_read = false;
+
+-- Blacklist checks are equality lookups on long tokens; a hash index stays small
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_blacklisted_tokens_token
+    ON blacklisted_tokens USING hash (token);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_blacklisted_tokens_expires_at
+    ON blacklisted_tokens (expires_at);
+
+-- Subscriptions: per-user plan checks and Paystack webhooks
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_user_id
+    ON subscriptions (user_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_paystack_subscription_code
+    ON subscriptions (paystack_subscription_code);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_transactions_reference
+    ON payment_transactions (reference);
+
+-- Orphaned media cleanup only scans released assets
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_media_assets_released_at
+    ON _media_assets (released_at) WHERE reference_count <= 0;
+
+-- Expired verification token cleanup
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_verification_tokens_expiry_date
+    ON verification_tokens (expiry_date);
@@ -0,0 +1,132 @@
+-- Range partitioning: invoices, their items and taxes by invoice year; notifications by month.
+-- The tables are rewritten, so on a large database run this migration in a maintenance window.
+-- Needs PostgreSQL 15+, where moving an invoice to another year cascades to its items and taxes.
+--
+-- Primary keys of partitioned tables must contain the partition key, so:
+--   * items and taxes carry the invoice date and reference (invoice_id, invoice_creation_date);
+--   * senders and receipts, which stay unpartitioned, lose their foreign key to _invoices;
+--   * the one-to-one unique keys on _invoices.sender_id and recipient_id are dropped.
+-- Rows outside the pre-created partitions land in each table's default partition.
+
+UPDATE _invoices SET creation_date = COALESCE(due_date, date_trunc('day', now())) WHERE creation_date IS NULL;
+UPDATE _notifications SET created_at = COALESCE(updated_at, now()) WHERE created_at IS NULL;
+
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS table_name, conname FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = '_invoices'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE _invoices RENAME TO _invoices_unpartitioned;
+ALTER TABLE _invoice_items RENAME TO _invoice_items_unpartitioned;
+ALTER TABLE _invoice_taxes RENAME TO _invoice_taxes_unpartitioned;
+ALTER TABLE _notifications RENAME TO _notifications_unpartitioned;
+
+CREATE TABLE _invoices (LIKE _invoices_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (creation_date);
+ALTER TABLE _invoices ALTER COLUMN creation_date SET NOT NULL;
+ALTER TABLE _invoices ADD CONSTRAINT pk_invoices PRIMARY KEY (id, creation_date);
+
+CREATE TABLE _invoice_items (LIKE _invoice_items_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (invoice_creation_date);
+ALTER TABLE _invoice_items ADD COLUMN invoice_creation_date timestamp(6) NOT NULL;
+ALTER TABLE _invoice_items ADD CONSTRAINT pk_invoice_items PRIMARY KEY (id, invoice_creation_date);
+
+CREATE TABLE _invoice_taxes (LIKE _invoice_taxes_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (invoice_creation_date);
+ALTER TABLE _invoice_taxes ADD COLUMN invoice_creation_date timestamp(6) NOT NULL;
+ALTER TABLE _invoice_taxes ADD CONSTRAINT pk_invoice_taxes PRIMARY KEY (id, invoice_creation_date);
+
+CREATE TABLE _notifications (LIKE _notifications_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER TABLE _notifications ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE _notifications ADD CONSTRAINT pk_notifications PRIMARY KEY (id, created_at);
+
+-- Yearly partitions from the oldest invoice (at most 15 years back) to next year; monthly notification
+-- partitions from the oldest notification (at most 24 months back) to two months ahead.
+-- InvoiceArchiveService keeps creating the upcoming ones.
+DO $$
+DECLARE
+    this_year       int  := extract(year FROM now())::int;
+    first_year      int  := GREATEST(this_year - 15, COALESCE(
+            (SELECT min(extract(year FROM creation_date))::int FROM _invoices_unpartitioned), this_year));
+    this_month      date := date_trunc('month', now())::date;
+    partition_month date := GREATEST((this_month - interval '24 months')::date, COALESCE(
+            (SELECT date_trunc('month', min(created_at))::date FROM _notifications_unpartitioned), this_month));
+    partition_year  int;
+    parent          text;
+BEGIN
+    FOR partition_year IN first_year..this_year + 1 LOOP
+        FOREACH parent IN ARRAY ARRAY['_invoices', '_invoice_items', '_invoice_taxes'] LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           parent || '_' || partition_year, parent,
+                           make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+        END LOOP;
+    END LOOP;
+    WHILE partition_month <= this_month + interval '2 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF _notifications FOR VALUES FROM (%L) TO (%L)',
+                       '_notifications_' || to_char(partition_month, 'YYYY_MM'),
+                       partition_month, (partition_month + interval '1 month')::date);
+        partition_month := (partition_month + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE TABLE _invoices_default PARTITION OF _invoices DEFAULT;
+CREATE TABLE _invoice_items_default PARTITION OF _invoice_items DEFAULT;
+CREATE TABLE _invoice_taxes_default PARTITION OF _invoice_taxes DEFAULT;
+CREATE TABLE _notifications_default PARTITION OF _notifications DEFAULT;
+
+INSERT INTO _invoices SELECT * FROM _invoices_unpartitioned;
+INSERT INTO _invoice_items SELECT item.*, invoice.creation_date
+    FROM _invoice_items_unpartitioned item JOIN _invoices invoice ON invoice.id = item.invoice_id;
+INSERT INTO _invoice_taxes SELECT tax.*, invoice.creation_date
+    FROM _invoice_taxes_unpartitioned tax JOIN _invoices invoice ON invoice.id = tax.invoice_id;
+INSERT INTO _notifications SELECT * FROM _notifications_unpartitioned;
+
+-- Identity columns become plain sequences (identity on partitioned tables needs PostgreSQL 17)
+CREATE SEQUENCE _invoice_items_id_sequence OWNED BY _invoice_items.id;
+SELECT setval('_invoice_items_id_sequence', COALESCE((SELECT max(id) FROM _invoice_items_unpartitioned), 0) + 1, false);
+ALTER TABLE _invoice_items ALTER COLUMN id SET DEFAULT nextval('_invoice_items_id_sequence');
+
+CREATE SEQUENCE _invoice_taxes_id_sequence OWNED BY _invoice_taxes.id;
+SELECT setval('_invoice_taxes_id_sequence', COALESCE((SELECT max(id) FROM _invoice_taxes_unpartitioned), 0) + 1, false);
+ALTER TABLE _invoice_taxes ALTER COLUMN id SET DEFAULT nextval('_invoice_taxes_id_sequence');
+
+DROP TABLE _invoice_items_unpartitioned;
+DROP TABLE _invoice_taxes_unpartitioned;
+DROP TABLE _invoices_unpartitioned;
+DROP TABLE _notifications_unpartitioned;
+
+ALTER TABLE _invoices ADD CONSTRAINT fk_invoices_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE _invoices ADD CONSTRAINT fk_invoices_sender FOREIGN KEY (sender_id) REFERENCES _invoice_senders (id);
+ALTER TABLE _invoices ADD CONSTRAINT fk_invoices_recipient FOREIGN KEY (recipient_id) REFERENCES _invoice_recipients (id);
+
+-- Deferred: Hibernate inserts new items before it updates a re-dated invoice
+ALTER TABLE _invoice_items ADD CONSTRAINT fk_invoice_items_invoice
+    FOREIGN KEY (invoice_id, invoice_creation_date) REFERENCES _invoices (id, creation_date)
+    ON UPDATE CASCADE DEFERRABLE INITIALLY DEFERRED;
+ALTER TABLE _invoice_taxes ADD CONSTRAINT fk_invoice_taxes_invoice
+    FOREIGN KEY (invoice_id, invoice_creation_date) REFERENCES _invoices (id, creation_date)
+    ON UPDATE CASCADE DEFERRABLE INITIALLY DEFERRED;
+ALTER TABLE _invoice_taxes ADD CONSTRAINT fk_invoice_taxes_tax FOREIGN KEY (tax_id) REFERENCES _taxes (id);
+ALTER TABLE _notifications ADD CONSTRAINT fk_notifications_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- The V3 indexes, now per partition; lookups by id use the primary key
+CREATE INDEX idx_invoices_user_creation_date ON _invoices (user_id, creation_date DESC);
+CREATE INDEX idx_invoices_user_status_creation_date ON _invoices (user_id, status, creation_date) INCLUDE (total_due);
+CREATE INDEX idx_invoices_user_due_date_unpaid ON _invoices (user_id, due_date) INCLUDE (total_due) WHERE status <> 'PAID';
+CREATE INDEX idx_invoices_user_invoice_number ON _invoices (user_id, invoice_number);
+-- Replaces the dropped unique key: received-invoice stats join from the recipient
+CREATE INDEX idx_invoices_recipient_id ON _invoices (recipient_id);
+CREATE INDEX idx_invoice_items_invoice_id ON _invoice_items (invoice_id);
+CREATE INDEX idx_invoice_taxes_invoice_id ON _invoice_taxes (invoice_id);
+CREATE INDEX idx_invoice_taxes_tax_id ON _invoice_taxes (tax_id);
+CREATE INDEX idx_notifications_user_created_at ON _notifications (user_id, created_at DESC);
+CREATE INDEX idx_notifications_user_unread ON _notifications (user_id, created_at DESC) WHERE is_read = false;
+
+-- Partitions moved to cold storage by InvoiceArchiveService
+CREATE TABLE _archived_partitions (
+    table_name  varchar(255) NOT NULL PRIMARY KEY,
+    tablespace  varchar(255),
+    archived_at timestamp(6) NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Version columns behind the ETags of the public invoice and receipt views.
+-- A constant default is a catalog-only change, so existing rows are not rewritten.
+ALTER TABLE _invoices ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE _receipts ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Version columns for optimistic locking (see OptimisticRetryExecutor).
+ALTER TABLE subscriptions ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE _invoice_sequence ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE _notifications ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Transaction exports look up a payer's transactions by date; built CONCURRENTLY like the V3 indexes,
+-- after dropping an INVALID leftover of an interrupted earlier attempt.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+               WHERE NOT i.indisvalid AND c.oid = to_regclass('idx_payment_transactions_email_created_at')) THEN
+        DROP INDEX idx_payment_transactions_email_created_at;
+    END IF;
+END $$;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_transactions_email_created_at
+    ON payment_transactions (email, created_at);
@@ -0,0 +1,5 @@
+-- Account deletions in progress (see DataLifecycleServiceImpl): set when a deletion is requested and moved
+-- forward by its job, so a deletion whose job died is found and resumed. The user row goes last.
+ALTER TABLE users ADD COLUMN deletion_requested_at timestamp(6);
+ALTER TABLE users ADD COLUMN deletion_heartbeat_at timestamp(6);
+CREATE INDEX idx_users_deletion_requested ON users (deletion_heartbeat_at) WHERE deletion_requested_at IS NOT NULL;
@@ -0,0 +1,27 @@
+-- Bulk delivery progress (see InvoiceDeliveryServiceImpl), so any instance can answer for a batch and
+-- its status survives a restart. Rows go a day after the batch finishes.
+CREATE TABLE _delivery_batches (
+    id          uuid         NOT NULL PRIMARY KEY,
+    email       varchar(255) NOT NULL,
+    total       integer      NOT NULL,
+    created_at  timestamp(6) NOT NULL,
+    finished_at timestamp(6)
+);
+CREATE INDEX idx_delivery_batches_finished_at ON _delivery_batches (finished_at);
+
+CREATE TABLE _delivery_messages (
+    id                  uuid         NOT NULL PRIMARY KEY,
+    batch_id            uuid         NOT NULL REFERENCES _delivery_batches (id) ON DELETE CASCADE,
+    position            integer      NOT NULL,
+    invoice_id          uuid         NOT NULL,
+    invoice_number      varchar(255),
+    channel             varchar(32)  NOT NULL,
+    recipient           varchar(255),
+    status              varchar(32)  NOT NULL,
+    provider_message_id varchar(255),
+    error               varchar(1000),
+    updated_at          timestamp(6) NOT NULL
+);
+CREATE INDEX idx_delivery_messages_batch_position ON _delivery_messages (batch_id, position);
+-- Messages a stopped instance left unfinished
+CREATE INDEX idx_delivery_messages_unfinished ON _delivery_messages (updated_at) WHERE status IN ('QUEUED', 'SENDING');
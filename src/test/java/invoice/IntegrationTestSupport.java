@@ -0,0 +1,169 @@
+package invoice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pengrad.telegrambot.TelegramBot;
+import invoice.services.EmailService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.servlet.http.Cookie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Boots the whole application on an embedded PostgreSQL 16 whose schema comes from the Flyway migrations,
+ * with mail and Telegram mocked. Requests go through MockMvc, so every servlet filter (security, query guard)
+ * has finished by the time a request returns. Subclasses share one database and one application context.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"prod", "test"})
+public abstract class IntegrationTestSupport {
+    private static final String PASSWORD = "Integration-test-1";
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    protected MockMvc mockMvc;
+    @Autowired
+    protected ObjectMapper objectMapper;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    protected EmailService emailService;
+    @MockBean
+    protected TelegramBot telegramBot;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    /**
+     * Registers and signs in a new user
+     */
+    protected TestUser signUp() throws Exception {
+        String email = "it-" + UUID.randomUUID() + "@test.local";
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("fullName", "Integration Test", "email", email,
+                        "password", PASSWORD, "phoneNumber", "+2348000000000"))));
+        return new TestUser(email, login(email));
+    }
+
+    protected String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", email, "password", PASSWORD)))).andReturn();
+        Cookie accessToken = result.getResponse().getCookie("accessToken");
+        if (accessToken == null) {
+            throw new IllegalStateException("Login failed for " + email + ": " + result.getResponse().getContentAsString());
+        }
+        return accessToken.getValue();
+    }
+
+    /**
+     * Creates an invoice with the given number of line items and returns its id
+     */
+    protected String createInvoice(TestUser user, int itemCount) throws Exception {
+        MockMultipartHttpServletRequestBuilder request = invoiceForm(multipart("/api/invoices/add"),
+                "Integration test invoice", itemCount);
+        MvcResult result = mockMvc.perform(authorized(request, user)).andReturn();
+        if (result.getResponse().getStatus() != 201) {
+            throw new IllegalStateException("Invoice creation failed: " + result.getResponse().getContentAsString());
+        }
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    /**
+     * Fills in the form fields of an invoice creation or update with the given title and line items
+     */
+    protected static MockMultipartHttpServletRequestBuilder invoiceForm(MockMultipartHttpServletRequestBuilder request,
+                                                                        String title, int itemCount) {
+        request.param("fullName", "Bello Logistics Accounts")
+                .param("email", "accounts@bellologistics.example")
+                .param("phone", "+2348111111111")
+                .param("businessName", "Bello Logistics")
+                .param("title", title)
+                .param("currency", "NGN")
+                .param("paymentTerms", "Net 30")
+                .param("accountNumber", "0123456789")
+                .param("accountName", "Integration Test Ltd")
+                .param("bank", "First Bank");
+        double subtotal = 0;
+        for (int i = 0; i < itemCount; i++) {
+            double rate = 12_500 + i * 500;
+            request.param("items[" + i + "].itemName", "Service " + i)
+                    .param("items[" + i + "].category", "SERVICE")
+                    .param("items[" + i + "].quantity", "1")
+                    .param("items[" + i + "].rate", Double.toString(rate))
+                    .param("items[" + i + "].amount", Double.toString(rate));
+            subtotal += rate;
+        }
+        request.param("subtotal", Double.toString(subtotal)).param("totalDue", Double.toString(subtotal));
+        return request;
+    }
+
+    /**
+     * Lifts the free plan's monthly invoice cap; the subscription exists once the first invoice is created
+     */
+    protected void upgradeToUnlimitedPlan(TestUser user) {
+        jdbcTemplate.update("UPDATE subscriptions SET plan = 'PREMIUM' WHERE user_id = (SELECT id FROM users WHERE email = ?)",
+                user.email());
+    }
+
+    protected static <T extends MockHttpServletRequestBuilder> T authorized(T request, TestUser user) {
+        request.header("Authorization", "Bearer " + user.accessToken());
+        return request;
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                    // Durability is irrelevant for a throwaway database
+                    .setServerConfig("fsync", "off")
+                    .setServerConfig("synchronous_commit", "off")
+                    .start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to stop the embedded database: " + e.getMessage());
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the embedded database", e);
+        }
+    }
+
+    protected record TestUser(String email, String accessToken) {
+    }
+}
@@ -0,0 +1,119 @@
+package invoice.controllers;
+
+import invoice.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * Edits and marks paid the same few invoices from many threads at once. Every write goes through
+ * OptimisticRetryExecutor, so each committed edit must show in the invoice's version, the last one must be
+ * what is stored, every invoice must end PAID, and each must have exactly one receipt whichever call won.
+ * Retries are raised so the contention here is resolved rather than exhausted.
+ */
+@TestPropertySource(properties = "app.optimistic-retry.max-attempts=20")
+class ConcurrentInvoiceEditsTest extends IntegrationTestSupport {
+    private static final int INVOICES = 3;
+    private static final int THREADS = 8;
+    private static final int EDITS_PER_THREAD = 4;
+
+    @Test
+    void concurrentEditsAndPaymentsLoseNothing() throws Exception {
+        TestUser user = signUp();
+        List<String> invoiceIds = new ArrayList<>();
+        invoiceIds.add(createInvoice(user, 2));
+        upgradeToUnlimitedPlan(user);
+        for (int i = 1; i < INVOICES; i++) invoiceIds.add(createInvoice(user, 2));
+        Map<String, Long> initialVersions = new ConcurrentHashMap<>();
+        for (String id : invoiceIds) initialVersions.put(id, version(id));
+
+        Map<String, Set<String>> committedTitles = new ConcurrentHashMap<>();
+        Map<String, Set<String>> receiptNumbers = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> committedEdits = new ConcurrentHashMap<>();
+        for (String id : invoiceIds) {
+            committedTitles.put(id, ConcurrentHashMap.newKeySet());
+            receiptNumbers.put(id, ConcurrentHashMap.newKeySet());
+            committedEdits.put(id, new AtomicInteger());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int edit = 0; edit < EDITS_PER_THREAD; edit++) {
+                    for (String id : invoiceIds) {
+                        // The item count is part of the title, so a stored title with someone else's items shows up
+                        int items = 1 + (thread + edit) % 3;
+                        String title = "t" + thread + "-e" + edit + "-items" + items;
+                        MockHttpServletResponse updated = mockMvc.perform(authorized(
+                                invoiceForm(multipart(HttpMethod.PATCH, "/api/invoices/update/" + id), title, items),
+                                user)).andReturn().getResponse();
+                        assertThat(updated.getStatus()).as("update of %s", id).isEqualTo(200);
+                        committedTitles.get(id).add(title);
+                        committedEdits.get(id).incrementAndGet();
+
+                        if (edit == thread % EDITS_PER_THREAD) {
+                            MockHttpServletResponse paid = mockMvc.perform(authorized(patch("/api/invoices/" + id + "/mark-as-paid")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"paymentMethod\":\"Bank Transfer\"}"), user)).andReturn().getResponse();
+                            assertThat(paid.getStatus()).as("mark-as-paid of %s", id).isEqualTo(200);
+                            receiptNumbers.get(id).add(objectMapper.readTree(paid.getContentAsString())
+                                    .get("receiptNumber").asText());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).as("workers finished").isTrue();
+        for (Future<?> worker : workers) worker.get();
+
+        for (String id : invoiceIds) {
+            Map<String, Object> stored = jdbcTemplate.queryForMap(
+                    "SELECT status, title, version FROM _invoices WHERE id = ?::uuid", id);
+            assertThat(stored.get("status")).as("status of %s", id).isEqualTo("PAID");
+
+            // One version per committed edit, plus one for being marked paid: no commit overwrote another
+            assertThat((Long) stored.get("version") - initialVersions.get(id))
+                    .as("version increments of %s", id).isEqualTo(committedEdits.get(id).get() + 1L);
+
+            String title = (String) stored.get("title");
+            assertThat(committedTitles.get(id)).as("committed titles of %s", id).contains(title);
+            Integer items = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM _invoice_items WHERE invoice_id = ?::uuid", Integer.class, id);
+            assertThat(title).as("items stored with %s", title).endsWith("-items" + items);
+
+            Integer receipts = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM _receipts WHERE invoice_id = ?::uuid", Integer.class, id);
+            assertThat(receipts).as("receipts of %s", id).isEqualTo(1);
+            assertThat(receiptNumbers.get(id)).as("receipt numbers returned for %s", id).hasSize(1);
+        }
+    }
+
+    private long version(String invoiceId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM _invoices WHERE id = ?::uuid", Long.class, invoiceId);
+    }
+}
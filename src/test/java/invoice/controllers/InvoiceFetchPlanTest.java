@@ -0,0 +1,88 @@
+package invoice.controllers;
+
+import invoice.IntegrationTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Counts the statements Hibernate prepares per request, from its statistics, so a read path that goes back
+ * to loading associations one by one (an EAGER mapping, a lazy collection touched per row) fails here.
+ * Limits match the routes' query budgets; list endpoints must also issue the same number of statements
+ * however many invoices there are.
+ */
+class InvoiceFetchPlanTest extends IntegrationTestSupport {
+    private static final int ITEMS_PER_INVOICE = 3;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void statistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled()).as("hibernate.generate_statistics").isTrue();
+    }
+
+    @Test
+    void currentUserStaysWithinBudget() throws Exception {
+        TestUser user = signUp();
+
+        assertThat(statementsFor(authorized(get("/api/auth/me"), user))).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void invoiceDetailLoadsItsAssociationsUpFront() throws Exception {
+        TestUser user = signUp();
+        String invoiceId = createInvoice(user, ITEMS_PER_INVOICE);
+
+        assertThat(statementsFor(authorized(get("/api/invoices/" + invoiceId), user))).isLessThanOrEqualTo(10);
+        assertThat(statementsFor(get("/api/invoices/public/" + invoiceId))).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void invoiceListsDoNotGrowWithTheNumberOfInvoices() throws Exception {
+        TestUser user = signUp();
+        createInvoice(user, ITEMS_PER_INVOICE);
+        upgradeToUnlimitedPlan(user);
+
+        long getAllWithOne = statementsFor(authorized(get("/api/invoices/get-all"), user));
+        long allUserWithOne = statementsFor(authorized(get("/api/invoices/all-user"), user));
+        for (int i = 0; i < 5; i++) createInvoice(user, ITEMS_PER_INVOICE);
+        long getAllWithSix = statementsFor(authorized(get("/api/invoices/get-all"), user));
+        long allUserWithSix = statementsFor(authorized(get("/api/invoices/all-user"), user));
+
+        assertThat(getAllWithSix).as("GET /api/invoices/get-all").isEqualTo(getAllWithOne).isLessThanOrEqualTo(12);
+        assertThat(allUserWithSix).as("GET /api/invoices/all-user").isEqualTo(allUserWithOne).isLessThanOrEqualTo(12);
+    }
+
+    @Test
+    void recipientStatsDoNotGrowWithTheNumberOfInvoices() throws Exception {
+        TestUser user = signUp();
+        createInvoice(user, ITEMS_PER_INVOICE);
+        upgradeToUnlimitedPlan(user);
+        MockHttpServletRequestBuilder stats = authorized(get("/api/invoices/stats/received")
+                .param("email", "accounts@bellologistics.example"), user);
+
+        long withOne = statementsFor(stats);
+        for (int i = 0; i < 3; i++) createInvoice(user, ITEMS_PER_INVOICE);
+
+        assertThat(statementsFor(stats)).isEqualTo(withOne).isLessThanOrEqualTo(6);
+    }
+
+    // Statistics are global, which is why the tests run with scheduled jobs switched off
+    private long statementsFor(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        assertThat(status).as("status of the measured request").isEqualTo(200);
+        return statistics.getPrepareStatementCount();
+    }
+}
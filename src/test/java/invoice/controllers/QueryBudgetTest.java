@@ -0,0 +1,79 @@
+package invoice.controllers;
+
+import invoice.IntegrationTestSupport;
+import invoice.config.QueryGuardProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Drives every route that has an {@code app.query-guard.budgets} entry and fails if one runs more JDBC statements
+ * than its budget, or if a budget has no request here to check it. Counts come from the query guard's
+ * {@code db.statements} meter, so they include the security filters and JdbcTemplate statements.
+ */
+class QueryBudgetTest extends IntegrationTestSupport {
+
+    @Autowired
+    private QueryGuardProperties queryGuardProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Long> measured = new LinkedHashMap<>();
+
+    @Test
+    void budgetedRoutesStayWithinTheirBudgets() throws Exception {
+        TestUser user = signUp();
+
+        measure("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + user.email() + "\",\"password\":\"Integration-test-1\"}"));
+        measure("GET /api/auth/me", authorized(get("/api/auth/me"), user));
+
+        double beforeCreation = totalStatements("POST /api/invoices/add");
+        String invoiceId = createInvoice(user, 3);
+        measured.put("POST /api/invoices/add", (long) (totalStatements("POST /api/invoices/add") - beforeCreation));
+        upgradeToUnlimitedPlan(user);
+        for (int i = 0; i < 4; i++) createInvoice(user, 3);
+
+        measure("GET /api/invoices/get-all", authorized(get("/api/invoices/get-all"), user));
+        measure("GET /api/invoices/{id}", authorized(get("/api/invoices/" + invoiceId), user));
+        measure("GET /api/invoices/public/{uuid}", get("/api/invoices/public/" + invoiceId));
+        measure("GET /api/invoices/dashboard/stats", authorized(get("/api/invoices/dashboard/stats"), user));
+        measure("GET /api/invoices/dashboard/payment-trends", authorized(get("/api/invoices/dashboard/payment-trends"), user));
+        measure("GET /api/invoices/dashboard/recent-invoices", authorized(get("/api/invoices/dashboard/recent-invoices"), user));
+        measure("PATCH /api/invoices/{id}/mark-as-paid", authorized(patch("/api/invoices/" + invoiceId + "/mark-as-paid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"paymentMethod\":\"Bank Transfer\"}"), user));
+
+        assertThat(measured.keySet()).as("routes with a budget but no request in this test")
+                .containsAll(queryGuardProperties.getBudgets().keySet());
+        measured.forEach((endpoint, statements) -> assertThat(statements)
+                .as("statements run by %s", endpoint)
+                .isPositive()
+                .isLessThanOrEqualTo(queryGuardProperties.budgetFor(endpoint)));
+    }
+
+    private void measure(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+        double before = totalStatements(endpoint);
+        int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        assertThat(status).as("status of %s", endpoint).isBetween(200, 299);
+        measured.put(endpoint, (long) (totalStatements(endpoint) - before));
+    }
+
+    // Requests run one at a time, so the growth of the route's total is the last request's count
+    private double totalStatements(String endpoint) {
+        DistributionSummary summary = meterRegistry.find("db.statements").tag("uri", endpoint).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}